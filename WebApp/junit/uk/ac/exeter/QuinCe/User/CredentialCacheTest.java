@@ -0,0 +1,124 @@
+package uk.ac.exeter.QuinCe.User;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for {@link CredentialCache}.
+ */
+public class CredentialCacheTest extends BaseTest {
+
+  private static final String EMAIL = "test@test.com";
+
+  private static final char[] PASSWORD = "password".toCharArray();
+
+  private static void put(String email, char[] password, User user) {
+    CredentialCache.put(email, password, user,
+      CredentialCache.getGeneration(email));
+  }
+
+  @AfterEach
+  public void clearCache() {
+    CredentialCache.clear();
+  }
+
+  @Test
+  public void notCachedTest() {
+    assertNull(CredentialCache.get(EMAIL, PASSWORD));
+  }
+
+  @Test
+  public void cachedTest() {
+    User user = Mockito.mock(User.class);
+    put(EMAIL, PASSWORD, user);
+    assertSame(user, CredentialCache.get(EMAIL, "password".toCharArray()));
+  }
+
+  @Test
+  public void wrongPasswordTest() {
+    put(EMAIL, PASSWORD, Mockito.mock(User.class));
+    assertNull(CredentialCache.get(EMAIL, "Password".toCharArray()));
+  }
+
+  @Test
+  public void wrongEmailTest() {
+    put(EMAIL, PASSWORD, Mockito.mock(User.class));
+    assertNull(CredentialCache.get("other@test.com", PASSWORD));
+  }
+
+  @Test
+  public void invalidateTest() {
+    put(EMAIL, PASSWORD, Mockito.mock(User.class));
+    put(EMAIL, "old".toCharArray(), Mockito.mock(User.class));
+    User other = Mockito.mock(User.class);
+    put("other@test.com", PASSWORD, other);
+
+    CredentialCache.invalidate("Test@Test.com");
+
+    assertNull(CredentialCache.get(EMAIL, PASSWORD));
+    assertNull(CredentialCache.get(EMAIL, "old".toCharArray()));
+    assertSame(other, CredentialCache.get("other@test.com", PASSWORD));
+  }
+
+  @Test
+  public void sizeLimitedTest() {
+    for (int i = 0; i <= CredentialCache.MAX_ENTRIES; i++) {
+      put("user" + i + "@test.com", PASSWORD,
+        Mockito.mock(User.class));
+    }
+
+    User user = Mockito.mock(User.class);
+    put(EMAIL, PASSWORD, user);
+    assertSame(user, CredentialCache.get(EMAIL, PASSWORD));
+    assertNull(CredentialCache.get("user0@test.com", PASSWORD));
+  }
+
+  @Test
+  public void invalidatedDuringAuthenticationTest() {
+    long generation = CredentialCache.getGeneration(EMAIL);
+
+    // The password is changed while the old one is being authenticated
+    CredentialCache.invalidate(EMAIL);
+
+    CredentialCache.put(EMAIL, PASSWORD, Mockito.mock(User.class),
+      generation);
+    assertNull(CredentialCache.get(EMAIL, PASSWORD));
+  }
+
+  @Test
+  public void otherUserInvalidatedTest() {
+    long generation = CredentialCache.getGeneration(EMAIL);
+    CredentialCache.invalidate("other@test.com");
+
+    User user = Mockito.mock(User.class);
+    CredentialCache.put(EMAIL, PASSWORD, user, generation);
+    assertSame(user, CredentialCache.get(EMAIL, PASSWORD));
+  }
+
+  @Test
+  public void loginRecordThrottledTest() {
+    long now = System.currentTimeMillis();
+    put(EMAIL, PASSWORD, Mockito.mock(User.class));
+
+    // The login was recorded when the credentials were authenticated
+    assertFalse(CredentialCache.claimLoginRecord(EMAIL, PASSWORD, now));
+
+    long later = now + CredentialCache.LOGIN_RECORD_MILLIS + 1000;
+    assertTrue(CredentialCache.claimLoginRecord(EMAIL, PASSWORD, later));
+    assertFalse(CredentialCache.claimLoginRecord(EMAIL, PASSWORD, later));
+  }
+
+  @Test
+  public void loginRecordNotCachedTest() {
+    assertFalse(CredentialCache.claimLoginRecord(EMAIL, PASSWORD,
+      System.currentTimeMillis() + CredentialCache.LOGIN_RECORD_MILLIS));
+  }
+}
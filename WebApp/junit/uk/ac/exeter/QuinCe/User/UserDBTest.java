@@ -221,6 +221,27 @@ public class UserDBTest extends BaseTest {
 
   }
 
+  /**
+   * Test that recording a login for already verified credentials removes the
+   * password reset code, as a full authentication does.
+   *
+   * @throws Exception
+   *           If any internal errors are encountered.
+   */
+  @FlywayTest
+  @Test
+  public void recordAuthenticatedLoginPasswordCodeTest() throws Exception {
+    User user = createUser(false);
+    UserDB.generatePasswordResetCode(getDataSource(), user);
+
+    UserDB.recordAuthenticatedLogin(getDataSource(), TEST_USER_EMAIL);
+
+    User postLoginUser = UserDB.getUser(getDataSource(),
+      user.getDatabaseID());
+    assertNull(postLoginUser.getPasswordResetCode());
+    assertNull(postLoginUser.getPasswordResetCodeTime());
+  }
+
   /**
    * Test that retrieving a user via a {@link javax.sql.DataSource} with an
    * email address throws an throws an exception when the address is missing or
@@ -0,0 +1,136 @@
+package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Properties;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.IcosFlagScheme;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Tests for the cached flag cascades in {@link DataReducer}.
+ *
+ * <p>
+ * Uses the Flag Cascade test variable, which has sensors with several
+ * different cascade rules.
+ * </p>
+ */
+@FlywayTest(locationsForMigrate = { "resources/sql/testbase/user",
+  "resources/sql/data/Instrument/SensorDefinition/VariableTest/flagCascade" })
+public class DataReducerCascadeTest extends BaseTest {
+
+  @BeforeEach
+  public void init() {
+    initResourceManager();
+  }
+
+  @AfterEach
+  public void teardown() {
+    ResourceManager.destroy();
+  }
+
+  private List<Flag> getFlags() {
+    return Arrays.asList(flagScheme.getGoodFlag(),
+      flagScheme.getAssumedGoodFlag(), IcosFlagScheme.QUESTIONABLE_FLAG,
+      flagScheme.getBadFlag());
+  }
+
+  private DataReducer makeReducer(Variable variable) {
+    return new NoReductionReducer(variable, new HashMap<String, Properties>(),
+      null);
+  }
+
+  @Test
+  public void cascadeSensorTypesTest() throws Exception {
+    Instrument instrument = InstrumentDB.getInstrument(getConnection(), 1);
+    Variable variable = instrument.getVariable("testVar");
+    DataReducer reducer = makeReducer(variable);
+
+    List<SensorType> sensorTypes = reducer.getCascadeSensorTypes();
+    assertEquals(variable.getAllSensorTypes(true, true), sensorTypes);
+    assertSame(sensorTypes, reducer.getCascadeSensorTypes());
+  }
+
+  @Test
+  public void cachedCascadeMatchesVariableTest() throws Exception {
+    Instrument instrument = InstrumentDB.getInstrument(getConnection(), 1);
+    Variable variable = instrument.getVariable("testVar");
+    DataReducer reducer = makeReducer(variable);
+
+    List<SensorType> sensorTypes = variable.getAllSensorTypes(true, true);
+    assertFalse(sensorTypes.isEmpty());
+
+    // Run twice so the second pass comes from the cache
+    for (int pass = 0; pass < 2; pass++) {
+      for (SensorType sensorType : sensorTypes) {
+        for (Flag flag : getFlags()) {
+          assertEquals(
+            variable.getCascade(sensorType, instrument.getFlagScheme(), flag,
+              instrument.getSensorAssignments()),
+            reducer.getCascade(instrument, sensorType, flag),
+            sensorType.getShortName() + " " + flag);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void instrumentChangeResetsCacheTest() throws Exception {
+    SensorType sensorType = ResourceManager.getInstance()
+      .getSensorsConfiguration().getSensorType("requiredSensor1");
+    Flag flag = IcosFlagScheme.QUESTIONABLE_FLAG;
+
+    SensorAssignments assignments1 = Mockito.mock(SensorAssignments.class);
+    Instrument instrument1 = Mockito.mock(Instrument.class);
+    Mockito.when(instrument1.getFlagScheme()).thenReturn(flagScheme);
+    Mockito.when(instrument1.getSensorAssignments()).thenReturn(assignments1);
+
+    SensorAssignments assignments2 = Mockito.mock(SensorAssignments.class);
+    Instrument instrument2 = Mockito.mock(Instrument.class);
+    Mockito.when(instrument2.getFlagScheme()).thenReturn(flagScheme);
+    Mockito.when(instrument2.getSensorAssignments()).thenReturn(assignments2);
+
+    // The same sensor cascades differently on each instrument
+    Variable variable = Mockito.mock(Variable.class);
+    Mockito.when(variable.getCascade(sensorType, flagScheme, flag,
+      assignments1)).thenReturn(flagScheme.getBadFlag());
+    Mockito.when(variable.getCascade(sensorType, flagScheme, flag,
+      assignments2)).thenReturn(IcosFlagScheme.QUESTIONABLE_FLAG);
+
+    DataReducer reducer = makeReducer(variable);
+
+    assertEquals(flagScheme.getBadFlag(),
+      reducer.getCascade(instrument1, sensorType, flag));
+    assertEquals(flagScheme.getBadFlag(),
+      reducer.getCascade(instrument1, sensorType, flag));
+    assertEquals(IcosFlagScheme.QUESTIONABLE_FLAG,
+      reducer.getCascade(instrument2, sensorType, flag));
+    assertEquals(flagScheme.getBadFlag(),
+      reducer.getCascade(instrument1, sensorType, flag));
+
+    // The repeated call was cached, but each change of instrument needs a
+    // new lookup
+    Mockito.verify(variable, Mockito.times(2)).getCascade(sensorType,
+      flagScheme, flag, assignments1);
+    Mockito.verify(variable, Mockito.times(1)).getCascade(sensorType,
+      flagScheme, flag, assignments2);
+  }
+}
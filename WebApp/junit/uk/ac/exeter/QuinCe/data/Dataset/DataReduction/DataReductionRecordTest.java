@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
@@ -230,4 +231,60 @@ public class DataReductionRecordTest extends BaseTest {
     assertEquals(1, record.getQCMessages().size());
     assertEquals("Bad Message", record.getQCMessages().iterator().next());
   }
+
+  /**
+   * Test that a parameter set to {@code null} is reported as not set.
+   *
+   * @throws DataReductionException
+   */
+  @Test
+  public void setNullParameterTest() throws DataReductionException {
+    DataReductionRecord record = makeEmptyRecord();
+    record.put(PARAM_1, 23.4D);
+    record.put(PARAM_1, null);
+    assertNull(record.getCalculationValue(PARAM_1));
+  }
+
+  /**
+   * Test that NaN values are retained.
+   *
+   * @throws DataReductionException
+   */
+  @Test
+  public void setNaNParameterTest() throws DataReductionException {
+    DataReductionRecord record = makeEmptyRecord();
+    record.put(PARAM_1, Double.NaN);
+    assertEquals(Double.NaN, record.getCalculationValue(PARAM_1));
+  }
+
+  /**
+   * Test that the calculation JSON contains only the values that have been
+   * set, and omits NaN and infinite values.
+   *
+   * @throws DataReductionException
+   */
+  @Test
+  public void calculationJsonTest() throws DataReductionException {
+    DataReductionRecord record = new DataReductionRecord(makeMeasurement(),
+      makeVariable(), flagScheme,
+      Arrays.asList(PARAM_1, PARAM_2, "NaN", "Inf", "ΔT", "Unset"));
+
+    record.put(PARAM_1, 23.4D);
+    record.put(PARAM_2, 12D);
+    record.put("NaN", Double.NaN);
+    record.put("Inf", Double.POSITIVE_INFINITY);
+    record.put("ΔT", -1.0E-7D);
+
+    assertEquals("{\"Param1\":23.4,\"Param2\":12.0,\"ΔT\":-1.0E-7}",
+      record.getCalculationJson());
+  }
+
+  /**
+   * Test that records with the same parameters share a parameter index.
+   */
+  @Test
+  public void sharedParameterIndexTest() {
+    assertSame(ParameterIndex.of(makeParameterNames()),
+      ParameterIndex.of(makeParameterNames()));
+  }
 }
@@ -0,0 +1,102 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for the run lookups in {@link DatasetMeasurements}.
+ */
+@FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+public class DatasetMeasurementsTest extends BaseTest {
+
+  private static final String MEASUREMENT = "measure";
+
+  private static final String STANDARD = "std1";
+
+  /**
+   * Run types for minutes 0 to 9. The standard runs are minutes 2-3 and 6-7.
+   */
+  private static final List<String> RUN_TYPES = Arrays.asList(MEASUREMENT,
+    MEASUREMENT, STANDARD, STANDARD, MEASUREMENT, MEASUREMENT, STANDARD,
+    STANDARD, MEASUREMENT, MEASUREMENT);
+
+  private DatasetMeasurements measurements;
+
+  private static TimeCoordinate makeTime(int minute) {
+    return new TimeCoordinate(1L, LocalDateTime.of(2025, 1, 1, 0, minute, 0));
+  }
+
+  @BeforeEach
+  public void makeMeasurements() throws Exception {
+    initResourceManager();
+
+    measurements = new DatasetMeasurements();
+
+    // Added out of order to check that runs are found in time order
+    for (int minute = RUN_TYPES.size() - 1; minute >= 0; minute--) {
+      HashMap<Long, String> runTypes = new HashMap<Long, String>();
+      runTypes.put(Measurement.RUN_TYPE_DEFINES_VARIABLE,
+        RUN_TYPES.get(minute));
+
+      measurements.addMeasurement(new Measurement(minute, 1L,
+        makeTime(minute), runTypes, null, flagScheme));
+    }
+  }
+
+  private List<Long> getIds(List<Measurement> run) {
+    return run.stream().map(Measurement::getId).toList();
+  }
+
+  @Test
+  public void runBeforeTest() {
+    assertEquals(Arrays.asList(2L, 3L), getIds(measurements.getRunBefore(
+      Measurement.RUN_TYPE_DEFINES_VARIABLE, STANDARD, makeTime(5))));
+  }
+
+  @Test
+  public void runBeforeInsideRunTest() {
+    assertEquals(Arrays.asList(6L, 7L), getIds(measurements.getRunBefore(
+      Measurement.RUN_TYPE_DEFINES_VARIABLE, STANDARD, makeTime(7))));
+  }
+
+  @Test
+  public void noRunBeforeTest() {
+    assertTrue(measurements.getRunBefore(Measurement.RUN_TYPE_DEFINES_VARIABLE,
+      STANDARD, makeTime(2)).isEmpty());
+  }
+
+  @Test
+  public void runAfterTest() {
+    assertEquals(Arrays.asList(6L, 7L), getIds(measurements.getRunAfter(
+      Measurement.RUN_TYPE_DEFINES_VARIABLE, STANDARD, makeTime(5))));
+  }
+
+  @Test
+  public void runAfterInsideRunTest() {
+    assertEquals(Arrays.asList(2L, 3L), getIds(measurements.getRunAfter(
+      Measurement.RUN_TYPE_DEFINES_VARIABLE, STANDARD, makeTime(2))));
+  }
+
+  @Test
+  public void noRunAfterTest() {
+    assertTrue(measurements.getRunAfter(Measurement.RUN_TYPE_DEFINES_VARIABLE,
+      STANDARD, makeTime(7)).isEmpty());
+  }
+
+  @Test
+  public void unknownRunTypeTest() {
+    assertTrue(measurements.getRunBefore(Measurement.RUN_TYPE_DEFINES_VARIABLE,
+      "missing", makeTime(9)).isEmpty());
+  }
+}
@@ -0,0 +1,154 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Files.DataFile;
+
+/**
+ * Tests for {@link DatasetProcessingMessages}.
+ */
+public class DatasetProcessingMessagesTest extends BaseTest {
+
+  private static final String MODULE = "Module";
+
+  private DataFile makeFile(String name) {
+    DataFile file = Mockito.mock(DataFile.class);
+    Mockito.when(file.getFilename()).thenReturn(name);
+    return file;
+  }
+
+  @Test
+  public void singleMessagesTest() {
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    messages.addMessage(MODULE, "Plain");
+    messages.addMessage(MODULE, makeFile("file.csv"), 10, "File message");
+
+    assertEquals(Arrays.asList("Plain", "file.csv:10 File message"),
+      messages.getMessages(MODULE));
+  }
+
+  @Test
+  public void repeatedMessagesAggregatedTest() {
+    DataFile file = makeFile("file.csv");
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    for (int i = 1; i <= 3; i++) {
+      messages.addMessage(MODULE, "Plain");
+      messages.addMessage(MODULE, file, i, "File message");
+    }
+
+    assertEquals(
+      Arrays.asList("Plain (3 times)",
+        "file.csv: File message (3 lines: 1, 2, 3)"),
+      messages.getMessages(MODULE));
+    assertEquals(6, messages.getMessageCount());
+  }
+
+  @Test
+  public void sampleLinesLimitedTest() {
+    DataFile file = makeFile("file.csv");
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    for (int i = 1; i <= 100000; i++) {
+      messages.addMessage(MODULE, file, i, "Incorrect number of columns");
+    }
+
+    assertEquals(
+      Arrays.asList("file.csv: Incorrect number of columns (100000 lines: "
+        + "1, 2, 3, 4, 5, 6, 7, 8, 9, 10, ...)"),
+      messages.getMessages(MODULE));
+    assertEquals(100000, messages.getMessageCount());
+  }
+
+  @Test
+  public void sameMessageDifferentFilesTest() {
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    messages.addMessage(MODULE, makeFile("a.csv"), 1, "Message");
+    messages.addMessage(MODULE, makeFile("b.csv"), 1, "Message");
+
+    assertEquals(Arrays.asList("a.csv:1 Message", "b.csv:1 Message"),
+      messages.getMessages(MODULE));
+  }
+
+  @Test
+  public void distinctMessagesLimitedTest() {
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    int extra = 20;
+    for (int i = 0; i < DatasetProcessingMessages.MAX_MESSAGES_PER_MODULE
+      + extra; i++) {
+      messages.addMessage(MODULE, "Message " + i);
+    }
+
+    List<String> result = messages.getMessages(MODULE);
+    assertEquals(DatasetProcessingMessages.MAX_MESSAGES_PER_MODULE + 1,
+      result.size());
+    assertEquals(extra + " further messages not shown",
+      result.get(result.size() - 1));
+    assertEquals(DatasetProcessingMessages.MAX_MESSAGES_PER_MODULE + extra,
+      messages.getMessageCount());
+  }
+
+  @Test
+  public void jsonRoundTripTest() {
+    DataFile file = makeFile("file.csv");
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    for (int i = 1; i <= 20; i++) {
+      messages.addMessage(MODULE, file, i, "File message");
+    }
+    messages.addMessage(MODULE, "Plain");
+    messages.addMessage("Other", "Repeated");
+    messages.addMessage("Other", "Repeated");
+
+    DatasetProcessingMessages loaded = DatasetProcessingMessages
+      .fromJson(messages.toJson());
+
+    assertEquals(messages.getDisplayString(), loaded.getDisplayString());
+    assertEquals(messages.getMessageCount(), loaded.getMessageCount());
+    assertEquals(messages.toJson(), loaded.toJson());
+  }
+
+  @Test
+  public void oldJsonFormatTest() {
+    DatasetProcessingMessages loaded = DatasetProcessingMessages
+      .fromJson("{\"" + MODULE + "\":[\"file.csv:1 Message\",\"Plain\"]}");
+
+    assertEquals(Arrays.asList("file.csv:1 Message", "Plain"),
+      loaded.getMessages(MODULE));
+  }
+
+  @Test
+  public void unparsedJsonReturnedTest() {
+    String json = "{\"" + MODULE + "\":[\"Plain\"]}";
+    assertEquals(json, DatasetProcessingMessages.fromJson(json).toJson());
+  }
+
+  @Test
+  public void hasMessagesTest() {
+    assertTrue(DatasetProcessingMessages
+      .fromJson("{\"A\":[],\"B\":[\"Plain\"]}").hasMessages());
+  }
+
+  @Test
+  public void hasNoMessagesTest() {
+    assertFalse(
+      DatasetProcessingMessages.fromJson("{\"A\":[],\"B\":[]}").hasMessages());
+    assertFalse(DatasetProcessingMessages.fromJson(null).hasMessages());
+    assertFalse(new DatasetProcessingMessages().hasMessages());
+  }
+
+  @Test
+  public void clearModuleTest() {
+    DatasetProcessingMessages messages = new DatasetProcessingMessages();
+    messages.addMessage(MODULE, "Plain");
+    messages.clearModule(MODULE);
+    assertFalse(messages.hasMessages());
+    assertTrue(messages.getModuleNames().contains(MODULE));
+  }
+}
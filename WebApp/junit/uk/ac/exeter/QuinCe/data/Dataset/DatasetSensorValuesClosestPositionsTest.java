@@ -0,0 +1,94 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import com.javadocmd.simplelatlng.LatLng;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+
+/**
+ * Tests for {@link DatasetSensorValues#getClosestPositions(List)}.
+ *
+ * <p>
+ * The results are checked against
+ * {@link DatasetSensorValues#getClosestPosition(Coordinate)} for the same
+ * coordinates.
+ * </p>
+ */
+@FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+public class DatasetSensorValuesClosestPositionsTest extends BaseTest {
+
+  private long nextId = 1L;
+
+  private DatasetSensorValues makeSensorValues() throws Exception {
+    DatasetSensorValues sensorValues = new DatasetSensorValues(
+      Mockito.mock(DataSet.class));
+
+    Instrument instrument = Mockito.mock(Instrument.class);
+    Mockito.when(instrument.getBasis()).thenReturn(Instrument.BASIS_TIME);
+    Mockito.when(instrument.getSensorAssignments())
+      .thenReturn(Mockito.mock(SensorAssignments.class));
+
+    Mockito.when(sensorValues.getInstrument()).thenReturn(instrument);
+    Mockito.when(sensorValues.getFlagScheme()).thenReturn(flagScheme);
+
+    return sensorValues;
+  }
+
+  private TimeCoordinate makeTime(int minute) {
+    return new TimeCoordinate(LocalDateTime.of(2025, 1, 1, 0, minute, 0));
+  }
+
+  private void addPosition(DatasetSensorValues sensorValues, long columnId,
+    TimeCoordinate time, double value) throws Exception {
+
+    sensorValues.add(new SensorValue(nextId++, 1L, flagScheme, columnId, time,
+      String.valueOf(value), new AutoQCResult(flagScheme),
+      flagScheme.getAssumedGoodFlag(), null));
+  }
+
+  @Test
+  public void matchesClosestPositionTest() throws Exception {
+    initResourceManager();
+
+    DatasetSensorValues sensorValues = makeSensorValues();
+
+    // Full positions at minutes 2 and 6, and a latitude only at minute 4
+    addPosition(sensorValues, SensorType.LONGITUDE_ID, makeTime(2), 10D);
+    addPosition(sensorValues, SensorType.LATITUDE_ID, makeTime(2), 50D);
+    addPosition(sensorValues, SensorType.LATITUDE_ID, makeTime(4), 51D);
+    addPosition(sensorValues, SensorType.LONGITUDE_ID, makeTime(6), 12D);
+    addPosition(sensorValues, SensorType.LATITUDE_ID, makeTime(6), 52D);
+
+    List<Coordinate> coordinates = new ArrayList<Coordinate>();
+    for (int minute = 0; minute <= 8; minute++) {
+      coordinates.add(makeTime(minute));
+    }
+
+    List<LatLng> positions = sensorValues.getClosestPositions(coordinates);
+
+    assertEquals(coordinates.size(), positions.size());
+    for (int i = 0; i < coordinates.size(); i++) {
+      assertEquals(sensorValues.getClosestPosition(coordinates.get(i)),
+        positions.get(i));
+    }
+
+    assertNull(positions.get(0));
+    assertNotNull(positions.get(2));
+    assertNotNull(positions.get(8));
+  }
+}
@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -193,4 +194,46 @@ public class RunTypePeriodsTest extends BaseTest {
     assertTrue(
       makeContainsPeriods().contains(LocalDateTime.of(2000, 2, 1, 12, 0, 0)));
   }
+
+  @Test
+  public void getRunTypeEmptyTest() {
+    RunTypePeriods periods = new RunTypePeriods();
+    assertNull(periods.getRunType(LocalDateTime.of(2000, 1, 1, 0, 0, 0)));
+  }
+
+  @Test
+  public void getRunTypeBeforeFirst() throws Exception {
+    assertNull(makeContainsPeriods()
+      .getRunType(LocalDateTime.of(1999, 12, 31, 23, 59, 59)));
+  }
+
+  @Test
+  public void getRunTypeAfterLast() throws Exception {
+    assertNull(
+      makeContainsPeriods().getRunType(LocalDateTime.of(2000, 2, 3, 0, 0, 0)));
+  }
+
+  @Test
+  public void getRunTypeBetween() throws Exception {
+    assertNull(makeContainsPeriods()
+      .getRunType(LocalDateTime.of(2000, 1, 12, 0, 0, 0)));
+  }
+
+  @Test
+  public void getRunTypeInFirst() throws Exception {
+    assertEquals("RunType", makeContainsPeriods()
+      .getRunType(LocalDateTime.of(2000, 1, 1, 12, 0, 0)));
+  }
+
+  @Test
+  public void getRunTypeInSecond() throws Exception {
+    assertEquals("RunType2", makeContainsPeriods()
+      .getRunType(LocalDateTime.of(2000, 2, 1, 12, 0, 0)));
+  }
+
+  @Test
+  public void getRunTypeOnBoundary() throws Exception {
+    assertEquals("RunType2", makeContainsPeriods()
+      .getRunType(LocalDateTime.of(2000, 2, 2, 0, 0, 0)));
+  }
 }
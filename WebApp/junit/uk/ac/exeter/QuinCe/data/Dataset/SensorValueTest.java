@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -269,4 +270,79 @@ public class SensorValueTest extends BaseTest {
     assertEquals("User Message", sensorValue.getUserQCMessage());
   }
 
+  private SensorValue makeLoadedSensorValue(String autoQCJson) {
+    return SensorValue.fromDatabase(1L, 1L, flagScheme, 1L,
+      new TimeCoordinate(LocalDateTime.of(2021, 1, 1, 0, 0, 0)), "20",
+      autoQCJson, FlagScheme.NEEDED_FLAG, null);
+  }
+
+  private String makeBadAutoQCJson()
+    throws RecordNotFoundException, RoutineException {
+    SensorValue source = makeDBSensorValue();
+    source.addAutoQCFlag(new RoutineFlag(flagScheme, makeRoutine(),
+      flagScheme.getBadFlag(), "1", "2"));
+    return source.getAutoQcJson();
+  }
+
+  @FlywayTest
+  @Test
+  public void loadedAutoQCTest()
+    throws RecordNotFoundException, RoutineException {
+    String json = makeBadAutoQCJson();
+    SensorValue sensorValue = makeLoadedSensorValue(json);
+
+    assertEquals(flagScheme.getBadFlag(), sensorValue.getAutoQcFlag());
+    assertEquals(makeRoutine().getShortMessage(),
+      sensorValue.getDisplayQCMessage(Mockito.mock(DatasetSensorValues.class)));
+    assertEquals(json, sensorValue.getAutoQcJson());
+  }
+
+  @FlywayTest
+  @Test
+  public void loadedEmptyAutoQCTest() {
+    SensorValue sensorValue = makeLoadedSensorValue(null);
+    assertEquals(flagScheme.getGoodFlag(), sensorValue.getAutoQcFlag());
+    assertNull(sensorValue.getAutoQcJson());
+    assertEquals(0, sensorValue.getAutoQcResult().size());
+  }
+
+  @FlywayTest
+  @Test
+  public void loadedAutoQCModifiedIndependentlyTest()
+    throws RecordNotFoundException, RoutineException {
+    String json = makeBadAutoQCJson();
+    SensorValue first = makeLoadedSensorValue(json);
+    SensorValue second = makeLoadedSensorValue(json);
+
+    // Read both so any shared result is created
+    first.getAutoQcFlag();
+    second.getAutoQcFlag();
+
+    assertTrue(first.removeAutoQCFlag(makeRoutine()));
+    assertEquals(flagScheme.getGoodFlag(), first.getAutoQcFlag());
+    assertEquals(flagScheme.getBadFlag(), second.getAutoQcFlag());
+    assertEquals(json, second.getAutoQcJson());
+  }
+
+  @FlywayTest
+  @Test
+  public void loadedAutoQCClearedTest() throws RecordNotFoundException,
+    RoutineException {
+    SensorValue sensorValue = makeLoadedSensorValue(makeBadAutoQCJson());
+    sensorValue.clearAutomaticQC();
+    assertEquals(flagScheme.getGoodFlag(), sensorValue.getAutoQcFlag());
+    assertNull(sensorValue.getAutoQcJson());
+  }
+
+  @FlywayTest
+  @Test
+  public void hasAutoQCFlagTest() throws RecordNotFoundException,
+    RoutineException {
+    SensorValue sensorValue = makeLoadedSensorValue(makeBadAutoQCJson());
+    assertTrue(sensorValue.hasAutoQCFlag(makeRoutine()));
+    assertFalse(sensorValue.hasAutoQCFlag(makeRoutine2()));
+
+    sensorValue.removeAutoQCFlag(makeRoutine());
+    assertFalse(sensorValue.hasAutoQCFlag(makeRoutine()));
+  }
 }
@@ -271,4 +271,28 @@ public class SensorValuesListTest extends BaseTest {
 
     assertTrue(listsEqual(expectedMinutes, foundMinutes));
   }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user",
+    "resources/sql/testbase/instrument" })
+  @Test
+  public void getClosestSensorValuesMergedTest() throws Exception {
+    TimestampSensorValuesList list = new TimestampSensorValuesList(1L,
+      getDatasetSensorValues(), false);
+
+    for (int i = 30; i < 40; i += 2) {
+      list.add(makeSensorValue(1L, 1, i));
+    }
+
+    List<Coordinate> coordinates = Arrays.asList(makeTime(1, 10),
+      makeTime(1, 30), makeTime(1, 31), makeTime(1, 31), makeTime(1, 34),
+      makeTime(1, 38), makeTime(1, 50));
+
+    List<List<SensorValue>> merged = list.getClosestSensorValues(coordinates);
+
+    assertEquals(coordinates.size(), merged.size());
+    for (int i = 0; i < coordinates.size(); i++) {
+      assertEquals(list.getClosestSensorValues(coordinates.get(i)),
+        merged.get(i));
+    }
+  }
 }
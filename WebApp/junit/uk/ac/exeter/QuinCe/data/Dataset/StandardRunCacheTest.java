@@ -0,0 +1,114 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.data.Dataset.StandardRunCache.StandardRun;
+import uk.ac.exeter.QuinCe.data.Dataset.StandardRunCache.StandardsFit;
+
+/**
+ * Tests for {@link StandardRunCache}.
+ */
+public class StandardRunCacheTest extends BaseTest {
+
+  private Measurement makeMeasurement(long id) {
+    Measurement measurement = Mockito.mock(Measurement.class);
+    Mockito.when(measurement.getId()).thenReturn(id);
+    return measurement;
+  }
+
+  private SensorValue makeSensorValue(double value) {
+    SensorValue sensorValue = Mockito.mock(SensorValue.class);
+    Mockito.when(sensorValue.getDoubleValue()).thenReturn(value);
+    return sensorValue;
+  }
+
+  private Supplier<List<SensorValue>> countingSupplier(AtomicInteger count,
+    SensorValue... values) {
+    return () -> {
+      count.incrementAndGet();
+      return Arrays.asList(values);
+    };
+  }
+
+  @Test
+  public void runCachedTest() {
+    StandardRunCache cache = new StandardRunCache();
+    AtomicInteger count = new AtomicInteger();
+    Supplier<List<SensorValue>> supplier = countingSupplier(count,
+      makeSensorValue(1D), makeSensorValue(3D));
+
+    StandardRun run = cache.getRun(makeMeasurement(1L), 10L, supplier);
+    assertEquals(2D, run.getMean());
+    assertSame(run, cache.getRun(makeMeasurement(1L), 10L, supplier));
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void runColumnsSeparateTest() {
+    StandardRunCache cache = new StandardRunCache();
+    AtomicInteger count = new AtomicInteger();
+    Supplier<List<SensorValue>> supplier = countingSupplier(count,
+      makeSensorValue(1D));
+
+    assertNotSame(cache.getRun(makeMeasurement(1L), 10L, supplier),
+      cache.getRun(makeMeasurement(1L), 11L, supplier));
+    assertEquals(2, count.get());
+  }
+
+  @Test
+  public void emptyRunTest() {
+    StandardRunCache cache = new StandardRunCache();
+    StandardRun run = cache.getRun(makeMeasurement(1L), 10L,
+      countingSupplier(new AtomicInteger()));
+    assertTrue(Double.isNaN(run.getMean()));
+  }
+
+  @Test
+  public void fitCachedTest() {
+    StandardRunCache cache = new StandardRunCache();
+    StandardRun low = cache.getRun(makeMeasurement(1L), 10L,
+      countingSupplier(new AtomicInteger(), makeSensorValue(101D)));
+    StandardRun high = cache.getRun(makeMeasurement(2L), 10L,
+      countingSupplier(new AtomicInteger(), makeSensorValue(503D)));
+
+    AtomicInteger count = new AtomicInteger();
+    Supplier<StandardsFit> builder = () -> {
+      count.incrementAndGet();
+      StandardsFit fit = new StandardsFit();
+      fit.addRun(100D, low);
+      fit.addRun(500D, high);
+      return fit;
+    };
+
+    List<Object> key = Arrays.asList(10L, 1L, 100D, 2L, 500D);
+    StandardsFit fit = cache.getFit(key, builder);
+    assertTrue(fit.isUsable());
+    assertEquals(2D, fit.predict(300D), 0.000001D);
+    assertEquals(2, fit.getUsedValues().size());
+
+    assertSame(fit, cache.getFit(Arrays.asList(10L, 1L, 100D, 2L, 500D),
+      builder));
+    assertEquals(1, count.get());
+  }
+
+  @Test
+  public void singleRunFitNotUsableTest() {
+    StandardsFit fit = new StandardsFit();
+    fit.addRun(100D, new StandardRunCache().getRun(makeMeasurement(1L), 10L,
+      countingSupplier(new AtomicInteger(), makeSensorValue(101D))));
+    assertFalse(fit.isUsable());
+  }
+}
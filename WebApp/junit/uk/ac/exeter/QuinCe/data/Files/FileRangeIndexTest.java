@@ -0,0 +1,101 @@
+package uk.ac.exeter.QuinCe.data.Files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for {@link FileRangeIndex}.
+ */
+public class FileRangeIndexTest extends BaseTest {
+
+  /**
+   * Make an index of consecutive files, each covering 10 positions.
+   *
+   * @param count
+   *          The number of files.
+   * @return The index.
+   */
+  private FileRangeIndex makeSequentialIndex(int count) {
+    FileRangeIndex index = new FileRangeIndex();
+
+    // Add in reverse order to check sorting
+    for (int i = count - 1; i >= 0; i--) {
+      index.add(i, String.valueOf(i * 10), String.valueOf(i * 10 + 9));
+    }
+
+    return index;
+  }
+
+  private TreeSet<Long> search(FileRangeIndex index, long start, long end) {
+    return new TreeSet<Long>(index.getOverlapping(start, end));
+  }
+
+  @Test
+  public void emptyIndexTest() {
+    assertTrue(new FileRangeIndex().getOverlapping(0L, 100L).isEmpty());
+  }
+
+  @Test
+  public void noOverlapTest() {
+    FileRangeIndex index = makeSequentialIndex(10);
+    assertTrue(index.getOverlapping(200L, 300L).isEmpty());
+    assertTrue(index.getOverlapping(-20L, -1L).isEmpty());
+  }
+
+  @Test
+  public void singleOverlapTest() {
+    assertEquals(new TreeSet<Long>(Arrays.asList(5L)),
+      search(makeSequentialIndex(10), 52L, 55L));
+  }
+
+  @Test
+  public void multipleOverlapTest() {
+    assertEquals(new TreeSet<Long>(Arrays.asList(3L, 4L, 5L)),
+      search(makeSequentialIndex(10), 35L, 55L));
+  }
+
+  @Test
+  public void inclusiveBoundsTest() {
+    FileRangeIndex index = makeSequentialIndex(10);
+    assertEquals(new TreeSet<Long>(Arrays.asList(4L)), search(index, 40L, 40L));
+    assertEquals(new TreeSet<Long>(Arrays.asList(4L)), search(index, 49L, 49L));
+  }
+
+  @Test
+  public void longFileTest() {
+    FileRangeIndex index = makeSequentialIndex(10);
+    index.add(100L, "0", "1000");
+    assertEquals(new TreeSet<Long>(Arrays.asList(8L, 100L)),
+      search(index, 85L, 85L));
+  }
+
+  @Test
+  public void duplicateStartsTest() {
+    FileRangeIndex index = new FileRangeIndex();
+    index.add(1L, "10", "20");
+    index.add(2L, "10", "15");
+    index.add(3L, "10", "30");
+    assertEquals(new TreeSet<Long>(Arrays.asList(1L, 3L)),
+      search(index, 18L, 40L));
+    assertEquals(new TreeSet<Long>(Arrays.asList(1L, 2L, 3L)),
+      search(index, 0L, 10L));
+  }
+
+  @Test
+  public void unparseableRangeIncludedTest() {
+    FileRangeIndex index = makeSequentialIndex(10);
+    index.add(100L, "abc", null);
+
+    List<Long> result = index.getOverlapping(500L, 600L);
+    assertEquals(Arrays.asList(100L), result);
+    assertEquals(11, index.size());
+  }
+}
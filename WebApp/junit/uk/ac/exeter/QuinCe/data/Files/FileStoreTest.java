@@ -0,0 +1,104 @@
+package uk.ac.exeter.QuinCe.data.Files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for compressed storage in the {@link FileStore}.
+ */
+public class FileStoreTest extends BaseTest {
+
+  private static final String CONTENTS = "Date,Time,Value\n2023-01-01,00:00:00,1\n2023-01-01,00:01:00,2";
+
+  @TempDir
+  Path fileStore;
+
+  private File makeFile(long fileDefinitionId, long fileId) throws Exception {
+    File dir = fileStore.resolve(String.valueOf(fileDefinitionId)).toFile();
+    dir.mkdirs();
+    File file = new File(dir, String.valueOf(fileId));
+    Files.write(file.toPath(), CONTENTS.getBytes(Charset.defaultCharset()));
+    return file;
+  }
+
+  @Test
+  public void getBytesUncompressedTest() throws Exception {
+    makeFile(1L, 1L);
+    assertArrayEquals(CONTENTS.getBytes(Charset.defaultCharset()),
+      FileStore.getBytes(fileStore.toString(), 1L, 1L));
+  }
+
+  @Test
+  public void compressFilesTest() throws Exception {
+    File file = makeFile(1L, 1L);
+    assertEquals(1, FileStore.compressFiles(fileStore.toString()));
+
+    byte[] stored = Files.readAllBytes(file.toPath());
+    assertEquals((byte) 0x1f, stored[0]);
+    assertEquals((byte) 0x8b, stored[1]);
+  }
+
+  @Test
+  public void compressFilesAlreadyCompressedTest() throws Exception {
+    makeFile(1L, 1L);
+    FileStore.compressFiles(fileStore.toString());
+    assertEquals(0, FileStore.compressFiles(fileStore.toString()));
+  }
+
+  @Test
+  public void getBytesCompressedTest() throws Exception {
+    makeFile(1L, 1L);
+    FileStore.compressFiles(fileStore.toString());
+
+    assertArrayEquals(CONTENTS.getBytes(Charset.defaultCharset()),
+      FileStore.getBytes(fileStore.toString(), 1L, 1L));
+  }
+
+  @Test
+  public void getReaderCompressedTest() throws Exception {
+    makeFile(1L, 1L);
+    FileStore.compressFiles(fileStore.toString());
+
+    try (BufferedReader reader = FileStore.getReader(fileStore.toString(), 1L,
+      1L)) {
+      assertEquals("Date,Time,Value", reader.readLine());
+      assertEquals("2023-01-01,00:00:00,1", reader.readLine());
+      assertEquals("2023-01-01,00:01:00,2", reader.readLine());
+      assertNull(reader.readLine());
+    }
+  }
+
+  @Test
+  public void compressFilesMultipleDirectoriesTest() throws Exception {
+    makeFile(1L, 1L);
+    makeFile(1L, 2L);
+    makeFile(2L, 3L);
+    assertEquals(3, FileStore.compressFiles(fileStore.toString()));
+  }
+
+  @Test
+  public void compressFilesStaleTempFileTest() throws Exception {
+    File file = makeFile(1L, 1L);
+    File tempFile = new File(file.getAbsolutePath() + ".tmp");
+    Files.write(tempFile.toPath(), new byte[] { 1, 2, 3 });
+
+    // The leftover temporary file is not treated as a stored file
+    assertEquals(1, FileStore.compressFiles(fileStore.toString()));
+    assertFalse(tempFile.exists());
+    assertArrayEquals(CONTENTS.getBytes(Charset.defaultCharset()),
+      FileStore.getBytes(fileStore.toString(), 1L, 1L));
+  }
+}
@@ -0,0 +1,206 @@
+package uk.ac.exeter.QuinCe.data.Instrument.DataFormats;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for parsing values with a {@link DateTimeColumnAssignment}.
+ *
+ * <p>
+ * The parse methods use hand-written parsers for common formats. These tests
+ * check that they always give the same result as the assignment's
+ * {@link java.time.format.DateTimeFormatter}, including for invalid values.
+ * </p>
+ */
+public class DateTimeColumnAssignmentTest extends BaseTest {
+
+  private static final String[] DATE_TIME_FORMATS = {
+    "yyyy-MM-dd'T'HH:mm:ss'Z'", "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'",
+    "yyyyMMdd'T'HHmmss'Z'", "yyyy-MM-dd HH:mm:ss", "yyyy-MM-dd HH:mm:ss.SSS",
+    "yyyy/MM/dd HH:mm:ss", "MM/dd/yyyy HH:mm:ss", "dd/MM/yyyy HH:mm:ss",
+    "dd.MM.yyyy HH:mm:ss", "yyyyMMddHHmmss", "MM/dd/yy HH:mm:ss",
+    "dd-MMM-yyyy HH:mm:ss", "ISO" };
+
+  private static final String[] DATE_TIME_VALUES = { "2023-01-05T10:20:30Z",
+    "2023-01-05T10:20:30.123Z", "20230105T102030Z", "2023-01-05 10:20:30",
+    "2023-01-05 10:20:30.5", "2023-01-05 10:20:30.123456789",
+    "2023-01-05 10:20:30.1234567890", "2023-01-05 10:20:30.",
+    "2023/01/05 10:20:30", "01/05/2023 10:20:30", "05.01.2023 10:20:30",
+    "20230105102030", "2023-02-30 10:20:30", "2024-02-29 23:59:59",
+    "2023-04-31 00:00:00", "2023-01-05 24:00:00", "2023-01-05 10:60:00",
+    "0000-01-05 10:20:30", "12023-01-05 10:20:30", "2023-1-05 10:20:30",
+    "2023-01-05T10:20:30+01:00", "2023-01-05T10:20:30.25-05:30",
+    "2023-01-05t10:20:30Z", "2023-01-05 10:20:30 ", "01/05/23 10:20:30",
+    "05-Jan-2023 10:20:30", "2023-01-05T10:20Z" };
+
+  private static final String[] DATE_FORMATS = { "yyyy-MM-dd", "dd/MM/yyyy",
+    "yyyyMMdd" };
+
+  private static final String[] DATE_VALUES = { "2023-01-05", "05/01/2023",
+    "20230105", "2023-02-30", "2024-02-29", "31/04/2023", "2023-00-10" };
+
+  private static final String[] TIME_FORMATS = { "HH:mm:ss", "HHmmss",
+    "HH:mm:ss.SSS" };
+
+  private static final String[] TIME_VALUES = { "10:20:30", "102030",
+    "24:00:00", "10:20:30.5", "23:59:59.999999999", "10:20:60", "1:02:03" };
+
+  private static DateTimeColumnAssignment makeAssignment(int assignmentIndex,
+    String format) {
+    Properties props = new Properties();
+    props.setProperty("formatString", format);
+    return new DateTimeColumnAssignment(assignmentIndex, 0, props);
+  }
+
+  private static Stream<Arguments> combine(String[] formats,
+    String[] values) {
+    List<Arguments> result = new ArrayList<Arguments>();
+    for (String format : formats) {
+      for (String value : values) {
+        result.add(Arguments.of(format, value));
+      }
+    }
+    return result.stream();
+  }
+
+  private static Stream<Arguments> dateTimeParams() {
+    return combine(DATE_TIME_FORMATS, DATE_TIME_VALUES);
+  }
+
+  private static Stream<Arguments> dateParams() {
+    return combine(DATE_FORMATS, DATE_VALUES);
+  }
+
+  private static Stream<Arguments> timeParams() {
+    return combine(TIME_FORMATS, TIME_VALUES);
+  }
+
+  @ParameterizedTest
+  @MethodSource("dateTimeParams")
+  public void parseDateTimeTest(String format, String value) {
+    DateTimeColumnAssignment assignment = makeAssignment(
+      DateTimeSpecification.DATE_TIME, format);
+
+    LocalDateTime expected = null;
+    try {
+      expected = LocalDateTime.parse(value, assignment.getFormatter());
+    } catch (DateTimeParseException e) {
+      // Expected will remain null
+    }
+
+    if (null == expected) {
+      assertThrows(DateTimeParseException.class, () -> {
+        assignment.parseDateTime(value);
+      });
+    } else {
+      assertEquals(expected, assignment.parseDateTime(value));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("dateParams")
+  public void parseDateTest(String format, String value) {
+    DateTimeColumnAssignment assignment = makeAssignment(
+      DateTimeSpecification.DATE, format);
+
+    LocalDate expected = null;
+    try {
+      expected = LocalDate.parse(value, assignment.getFormatter());
+    } catch (DateTimeParseException e) {
+      // Expected will remain null
+    }
+
+    if (null == expected) {
+      assertThrows(DateTimeParseException.class, () -> {
+        assignment.parseDate(value);
+      });
+    } else {
+      assertEquals(expected, assignment.parseDate(value));
+    }
+  }
+
+  @ParameterizedTest
+  @MethodSource("timeParams")
+  public void parseTimeTest(String format, String value) {
+    DateTimeColumnAssignment assignment = makeAssignment(
+      DateTimeSpecification.TIME, format);
+
+    LocalTime expected = null;
+    try {
+      expected = LocalTime.parse(value, assignment.getFormatter());
+    } catch (DateTimeParseException e) {
+      // Expected will remain null
+    }
+
+    if (null == expected) {
+      assertThrows(DateTimeParseException.class, () -> {
+        assignment.parseTime(value);
+      });
+    } else {
+      assertEquals(expected, assignment.parseTime(value));
+    }
+  }
+
+  @Test
+  public void formatterCachedTest() {
+    DateTimeColumnAssignment assignment = makeAssignment(
+      DateTimeSpecification.DATE_TIME, "yyyy-MM-dd HH:mm:ss");
+    assertSame(assignment.getFormatter(), assignment.getFormatter());
+  }
+
+  @Test
+  public void formatterChangedTest() throws Exception {
+    DateTimeColumnAssignment assignment = makeAssignment(
+      DateTimeSpecification.DATE_TIME, "yyyy-MM-dd HH:mm:ss");
+    assignment.parseDateTime("2023-01-05 10:20:30");
+
+    assignment.setDateFormatString("dd/MM/yyyy HH:mm:ss");
+    assertEquals(LocalDateTime.of(2023, 1, 5, 10, 20, 30),
+      assignment.parseDateTime("05/01/2023 10:20:30"));
+  }
+
+  private static Stream<Arguments> yearDayTimeParams() {
+    return Stream.of(Arguments.of(2023, 1D), Arguments.of(2023, 5.4305),
+      Arguments.of(2023, 365.99999), Arguments.of(2023, 366.5),
+      Arguments.of(2024, 366.5), Arguments.of(2024, 60.25),
+      Arguments.of(2023, 0.5), Arguments.of(2023, -3.25),
+      Arguments.of(2023, 400D), Arguments.of(2023, Math.nextDown(2D)));
+  }
+
+  @ParameterizedTest
+  @MethodSource("yearDayTimeParams")
+  public void makeYearDayTimeTest(int year, double jdayTime) {
+    LocalDateTime expected = LocalDateTime.of(year, 1, 1, 0, 0)
+      .plusDays((int) jdayTime - 1)
+      .plusSeconds((int) ((jdayTime - (int) jdayTime) * 86400));
+
+    LocalDateTime fast = FixedWidthDateTimeParser.makeYearDayTime(year,
+      jdayTime);
+
+    // Values outside the year are left to the full calculation
+    if (jdayTime >= 1D && jdayTime < Year.of(year).length() + 1) {
+      assertEquals(expected, fast);
+    } else {
+      assertNull(fast);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package uk.ac.exeter.QuinCe.data.Instrument;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.utils.StringUtils;
+
+/**
+ * Tests for the {@link FieldTokenizer}.
+ *
+ * <p>
+ * The tokenizer replaced a {@link String#split(String, int)} based
+ * implementation, so most tests check that both give the same results.
+ * </p>
+ */
+public class FieldTokenizerTest extends BaseTest {
+
+  private static final String[] LINES = { "", "a", "a,b,c", "a,b,c,",
+    "a,,c", ",a,b", ",,", ",,,", " a , b , c ", "\"a\",\"b\",\"c\"",
+    "'a', 'b' ,\"c\"", "\"a,b\",c", "\\a,\\\\b,\\ \"c\"", "\\", "\\\\",
+    "a\tb\tc", "a\t\tb\t", "\ta\tb", "a;b;c;", "a b c", "  a   b  c  ",
+    "a \t b", "a  b  c ", "   ", "\t", "2023-01-01 00:00:00,1.5,NaN,,\"x\"",
+    "a,b,c,d", "a;;;", "\u00e9,\u00fc" };
+
+  private static final String[] SEPARATORS = { ",", "\t", ";", " " };
+
+  private static final int[] EXPECTED_COUNTS = { 1, 2, 3 };
+
+  /**
+   * The original implementation of {@link FileDefinition#extractFields}.
+   */
+  private static List<String> splitFields(String dataLine, String separator,
+    int columnCount) {
+
+    if (separator.equals(" ")) {
+      dataLine = StringUtils.removeRepeats(dataLine.trim(), ' ');
+    }
+
+    List<String> values = new ArrayList<String>(StringUtils.trimListAndQuotes(
+      Arrays.asList(dataLine.split(separator, dataLine.length()))));
+
+    if (values.size() == columnCount + 1
+      && values.get(values.size() - 1).length() == 0) {
+      values.remove(values.size() - 1);
+    }
+
+    return values;
+  }
+
+  private static Stream<Arguments> tokenizeParams() {
+    List<Arguments> result = new ArrayList<Arguments>();
+    for (String separator : SEPARATORS) {
+      for (String line : LINES) {
+        for (int count : EXPECTED_COUNTS) {
+          result.add(Arguments.of(separator, line, count));
+        }
+      }
+    }
+
+    return result.stream();
+  }
+
+  @ParameterizedTest
+  @MethodSource("tokenizeParams")
+  public void getFieldsTest(String separator, String line, int columnCount) {
+    FieldTokenizer tokenizer = new FieldTokenizer(separator);
+    tokenizer.tokenize(line, columnCount);
+    assertEquals(splitFields(line, separator, columnCount),
+      tokenizer.getFields());
+  }
+
+  @ParameterizedTest
+  @MethodSource("tokenizeParams")
+  public void getFieldTest(String separator, String line, int columnCount) {
+    List<String> expected = splitFields(line, separator, columnCount);
+
+    FieldTokenizer tokenizer = new FieldTokenizer(separator);
+    assertEquals(expected.size(), tokenizer.tokenize(line, columnCount));
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), tokenizer.getField(i));
+    }
+  }
+
+  @Test
+  public void reuseTest() {
+    FieldTokenizer tokenizer = new FieldTokenizer(",");
+    tokenizer.tokenize("a,b,c", 3);
+    List<String> first = tokenizer.getFields();
+
+    tokenizer.tokenize("d,e", 3);
+    assertEquals(Arrays.asList("a", "b", "c"), first);
+    assertEquals(Arrays.asList("d", "e"), tokenizer.getFields());
+  }
+
+  @Test
+  public void manyFieldsTest() {
+    StringBuilder line = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      if (i > 0) {
+        line.append(',');
+      }
+      line.append(i);
+    }
+
+    FieldTokenizer tokenizer = new FieldTokenizer(",");
+    assertEquals(100, tokenizer.tokenize(line, 100));
+    assertEquals("99", tokenizer.getField(99));
+  }
+
+  @Test
+  public void setFieldTest() {
+    FieldTokenizer tokenizer = new FieldTokenizer(",");
+    tokenizer.tokenize("a,b,c", 3);
+    List<String> fields = tokenizer.getFields();
+    fields.set(1, null);
+    assertEquals(Arrays.asList("a", null, "c"), fields);
+  }
+
+  @Test
+  public void missingFieldTest() {
+    FieldTokenizer tokenizer = new FieldTokenizer(",");
+    tokenizer.tokenize("a,b,c", 3);
+    assertThrows(IndexOutOfBoundsException.class, () -> {
+      tokenizer.getField(3);
+    });
+  }
+
+  @Test
+  public void invalidSeparatorTest() {
+    assertThrows(IllegalArgumentException.class, () -> {
+      new FieldTokenizer("ab");
+    });
+  }
+}
@@ -0,0 +1,132 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.User.UserDB;
+import uk.ac.exeter.QuinCe.jobs.test.TenSecondJob;
+
+/**
+ * Tests for {@link JobManager#getJobList}.
+ */
+public class JobManagerJobListTest extends BaseTest {
+
+  private static final String JOB_CLASS = TenSecondJob.class
+    .getCanonicalName();
+
+  /**
+   * Add a set of test jobs.
+   *
+   * @param count
+   *          The number of jobs.
+   * @return The job IDs, in the order they were created.
+   */
+  private List<Long> addJobs(int count) throws Exception {
+    List<Long> result = new ArrayList<Long>();
+
+    try (Connection conn = getConnection()) {
+      User owner = UserDB.getUser(conn, 1L);
+
+      Properties properties = new Properties();
+      properties.setProperty(TenSecondJob.CHUNK_KEY, "1");
+
+      for (int i = 0; i < count; i++) {
+        result.add(JobManager.addJob(conn, owner, JOB_CLASS, properties));
+      }
+    }
+
+    return result;
+  }
+
+  private List<Long> getIds(List<JobSummary> jobs) {
+    List<Long> result = new ArrayList<Long>();
+    jobs.forEach(j -> result.add(j.getId()));
+    return result;
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void newestFirstTest() throws Exception {
+    List<Long> ids = addJobs(3);
+
+    List<JobSummary> jobs = JobManager.getJobList(getDataSource(), null, null,
+      null, null, 10);
+
+    assertEquals(Arrays.asList(ids.get(2), ids.get(1), ids.get(0)),
+      getIds(jobs));
+    assertEquals("Fred Bloggs", jobs.get(0).getOwner().getFullName());
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void pagingTest() throws Exception {
+    List<Long> ids = addJobs(5);
+
+    List<JobSummary> firstPage = JobManager.getJobList(getDataSource(), null,
+      null, null, null, 2);
+    assertEquals(Arrays.asList(ids.get(4), ids.get(3)), getIds(firstPage));
+
+    List<JobSummary> secondPage = JobManager.getJobList(getDataSource(), null,
+      null, null, ids.get(3), 2);
+    assertEquals(Arrays.asList(ids.get(2), ids.get(1)), getIds(secondPage));
+
+    List<JobSummary> lastPage = JobManager.getJobList(getDataSource(), null,
+      null, null, ids.get(1), 2);
+    assertEquals(Arrays.asList(ids.get(0)), getIds(lastPage));
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void filterTest() throws Exception {
+    List<Long> ids = addJobs(3);
+    JobManager.setStatus(getDataSource(), ids.get(1), Job.FINISHED_STATUS);
+
+    assertEquals(Arrays.asList(ids.get(1)), getIds(JobManager.getJobList(
+      getDataSource(), Job.FINISHED_STATUS, null, null, null, 10)));
+
+    List<JobSummary> waiting = JobManager.getJobList(getDataSource(),
+      Job.WAITING_STATUS, 1L, JOB_CLASS, null, 10);
+    assertEquals(Arrays.asList(ids.get(2), ids.get(0)), getIds(waiting));
+
+    assertTrue(JobManager
+      .getJobList(getDataSource(), null, 2L, null, null, 10).isEmpty());
+
+    assertTrue(JobManager.getJobList(getDataSource(), null, null,
+      "uk.ac.exeter.QuinCe.jobs.files.AutoQCJob", null, 10).isEmpty());
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void stackTraceTest() throws Exception {
+    List<Long> ids = addJobs(2);
+
+    try (Connection conn = getConnection()) {
+      JobManager.logJobError(conn, ids.get(0),
+        new Exception("Test exception"));
+    }
+
+    List<JobSummary> jobs = JobManager.getJobList(getDataSource(), null, null,
+      null, null, 10);
+
+    assertFalse(jobs.get(0).isStackTraceAvailable());
+    assertTrue(jobs.get(1).isStackTraceAvailable());
+    assertNull(jobs.get(1).getStackTrace());
+
+    assertTrue(JobManager.getStackTrace(getDataSource(), ids.get(0))
+      .contains("Test exception"));
+    assertNull(JobManager.getStackTrace(getDataSource(), ids.get(1)));
+  }
+}
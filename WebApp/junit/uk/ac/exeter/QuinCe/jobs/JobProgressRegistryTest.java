@@ -0,0 +1,64 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for {@link JobProgressRegistry}.
+ */
+public class JobProgressRegistryTest extends BaseTest {
+
+  @AfterEach
+  public void clearRegistry() {
+    JobProgressRegistry.clear();
+  }
+
+  @Test
+  public void notRunningTest() {
+    assertNull(JobProgressRegistry.getProgress(1L));
+  }
+
+  @Test
+  public void setProgressTest() throws Exception {
+    JobProgressRegistry.setProgress(1L, 25D);
+    JobProgressRegistry.setProgress(2L, 50D);
+    JobProgressRegistry.setProgress(1L, 75D);
+
+    assertEquals(75D, JobProgressRegistry.getProgress(1L));
+    assertEquals(50D, JobProgressRegistry.getProgress(2L));
+  }
+
+  @Test
+  public void removeTest() throws Exception {
+    JobProgressRegistry.setProgress(1L, 25D);
+    JobProgressRegistry.remove(1L);
+    assertNull(JobProgressRegistry.getProgress(1L));
+  }
+
+  @Test
+  public void negativeProgressTest() {
+    assertThrows(BadProgressException.class, () -> {
+      JobProgressRegistry.setProgress(1L, -1D);
+    });
+  }
+
+  @Test
+  public void excessiveProgressTest() {
+    assertThrows(BadProgressException.class, () -> {
+      JobProgressRegistry.setProgress(1L, 100.1D);
+    });
+  }
+
+  @Test
+  public void nanProgressTest() {
+    assertThrows(BadProgressException.class, () -> {
+      JobProgressRegistry.setProgress(1L, Double.NaN);
+    });
+  }
+}
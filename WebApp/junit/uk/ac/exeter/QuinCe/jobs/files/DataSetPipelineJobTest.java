@@ -0,0 +1,90 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.flywaydb.test.annotation.FlywayTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.User.UserDB;
+import uk.ac.exeter.QuinCe.jobs.Job;
+import uk.ac.exeter.QuinCe.jobs.JobManager;
+import uk.ac.exeter.QuinCe.jobs.JobThread;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Tests for {@link DataSetPipelineJob} and
+ * {@link Job#runStage(uk.ac.exeter.QuinCe.jobs.NextJobInfo, JobThread)}.
+ */
+public class DataSetPipelineJobTest extends BaseTest {
+
+  @BeforeEach
+  public void setup() {
+    initResourceManager();
+    TestStageJob.reset();
+  }
+
+  /**
+   * Create a {@link TestPipelineJob} and run it to completion in the current
+   * thread.
+   *
+   * @param fail
+   *          The name of the stage that should fail, or {@code null} if all
+   *          stages should succeed.
+   * @return The job's database ID.
+   */
+  private long runPipeline(String fail) throws Exception {
+    User owner = UserDB.getUser(getDataSource(), 1L);
+
+    Properties properties = new Properties();
+    properties.setProperty(DataSetJob.ID_PARAM, "1");
+    properties.setProperty(TestStageJob.STAGES_PROPERTY, "one,two,three");
+    if (null != fail) {
+      properties.setProperty(TestStageJob.FAIL_PROPERTY, fail);
+    }
+
+    long jobId = JobManager.addJob(getDataSource(), owner,
+      TestPipelineJob.class.getCanonicalName(), properties);
+
+    ResourceManager resourceManager = ResourceManager.getInstance();
+    Job job = JobManager.getJob(resourceManager, resourceManager.getConfig(),
+      jobId);
+
+    JobThread thread = new JobThread(true);
+    thread.setupJob(job);
+    thread.run();
+
+    return jobId;
+  }
+
+  private String getStatus() throws Exception {
+    return JobManager.getJobList(getDataSource(), null, null, null, null, 1)
+      .get(0).getStatus();
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void stagesRunInOrderTest() throws Exception {
+    long jobId = runPipeline(null);
+
+    assertEquals(
+      Arrays.asList(jobId + ":one", jobId + ":two", jobId + ":three"),
+      TestStageJob.getStagesRun());
+    assertEquals(Job.FINISHED_STATUS, getStatus());
+  }
+
+  @FlywayTest(locationsForMigrate = { "resources/sql/testbase/user" })
+  @Test
+  public void failedStageTest() throws Exception {
+    long jobId = runPipeline("two");
+
+    assertEquals(Arrays.asList(jobId + ":one", jobId + ":two"),
+      TestStageJob.getStagesRun());
+    assertEquals(Job.ERROR_STATUS, getStatus());
+  }
+}
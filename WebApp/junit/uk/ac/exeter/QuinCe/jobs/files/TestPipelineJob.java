@@ -0,0 +1,53 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.util.Properties;
+
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobClassTypeException;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
+import uk.ac.exeter.QuinCe.jobs.NextJobInfo;
+import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * A {@link DataSetPipelineJob} that runs {@link TestStageJob}s instead of the
+ * data set processing jobs.
+ */
+public class TestPipelineJob extends DataSetPipelineJob {
+
+  /**
+   * Initialise the job object so it is ready to run
+   *
+   * @param resourceManager
+   *          The system resource manager
+   * @param config
+   *          The application configuration
+   * @param jobId
+   *          The id of the job in the database
+   * @param owner
+   *          The job's owner
+   * @param properties
+   *          The job properties
+   * @throws InvalidJobParametersException
+   *           If the parameters are not valid for the job
+   * @throws MissingParamException
+   *           If any of the parameters are invalid
+   * @throws RecordNotFoundException
+   *           If the job record cannot be found in the database
+   * @throws DatabaseException
+   *           If a database error occurs
+   */
+  public TestPipelineJob(ResourceManager resourceManager, Properties config,
+    long jobId, User owner, Properties properties)
+    throws MissingParamException, InvalidJobParametersException,
+    DatabaseException, RecordNotFoundException {
+    super(resourceManager, config, jobId, owner, properties);
+  }
+
+  @Override
+  protected NextJobInfo getFirstStage() throws InvalidJobClassTypeException {
+    return new NextJobInfo(TestStageJob.class.getCanonicalName(), properties);
+  }
+}
@@ -0,0 +1,127 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobClassTypeException;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
+import uk.ac.exeter.QuinCe.jobs.Job;
+import uk.ac.exeter.QuinCe.jobs.JobFailedException;
+import uk.ac.exeter.QuinCe.jobs.JobThread;
+import uk.ac.exeter.QuinCe.jobs.NextJobInfo;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * A stage for {@link TestPipelineJob}. Each stage records that it has run, and
+ * then returns the details of the next stage.
+ */
+public class TestStageJob extends Job {
+
+  /**
+   * Property containing the comma-separated names of the stages still to run,
+   * starting with this one.
+   */
+  public static final String STAGES_PROPERTY = "stages";
+
+  /**
+   * Property containing the name of a stage that should fail.
+   */
+  public static final String FAIL_PROPERTY = "fail";
+
+  /**
+   * The stages that have been run, as {@code <job id>:<stage name>}.
+   */
+  private static List<String> stagesRun = new ArrayList<String>();
+
+  /**
+   * Name of the job, used for reporting
+   */
+  private final String jobName = "Test stage";
+
+  /**
+   * Constructs a job object, and validates the parameters passed to it
+   *
+   * @param resourceManager
+   *          The system resource manager
+   * @param config
+   *          The application properties
+   * @param id
+   *          The id of the job in the database
+   * @param owner
+   *          The job's owner
+   * @param properties
+   *          The parameters for the job
+   * @throws InvalidJobParametersException
+   *           If the parameters are not valid for the job
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public TestStageJob(ResourceManager resourceManager, Properties config,
+    long id, User owner, Properties properties)
+    throws MissingParamException, InvalidJobParametersException {
+    super(resourceManager, config, id, owner, properties);
+  }
+
+  @Override
+  protected NextJobInfo execute(JobThread thread) throws JobFailedException {
+
+    List<String> stages = new ArrayList<String>(
+      Arrays.asList(properties.getProperty(STAGES_PROPERTY).split(",")));
+    String stage = stages.remove(0);
+
+    stagesRun.add(id + ":" + stage);
+
+    if (stage.equals(properties.getProperty(FAIL_PROPERTY))) {
+      throw new JobFailedException(id, "Stage " + stage + " failed");
+    }
+
+    NextJobInfo result = null;
+
+    if (stages.size() > 0) {
+      Properties nextProperties = new Properties();
+      nextProperties.putAll(properties);
+      nextProperties.setProperty(STAGES_PROPERTY, String.join(",", stages));
+
+      try {
+        result = new NextJobInfo(TestStageJob.class.getCanonicalName(),
+          nextProperties);
+      } catch (InvalidJobClassTypeException e) {
+        throw new JobFailedException(id, e);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  protected void validateParameters() throws InvalidJobParametersException {
+    if (null == properties.getProperty(STAGES_PROPERTY)) {
+      throw new InvalidJobParametersException(STAGES_PROPERTY + " is missing");
+    }
+  }
+
+  @Override
+  public String getJobName() {
+    return jobName;
+  }
+
+  /**
+   * Get the stages that have been run, as {@code <job id>:<stage name>}.
+   *
+   * @return The stages that have been run.
+   */
+  protected static List<String> getStagesRun() {
+    return stagesRun;
+  }
+
+  /**
+   * Clear the record of stages that have been run.
+   */
+  protected static void reset() {
+    stagesRun.clear();
+  }
+}
@@ -0,0 +1,42 @@
+package uk.ac.exeter.QuinCe.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+public class InternerTest {
+
+  @Test
+  public void sameInstanceTest() {
+    Interner<String> interner = new Interner<String>(10);
+    String first = new String("Message");
+    String second = new String("Message");
+
+    assertSame(first, interner.get(first));
+    assertSame(first, interner.get(second));
+  }
+
+  @Test
+  public void nullTest() {
+    Interner<String> interner = new Interner<String>(10);
+    assertNull(interner.get(null));
+    assertEquals(0, interner.size());
+  }
+
+  @Test
+  public void maxSizeTest() {
+    Interner<String> interner = new Interner<String>(2);
+    interner.get("a");
+    interner.get("b");
+
+    String c = new String("c");
+    assertSame(c, interner.get(c));
+    assertEquals(2, interner.size());
+
+    // Values that didn't fit are not stored
+    String c2 = new String("c");
+    assertSame(c2, interner.get(c2));
+  }
+}
@@ -0,0 +1,148 @@
+package uk.ac.exeter.QuinCe.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the {@link LongObjectMap} class.
+ */
+public class LongObjectMapTest {
+
+  @Test
+  public void putGetTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    assertNull(map.put(1L, "a"));
+    assertEquals("a", map.get(1L));
+    assertEquals("a", map.put(1L, "b"));
+    assertEquals("b", map.get(1L));
+    assertEquals(1, map.size());
+  }
+
+  @Test
+  public void missingKeyTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    map.put(1L, "a");
+    assertNull(map.get(2L));
+    assertFalse(map.containsKey(2L));
+    assertNull(map.get("1"));
+  }
+
+  @Test
+  public void zeroKeyTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    assertFalse(map.containsKey(0L));
+    map.put(0L, "zero");
+    assertTrue(map.containsKey(0L));
+    assertEquals("zero", map.get(0L));
+    assertEquals(1, map.size());
+    assertEquals("zero", map.remove(0L));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void boxedKeyTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    map.put(Long.valueOf(5L), "five");
+    assertEquals("five", map.get(Long.valueOf(5L)));
+    assertTrue(map.containsKey(Long.valueOf(5L)));
+    assertEquals("five", map.remove(Long.valueOf(5L)));
+    assertFalse(map.containsKey(5L));
+  }
+
+  @Test
+  public void resizeTest() {
+    LongObjectMap<Long> map = new LongObjectMap<Long>();
+    for (long i = 0; i < 10000; i++) {
+      map.put(i, Long.valueOf(i * 2));
+    }
+
+    assertEquals(10000, map.size());
+    for (long i = 0; i < 10000; i++) {
+      assertEquals(Long.valueOf(i * 2), map.get(i));
+    }
+  }
+
+  @Test
+  public void removeTest() {
+    LongObjectMap<Long> map = new LongObjectMap<Long>();
+    for (long i = 1; i <= 1000; i++) {
+      map.put(i, Long.valueOf(i));
+    }
+
+    for (long i = 1; i <= 1000; i += 2) {
+      assertEquals(Long.valueOf(i), map.remove(i));
+    }
+
+    assertEquals(500, map.size());
+    for (long i = 1; i <= 1000; i++) {
+      assertEquals(i % 2 == 0, map.containsKey(i));
+    }
+  }
+
+  @Test
+  public void matchesHashMapTest() {
+    LongObjectMap<Long> map = new LongObjectMap<Long>();
+    Map<Long, Long> expected = new HashMap<Long, Long>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 50000; i++) {
+      long key = random.nextInt(2000) - 100;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        Long value = random.nextLong();
+        assertEquals(expected.put(key, value), map.put(key, value));
+      }
+    }
+
+    assertEquals(expected, map);
+    assertEquals(new TreeSet<Long>(expected.keySet()),
+      new TreeSet<Long>(map.keySet()));
+  }
+
+  @Test
+  public void valuesTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    map.put(0L, "a");
+    map.put(10L, "b");
+    map.put(20L, "c");
+
+    assertEquals(new TreeSet<String>(Arrays.asList("a", "b", "c")),
+      new TreeSet<String>(map.values()));
+  }
+
+  @Test
+  public void clearTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    map.put(0L, "a");
+    map.put(10L, "b");
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(10L));
+  }
+
+  @Test
+  public void modifiedDuringIterationTest() {
+    LongObjectMap<String> map = new LongObjectMap<String>();
+    map.put(1L, "a");
+    map.put(2L, "b");
+
+    Iterator<String> iterator = map.values().iterator();
+    iterator.next();
+    map.put(3L, "c");
+    assertThrows(ConcurrentModificationException.class, iterator::next);
+  }
+}
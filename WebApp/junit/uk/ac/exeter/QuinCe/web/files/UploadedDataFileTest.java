@@ -0,0 +1,65 @@
+package uk.ac.exeter.QuinCe.web.files;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import uk.ac.exeter.QuinCe.TestBase.BaseTest;
+
+/**
+ * Tests for the line splitting in {@link UploadedDataFile#getLines()}.
+ */
+public class UploadedDataFileTest extends BaseTest {
+
+  /**
+   * Simple {@link UploadedDataFile} backed by a {@link String}.
+   */
+  private class StringUploadedDataFile extends UploadedDataFile {
+
+    private final byte[] bytes;
+
+    private StringUploadedDataFile(String contents) {
+      this.bytes = contents.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String getName() {
+      return "test.csv";
+    }
+
+    @Override
+    public byte[] getFileBytes() {
+      return bytes;
+    }
+  }
+
+  private static Stream<String> getLinesContents() {
+    return Stream.of("a,b,c", "a,b,c\n1,2,3", "a,b,c\r\n1,2,3\r\n",
+      "a,b,c\r1,2,3\r", "a,b,c\n\n\n1,2,3\n\n", "\na,b,c\n1,2,3",
+      "\r\n\r\na,b,c\n1,2,3", "a,b,c\n  \n1,2,3", "\u00e9,\u00fc\n1,2");
+  }
+
+  @ParameterizedTest
+  @MethodSource("getLinesContents")
+  public void getLinesTest(String contents) {
+    // The lines should match the original regex-based split
+    assertArrayEquals(contents.split("[\\r\\n]+"),
+      new StringUploadedDataFile(contents).getLines());
+  }
+
+  @Test
+  public void getLinesEmptyTest() {
+    assertNull(new StringUploadedDataFile("").getLines());
+  }
+
+  @Test
+  public void getLinesWhitespaceTest() {
+    assertNull(new StringUploadedDataFile(" \r\n\t\n ").getLines());
+  }
+}
@@ -0,0 +1,326 @@
+package uk.ac.exeter.QuinCe.User;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * A short-lived cache of credentials that have been successfully
+ * authenticated.
+ *
+ * <p>
+ * Authenticating a user with {@link UserDB#authenticate} requires a database
+ * lookup and a deliberately slow password hash. API clients send their
+ * credentials with every request, so once a set of credentials has been
+ * verified the resulting {@link User} is cached for {@link #TTL_MILLIS}.
+ * </p>
+ *
+ * <p>
+ * Passwords are not stored. Entries are keyed by an HMAC of the email address
+ * and password, using a random key generated when the application starts.
+ * </p>
+ *
+ * <p>
+ * Entries for a user are removed by {@link #invalidate(String)} when their
+ * password or email verification state is changed. Invalidation must happen
+ * after the change has been committed to the database. Each invalidation
+ * also increments a generation counter for the user. Callers read the
+ * generation with {@link #getGeneration(String)} before authenticating and
+ * pass it to {@link #put(String, char[], User, long)}, which drops the entry
+ * if the user was invalidated in the meantime. This stops a request that
+ * authenticated against an old password from caching it again.
+ * </p>
+ *
+ * <p>
+ * A full authentication records the login and clears any password reset
+ * code. Cached credentials only repeat those updates once every
+ * {@link #LOGIN_RECORD_MILLIS} (see {@link #claimLoginRecord(String, char[])}),
+ * so most cached requests make no database writes.
+ * </p>
+ *
+ * <p>
+ * Changes made directly in the database, such as to a user's permissions,
+ * will take effect when the cached entry expires.
+ * </p>
+ */
+public class CredentialCache {
+
+  /**
+   * The length of time for which authenticated credentials are cached.
+   */
+  protected static final long TTL_MILLIS = 5 * 60 * 1000;
+
+  /**
+   * The minimum time between recorded logins for a cached entry.
+   */
+  protected static final long LOGIN_RECORD_MILLIS = 60 * 1000;
+
+  /**
+   * The maximum number of cached credentials.
+   */
+  protected static final int MAX_ENTRIES = 1000;
+
+  /**
+   * The algorithm used to build cache keys.
+   */
+  private static final String KEY_ALGORITHM = "HmacSHA256";
+
+  /**
+   * The random key used to build cache keys.
+   */
+  private static final byte[] KEY_SECRET = new byte[32];
+
+  /**
+   * The cached credentials.
+   */
+  private static final Map<String, Entry> CACHE = new ConcurrentHashMap<String, Entry>();
+
+  /**
+   * The number of times each user's cached credentials have been invalidated,
+   * keyed by lower case email address.
+   */
+  private static final Map<String, Long> GENERATIONS = new ConcurrentHashMap<String, Long>();
+
+  static {
+    new SecureRandom().nextBytes(KEY_SECRET);
+  }
+
+  /**
+   * Get the cached {@link User} for a set of credentials.
+   *
+   * @param email
+   *          The user's email address.
+   * @param password
+   *          The password.
+   * @return The user, or {@code null} if the credentials are not cached or
+   *         have expired.
+   */
+  public static User get(String email, char[] password) {
+    User result = null;
+
+    String key = makeKey(email, password);
+    if (null != key) {
+      Entry entry = CACHE.get(key);
+      if (null != entry) {
+        if (entry.expired(System.currentTimeMillis())) {
+          CACHE.remove(key, entry);
+        } else {
+          result = entry.user;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determine whether a login should be recorded for a set of cached
+   * credentials.
+   *
+   * <p>
+   * The login is recorded when the credentials are first authenticated. After
+   * that, this returns {@code true} at most once every
+   * {@link #LOGIN_RECORD_MILLIS} for each cached entry, and the caller is
+   * expected to record the login when it does.
+   * </p>
+   *
+   * @param email
+   *          The user's email address.
+   * @param password
+   *          The password.
+   * @return {@code true} if the login should be recorded; {@code false} if it
+   *         was recorded recently or the credentials are not cached.
+   */
+  public static boolean claimLoginRecord(String email, char[] password) {
+    return claimLoginRecord(email, password, System.currentTimeMillis());
+  }
+
+  /**
+   * Determine whether a login should be recorded for a set of cached
+   * credentials at the specified time.
+   *
+   * @param email
+   *          The user's email address.
+   * @param password
+   *          The password.
+   * @param now
+   *          The current time.
+   * @return {@code true} if the login should be recorded.
+   * @see #claimLoginRecord(String, char[])
+   */
+  protected static boolean claimLoginRecord(String email, char[] password,
+    long now) {
+
+    boolean result = false;
+
+    String key = makeKey(email, password);
+    if (null != key) {
+      Entry entry = CACHE.get(key);
+      if (null != entry && !entry.expired(now)) {
+        long lastRecorded = entry.loginRecorded.get();
+        result = now - lastRecorded >= LOGIN_RECORD_MILLIS
+          && entry.loginRecorded.compareAndSet(lastRecorded, now);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the current generation of a user's cached credentials. This must be
+   * read before the credentials are authenticated, and passed to
+   * {@link #put(String, char[], User, long)}.
+   *
+   * @param email
+   *          The user's email address.
+   * @return The generation.
+   */
+  public static long getGeneration(String email) {
+    return null == email ? 0L
+      : GENERATIONS.getOrDefault(email.toLowerCase(Locale.ROOT), 0L);
+  }
+
+  /**
+   * Cache a set of credentials that have been successfully authenticated.
+   *
+   * <p>
+   * The credentials are not cached if the user has been invalidated since
+   * {@code generation} was read, because the authentication may have used
+   * details that have since changed.
+   * </p>
+   *
+   * @param email
+   *          The user's email address.
+   * @param password
+   *          The password.
+   * @param user
+   *          The authenticated user.
+   * @param generation
+   *          The user's generation, read before authentication.
+   * @see #getGeneration(String)
+   */
+  public static void put(String email, char[] password, User user,
+    long generation) {
+
+    String key = makeKey(email, password);
+
+    if (null != key && getGeneration(email) == generation) {
+      long now = System.currentTimeMillis();
+
+      if (CACHE.size() >= MAX_ENTRIES) {
+        CACHE.values().removeIf(e -> e.expired(now));
+        if (CACHE.size() >= MAX_ENTRIES) {
+          CACHE.clear();
+        }
+      }
+
+      Entry entry = new Entry(email, user, now);
+      CACHE.put(key, entry);
+
+      // The user may have been invalidated while the entry was being added
+      if (getGeneration(email) != generation) {
+        CACHE.remove(key, entry);
+      }
+    }
+  }
+
+  /**
+   * Remove all cached credentials for a user, and stop any authentications
+   * that are in progress from being cached.
+   *
+   * <p>
+   * This must be called after any change to the user's details has been
+   * committed to the database.
+   * </p>
+   *
+   * @param email
+   *          The user's email address.
+   */
+  public static void invalidate(String email) {
+    GENERATIONS.merge(email.toLowerCase(Locale.ROOT), 1L, Long::sum);
+    CACHE.values().removeIf(e -> e.email.equalsIgnoreCase(email));
+  }
+
+  /**
+   * Remove all cached credentials.
+   */
+  public static void clear() {
+    CACHE.clear();
+  }
+
+  /**
+   * Build the cache key for a set of credentials.
+   *
+   * @param email
+   *          The email address.
+   * @param password
+   *          The password.
+   * @return The key, or {@code null} if it cannot be generated.
+   */
+  private static String makeKey(String email, char[] password) {
+    String result = null;
+
+    if (null != email && null != password) {
+      ByteBuffer passwordBytes = StandardCharsets.UTF_8
+        .encode(CharBuffer.wrap(password));
+
+      try {
+        Mac mac = Mac.getInstance(KEY_ALGORITHM);
+        mac.init(new SecretKeySpec(KEY_SECRET, KEY_ALGORITHM));
+        mac.update(email.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        mac.update(passwordBytes.duplicate());
+        result = Base64.getEncoder().encodeToString(mac.doFinal());
+      } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+        // The credentials will not be cached
+      } finally {
+        if (passwordBytes.hasArray()) {
+          Arrays.fill(passwordBytes.array(), (byte) 0);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * A cached user.
+   */
+  private static class Entry {
+
+    private final String email;
+
+    private final User user;
+
+    private final long expiry;
+
+    /**
+     * The time the login was last recorded for this entry. Entries are created
+     * immediately after a full authentication, which records the login.
+     */
+    private final AtomicLong loginRecorded;
+
+    private Entry(String email, User user, long created) {
+      this.email = email;
+      this.user = user;
+      this.expiry = created + TTL_MILLIS;
+      this.loginRecorded = new AtomicLong(created);
+    }
+
+    private boolean expired(long time) {
+      return time >= expiry;
+    }
+  }
+}
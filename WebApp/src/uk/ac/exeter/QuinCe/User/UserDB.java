@@ -674,6 +674,7 @@ public class UserDB {
       stmt.execute();
 
       user.setEmailVerificationCode(verificationCode, time);
+      CredentialCache.invalidate(user.getEmailAddress());
     } catch (SQLException e) {
       throw new DatabaseException(
         "An error occurred while storing the verification code", e);
@@ -821,6 +822,45 @@ public class UserDB {
     return authenticationResult;
   }
 
+  /**
+   * Apply the database updates made by a successful
+   * {@link #authenticate(DataSource, String, char[])} for credentials that
+   * have already been verified, such as those held in the
+   * {@link CredentialCache}.
+   *
+   * <p>
+   * Any password reset code is cleared and the login is recorded, exactly as
+   * if the user had been authenticated against the database.
+   * </p>
+   *
+   * @param dataSource
+   *          A data source.
+   * @param email
+   *          The user's email address.
+   * @throws MissingParamException
+   *           If any parameters are missing.
+   * @throws DatabaseException
+   *           If an error occurs while updating the database.
+   */
+  public static void recordAuthenticatedLogin(DataSource dataSource,
+    String email) throws MissingParamException, DatabaseException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkMissing(email, "email");
+
+    Connection conn = null;
+
+    try {
+      conn = dataSource.getConnection();
+      clearPasswordResetCode(conn, email);
+      recordLogin(conn, email);
+    } catch (SQLException e) {
+      throw new DatabaseException("Error recording login", e);
+    } finally {
+      DatabaseUtils.closeConnection(conn);
+    }
+  }
+
   /**
    * Changes a user's password.
    *
@@ -828,6 +868,13 @@ public class UserDB {
    * The new password is salted and hashed before being stored in the database.
    * </p>
    *
+   * <p>
+   * The connection may be part of a larger transaction, so the user's cached
+   * credentials are not removed here. The caller must call
+   * {@link CredentialCache#invalidate(String)} once the change has been
+   * committed.
+   * </p>
+   *
    * @param conn
    *          A database connection.
    * @param user
@@ -860,7 +907,6 @@ public class UserDB {
       stmt.setBytes(2, generatedPassword.hashedPassword);
       stmt.setLong(3, user.getDatabaseID());
       stmt.execute();
-
     } catch (SQLException | InvalidKeySpecException
       | NoSuchAlgorithmException e) {
       throw new DatabaseException(
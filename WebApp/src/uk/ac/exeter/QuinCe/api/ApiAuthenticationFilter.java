@@ -13,6 +13,7 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.sql.DataSource;
 
+import uk.ac.exeter.QuinCe.User.CredentialCache;
 import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.User.UserDB;
 import uk.ac.exeter.QuinCe.utils.ExceptionUtils;
@@ -41,6 +42,17 @@ public class ApiAuthenticationFilter implements javax.servlet.Filter {
    * If authentication succeeds and the user has the correct permissions, the
    * request is forwarded for processing.
    * </p>
+   *
+   * <p>
+   * Successfully authenticated credentials are held in the
+   * {@link CredentialCache} for a short time, so repeated calls from the same
+   * client do not need their password hashed and checked every time. Cached
+   * calls still clear any password reset code and record the login, as
+   * {@link UserDB#authenticate} does, but only when
+   * {@link CredentialCache#claimLoginRecord(String, char[])} allows it (about
+   * once a minute for each set of credentials). Other cached calls make no
+   * database access at all.
+   * </p>
    */
   @Override
   public void doFilter(ServletRequest request, ServletResponse response,
@@ -59,13 +71,34 @@ public class ApiAuthenticationFilter implements javax.servlet.Filter {
         result = HttpServletResponse.SC_UNAUTHORIZED;
       } else {
         String[] credentials = extractUserPassword(authString);
-        DataSource dataSource = ResourceManager.getInstance().getDBDataSource();
-        int authenticationResult = UserDB.authenticate(dataSource,
-          credentials[0], credentials[1].toCharArray());
-        if (authenticationResult == UserDB.AUTHENTICATE_FAILED) {
+        char[] password = credentials[1].toCharArray();
+
+        DataSource dataSource = ResourceManager.getInstance()
+          .getDBDataSource();
+
+        User user = CredentialCache.get(credentials[0], password);
+
+        if (null != user) {
+          // Keep the database updates that authentication would have made,
+          // but only occasionally
+          if (CredentialCache.claimLoginRecord(credentials[0], password)) {
+            UserDB.recordAuthenticatedLogin(dataSource, credentials[0]);
+          }
+        } else {
+          long generation = CredentialCache.getGeneration(credentials[0]);
+          int authenticationResult = UserDB.authenticate(dataSource,
+            credentials[0], password);
+          if (authenticationResult != UserDB.AUTHENTICATE_FAILED) {
+            user = UserDB.getUser(dataSource, credentials[0]);
+            if (authenticationResult == UserDB.AUTHENTICATE_OK) {
+              CredentialCache.put(credentials[0], password, user, generation);
+            }
+          }
+        }
+
+        if (null == user) {
           result = HttpServletResponse.SC_UNAUTHORIZED;
         } else {
-          User user = UserDB.getUser(dataSource, credentials[0]);
           if (!user.isApiUser()) {
             result = HttpServletResponse.SC_FORBIDDEN;
           } else {
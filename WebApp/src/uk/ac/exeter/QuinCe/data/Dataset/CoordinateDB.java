@@ -7,11 +7,12 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.sql.Types;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -20,6 +21,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+import uk.ac.exeter.QuinCe.utils.LongObjectMap;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
 
@@ -35,6 +37,11 @@ public class CoordinateDB {
   private static final String STORE_TIME_COORDINATE_STMT = "INSERT INTO coordinates "
     + "(dataset_id, date) VALUES (?, ?)";
 
+  /**
+   * The number of coordinates to insert in each batch.
+   */
+  private static final int STORE_BATCH_SIZE = 5000;
+
   private static final String GET_SENSOR_VALUE_COORDINATES_QUERY = "SELECT "
     + "sv.coordinate_id FROM sensor_values sv "
     + "INNER JOIN coordinates c ON c.id = sv.coordinate_id "
@@ -50,6 +57,17 @@ public class CoordinateDB {
     + "cycle_number, nprof, direction, nlevel, pres, source_file "
     + "FROM coordinates WHERE id IN " + DatabaseUtils.IN_PARAMS_TOKEN;
 
+  /**
+   * The coordinate fields to select in queries that join the
+   * {@code coordinates} table (with the alias {@code c}) to other tables. The
+   * {@link Coordinate}s can then be built from the same records using
+   * {@link #coordinateFromRecord(ResultSet, int, int, Map)}.
+   */
+  protected static final String JOINED_COORDINATE_COLUMNS = "c.id, "
+    + "c.dataset_id, c.date, c.depth, c.station, c.cast, c.bottle, "
+    + "c.replicate, c.cycle_number, c.nprof, c.direction, c.nlevel, c.pres, "
+    + "c.source_file";
+
   /**
    * Store the provided {@link Coordinate} in the database.
    *
@@ -129,31 +147,49 @@ public class CoordinateDB {
     MissingParam.checkMissing(coordinates, "coordinates", false);
 
     if (coordinates.size() > 0) {
-      // Make sure all coordinates are of the same type
-      if (coordinates.stream().map(c -> c.getType()).distinct().limit(2)
-        .count() > 1) {
-        throw new CoordinateException(
-          "All coordinates must be of the same type");
-      }
 
-      if (coordinates.stream().map(c -> c.getDatasetId()).distinct().limit(2)
-        .count() > 1) {
-        throw new CoordinateException(
-          "All coordinates must be for the same DataSet");
+      // Check all the coordinates in one pass, and collect the ones that
+      // need storing. The same object may appear more than once, but must
+      // only be stored once.
+      Coordinate first = coordinates.iterator().next();
+      int type = first.getType();
+      long datasetId = first.getDatasetId();
+
+      Set<Coordinate> seen = Collections
+        .newSetFromMap(new IdentityHashMap<Coordinate, Boolean>());
+      List<Coordinate> newCoordinates = new ArrayList<Coordinate>();
+
+      for (Coordinate coordinate : coordinates) {
+        // Make sure all coordinates are of the same type
+        if (coordinate.getType() != type) {
+          throw new CoordinateException(
+            "All coordinates must be of the same type");
+        }
+
+        if (coordinate.getDatasetId() != datasetId) {
+          throw new CoordinateException(
+            "All coordinates must be for the same DataSet");
+        }
+
+        if (coordinate.getId() == DatabaseUtils.NO_DATABASE_RECORD
+          && seen.add(coordinate)) {
+          newCoordinates.add(coordinate);
+        }
       }
 
-      if (!DataSetDB.datasetExists(conn,
-        coordinates.stream().findAny().get().getDatasetId())) {
+      if (!DataSetDB.datasetExists(conn, datasetId)) {
         throw new RecordNotFoundException("DataSet does not exist");
       }
 
-      switch (coordinates.stream().findAny().get().getType()) {
+      switch (type) {
       case Instrument.BASIS_TIME: {
-        storeTimeCoordinates(conn, coordinates);
+        storeCoordinates(conn, STORE_TIME_COORDINATE_STMT, type,
+          newCoordinates);
         break;
       }
       case Instrument.BASIS_ARGO: {
-        storeArgoCoordinates(conn, coordinates);
+        storeCoordinates(conn, STORE_ARGO_COORDINATE_STMT, type,
+          newCoordinates);
         break;
       }
       default: {
@@ -164,33 +200,67 @@ public class CoordinateDB {
   }
 
   /**
-   * Store the provided surface coordinates in the database.
+   * Store new coordinates in the database using batched inserts.
+   *
+   * <p>
+   * The coordinates are inserted in batches of {@link #STORE_BATCH_SIZE}. The
+   * database connection is configured to rewrite batches into multi-row
+   * inserts, and the generated keys for each batch are assigned to the
+   * coordinates in insertion order.
+   * </p>
    *
    * @param conn
+   *          A database connection.
+   * @param statement
+   *          The insert statement.
+   * @param type
+   *          The coordinate type.
    * @param coordinates
+   *          The coordinates. None of them should have a database ID.
    * @throws DatabaseException
+   *           If a database error occurs.
    * @throws CoordinateException
+   *           If any coordinate is invalid.
    */
-  private static void storeTimeCoordinates(Connection conn,
-    Collection<Coordinate> coordinates)
+  private static void storeCoordinates(Connection conn, String statement,
+    int type, List<Coordinate> coordinates)
     throws DatabaseException, CoordinateException {
 
-    try (
-      PreparedStatement stmt = conn.prepareStatement(STORE_TIME_COORDINATE_STMT,
-        Statement.RETURN_GENERATED_KEYS)) {
+    try (PreparedStatement stmt = conn.prepareStatement(statement,
+      Statement.RETURN_GENERATED_KEYS)) {
 
-      for (Coordinate coordinate : coordinates) {
-        if (coordinate.getId() == DatabaseUtils.NO_DATABASE_RECORD) {
-          stmt.setLong(1, coordinate.getDatasetId());
-          stmt.setLong(2, DateTimeUtils.dateToLong(coordinate.getTime()));
+      int batchStart = 0;
+      while (batchStart < coordinates.size()) {
+        List<Coordinate> batch = coordinates.subList(batchStart,
+          Math.min(coordinates.size(), batchStart + STORE_BATCH_SIZE));
+
+        for (Coordinate coordinate : batch) {
+          if (type == Instrument.BASIS_TIME) {
+            setTimeCoordinateParams(stmt, coordinate);
+          } else {
+            setArgoCoordinateParams(stmt, coordinate);
+          }
+          stmt.addBatch();
+        }
 
-          stmt.execute();
+        stmt.executeBatch();
 
-          try (ResultSet keys = stmt.getGeneratedKeys()) {
-            keys.next();
-            coordinate.setId(keys.getLong(1));
+        try (ResultSet keys = stmt.getGeneratedKeys()) {
+          int keyCount = 0;
+          while (keys.next()) {
+            if (keyCount < batch.size()) {
+              batch.get(keyCount).setId(keys.getLong(1));
+            }
+            keyCount++;
+          }
+
+          if (keyCount != batch.size()) {
+            throw new DatabaseException("Expected " + batch.size()
+              + " coordinate keys but got " + keyCount);
           }
         }
+
+        batchStart += batch.size();
       }
     } catch (SQLException e) {
       throw new DatabaseException("Error while storing coordinates", e);
@@ -198,52 +268,51 @@ public class CoordinateDB {
   }
 
   /**
-   * Store the provided surface coordinates in the database
+   * Set the insert statement parameters for a surface coordinate.
    *
-   * @param conn
-   * @param coordinates
-   * @throws DatabaseException
-   * @throws CoordinateException
+   * @param stmt
+   *          The insert statement.
+   * @param coordinate
+   *          The coordinate.
+   * @throws SQLException
+   *           If the parameters cannot be set.
    */
-  private static void storeArgoCoordinates(Connection conn,
-    Collection<Coordinate> coordinates)
-    throws DatabaseException, CoordinateException {
-
-    try (
-      PreparedStatement stmt = conn.prepareStatement(STORE_ARGO_COORDINATE_STMT,
-        Statement.RETURN_GENERATED_KEYS)) {
-
-      for (Coordinate coordinate : coordinates) {
-        if (coordinate.getId() == DatabaseUtils.NO_DATABASE_RECORD) {
-
-          ArgoCoordinate coord = (ArgoCoordinate) coordinate;
+  private static void setTimeCoordinateParams(PreparedStatement stmt,
+    Coordinate coordinate) throws SQLException {
 
-          stmt.setLong(1, coordinate.getDatasetId());
+    stmt.setLong(1, coordinate.getDatasetId());
+    stmt.setLong(2, DateTimeUtils.dateToLong(coordinate.getTime()));
+  }
 
-          if (null == coordinate.getTime()) {
-            stmt.setNull(2, Types.BIGINT);
-          } else {
-            stmt.setLong(2, DateTimeUtils.dateToLong(coordinate.getTime()));
-          }
+  /**
+   * Set the insert statement parameters for an Argo coordinate.
+   *
+   * @param stmt
+   *          The insert statement.
+   * @param coordinate
+   *          The coordinate.
+   * @throws SQLException
+   *           If the parameters cannot be set.
+   */
+  private static void setArgoCoordinateParams(PreparedStatement stmt,
+    Coordinate coordinate) throws SQLException {
 
-          stmt.setLong(3, coord.getCycleNumber());
-          stmt.setLong(4, coord.getNProf());
-          stmt.setString(5, String.valueOf(coord.getDirection()));
-          stmt.setLong(6, coord.getNLevel());
-          stmt.setDouble(7, coord.getPres());
-          stmt.setString(8, coord.getSourceFile());
+    ArgoCoordinate coord = (ArgoCoordinate) coordinate;
 
-          stmt.execute();
+    stmt.setLong(1, coordinate.getDatasetId());
 
-          try (ResultSet keys = stmt.getGeneratedKeys()) {
-            keys.next();
-            coordinate.setId(keys.getLong(1));
-          }
-        }
-      }
-    } catch (SQLException e) {
-      throw new DatabaseException("Error while storing coordinates", e);
+    if (null == coordinate.getTime()) {
+      stmt.setNull(2, Types.BIGINT);
+    } else {
+      stmt.setLong(2, DateTimeUtils.dateToLong(coordinate.getTime()));
     }
+
+    stmt.setLong(3, coord.getCycleNumber());
+    stmt.setLong(4, coord.getNProf());
+    stmt.setString(5, String.valueOf(coord.getDirection()));
+    stmt.setLong(6, coord.getNLevel());
+    stmt.setDouble(7, coord.getPres());
+    stmt.setString(8, coord.getSourceFile());
   }
 
   /**
@@ -355,10 +424,11 @@ public class CoordinateDB {
     int basis, Collection<Long> coordinateIds)
     throws SQLException, CoordinateException {
 
-    Map<Long, Coordinate> result = new HashMap<Long, Coordinate>();
-
     List<Long> uniqueIds = coordinateIds.stream().distinct().toList();
 
+    LongObjectMap<Coordinate> result = new LongObjectMap<Coordinate>(
+      uniqueIds.size());
+
     String sql = DatabaseUtils.makeInStatementSql(GET_COORDINATES_QUERY,
       uniqueIds.size());
 
@@ -372,7 +442,8 @@ public class CoordinateDB {
 
       try (ResultSet records = stmt.executeQuery()) {
         while (records.next()) {
-          Coordinate coordinate = coordinateFromRecord(records, basis);
+          Coordinate coordinate = coordinateFromRecord(records, basis, 1,
+            null);
           result.put(coordinate.getId(), coordinate);
         }
       }
@@ -384,57 +455,80 @@ public class CoordinateDB {
    * Retrieve a {@link Coordinate} from a {@link ResultSet}.
    *
    * <p>
+   * The coordinate fields must be in the order given by
+   * {@link #JOINED_COORDINATE_COLUMNS}, starting at {@code firstColumn}.
+   * </p>
+   *
+   * <p>
    * If {@code loadedCoordinates} is supplied, this is presumed to be a cache of
    * already retrieved {@link Coordinate}s. If the coordinate ID in the record
    * is already in this Map, the value from the Map is returned without reading
-   * the record.
+   * the rest of the record. Otherwise the new {@link Coordinate} is added to
+   * the Map.
    * </p>
    *
    * @param record
    *          The record to be read.
-   * @param loadedCoordinates
-   *          Optional cache of previously loaded {@link Coordinate}s.
    * @param basis
    *          The measurement basis for the instrument.
-   * @param datasetId
-   *          The ID of the dataset.
+   * @param firstColumn
+   *          The index of the first coordinate column in the record.
+   * @param loadedCoordinates
+   *          Optional cache of previously loaded {@link Coordinate}s.
    * @return The retrieved coordinate.
    * @throws SQLException
    *           If a database error occurs.
    * @throws CoordinateException
    *           If the {@link Coordinate} object cannot be constructed.
    */
-  private static Coordinate coordinateFromRecord(ResultSet record, int basis)
+  protected static Coordinate coordinateFromRecord(ResultSet record, int basis,
+    int firstColumn, Map<Long, Coordinate> loadedCoordinates)
     throws SQLException, CoordinateException {
 
-    Coordinate result;
+    Coordinate result = null;
 
-    long coordinateId = record.getLong(1);
-    long datasetId = record.getLong(2);
+    long coordinateId = record.getLong(firstColumn);
 
-    switch (basis) {
-    case Instrument.BASIS_TIME: {
-      result = new TimeCoordinate(coordinateId, datasetId,
-        DateTimeUtils.longToDate(record.getLong(3)));
-      break;
+    if (null != loadedCoordinates) {
+      result = loadedCoordinates.get(coordinateId);
     }
-    case Instrument.BASIS_ARGO: {
 
-      LocalDateTime timestamp = null;
-      long millis = record.getLong(3);
-      if (!record.wasNull()) {
-        timestamp = DateTimeUtils.longToDate(millis);
+    if (null == result) {
+      // Convert 1-based column numbers to the record's columns
+      int offset = firstColumn - 1;
+
+      long datasetId = record.getLong(offset + 2);
+
+      switch (basis) {
+      case Instrument.BASIS_TIME: {
+        result = new TimeCoordinate(coordinateId, datasetId,
+          DateTimeUtils.longToDate(record.getLong(offset + 3)));
+        break;
       }
+      case Instrument.BASIS_ARGO: {
+
+        LocalDateTime timestamp = null;
+        long millis = record.getLong(offset + 3);
+        if (!record.wasNull()) {
+          timestamp = DateTimeUtils.longToDate(millis);
+        }
 
-      result = new ArgoCoordinate(coordinateId, datasetId, record.getInt(9),
-        record.getInt(10), record.getString(11).charAt(0), record.getInt(12),
-        record.getDouble(13), record.getString(14), timestamp);
+        result = new ArgoCoordinate(coordinateId, datasetId,
+          record.getInt(offset + 9), record.getInt(offset + 10),
+          record.getString(offset + 11).charAt(0), record.getInt(offset + 12),
+          record.getDouble(offset + 13), record.getString(offset + 14),
+          timestamp);
 
-      break;
-    }
-    default: {
-      throw new CoordinateException("Basis not recognised");
-    }
+        break;
+      }
+      default: {
+        throw new CoordinateException("Basis not recognised");
+      }
+      }
+
+      if (null != loadedCoordinates) {
+        loadedCoordinates.put(coordinateId, result);
+      }
     }
 
     return result;
@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
 
 import java.sql.Connection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -19,6 +20,7 @@ import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorConfigurationException;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.utils.ExceptionUtils;
@@ -51,6 +53,41 @@ public abstract class DataReducer {
    */
   protected CalibrationSet calculationCoefficients;
 
+  /**
+   * The index of calculation parameters shared by all the records created by
+   * this reducer.
+   *
+   * @see #getParameterIndex()
+   */
+  private ParameterIndex parameterIndex = null;
+
+  /**
+   * Builder used to construct QC messages for each record.
+   */
+  private final StringBuilder messageBuilder = new StringBuilder();
+
+  /**
+   * The sensor types whose QC flags are cascaded to the data reduction
+   * records.
+   */
+  private List<SensorType> cascadeSensorTypes = null;
+
+  /**
+   * Cached results of
+   * {@link Variable#getCascade(SensorType, FlagScheme, Flag, SensorAssignments)}
+   * for each sensor type and input flag. A {@code null} value indicates that
+   * the sensor type has no effect on the variable.
+   *
+   * @see #getCascade(Instrument, SensorType, Flag)
+   */
+  private final Map<SensorType, Map<Flag, Flag>> cascades =
+    new HashMap<SensorType, Map<Flag, Flag>>();
+
+  /**
+   * The {@link Instrument} for which the {@link #cascades} were calculated.
+   */
+  private Instrument cascadeInstrument = null;
+
   /**
    * Simple constructor to initialise the reducer with the {@link Variable}
    * details.
@@ -105,24 +142,25 @@ public abstract class DataReducer {
 
     try {
       DataReductionRecord record = new DataReductionRecord(measurement,
-        variable, instrument.getFlagScheme(), getCalculationParameterNames());
+        variable, instrument.getFlagScheme(), getParameterIndex());
 
       doCalculation(instrument, measurement, record, conn);
 
       Flag cascadeFlag = instrument.getFlagScheme().getGoodFlag();
-      LinkedHashMap<SensorType, List<String>> messages = new LinkedHashMap<SensorType, List<String>>();
+
+      // Most records have no messages, so only create the map when needed
+      LinkedHashMap<SensorType, List<String>> messages = null;
 
       // Apply QC flags to the data reduction records
-      for (SensorType sensorType : variable.getAllSensorTypes(true, true)) {
+      for (SensorType sensorType : getCascadeSensorTypes()) {
 
         MeasurementValue value = measurement.getMeasurementValue(sensorType);
 
         if (null != value && !value.isNull()) {
           // Collect all QC messages together. Do not record the same message
           // from multiple sources.
-          Flag valueFlag = variable.getCascade(value.getSensorType(),
-            instrument.getFlagScheme(), value.getQcFlag(allSensorValues),
-            instrument.getSensorAssignments());
+          Flag valueFlag = getCascade(instrument, value.getSensorType(),
+            value.getQcFlag(allSensorValues));
 
           /*
            * If we got a NULL back, then the value's flag has no effect on the
@@ -137,11 +175,14 @@ public abstract class DataReducer {
               }
 
               for (String qcMessage : value.getQcMessages()) {
-                if (!messages.containsKey(sensorType)) {
-                  messages.put(sensorType, new ArrayList<String>());
+                if (null == messages) {
+                  messages = new LinkedHashMap<SensorType, List<String>>();
                 }
-                if (!messages.get(sensorType).contains(qcMessage)) {
-                  messages.get(sensorType).add(qcMessage);
+
+                List<String> sensorMessages = messages
+                  .computeIfAbsent(sensorType, t -> new ArrayList<String>());
+                if (!sensorMessages.contains(qcMessage)) {
+                  sensorMessages.add(qcMessage);
                 }
               }
             }
@@ -149,15 +190,22 @@ public abstract class DataReducer {
         }
       }
 
-      List<String> qcMessages = new ArrayList<String>();
+      List<String> qcMessages;
 
-      for (Map.Entry<SensorType, List<String>> entry : messages.entrySet()) {
-        StringBuilder builder = new StringBuilder();
-        builder.append(entry.getKey().getShortName());
-        builder.append(' ');
-        builder
-          .append(StringUtils.collectionToDelimited(entry.getValue(), ";"));
-        qcMessages.add(builder.toString());
+      if (null == messages) {
+        qcMessages = Collections.emptyList();
+      } else {
+        qcMessages = new ArrayList<String>(messages.size());
+
+        for (Map.Entry<SensorType, List<String>> entry : messages
+          .entrySet()) {
+          messageBuilder.setLength(0);
+          messageBuilder.append(entry.getKey().getShortName());
+          messageBuilder.append(' ');
+          messageBuilder.append(
+            StringUtils.collectionToDelimited(entry.getValue(), ";"));
+          qcMessages.add(messageBuilder.toString());
+        }
       }
 
       record.setQc(cascadeFlag, qcMessages);
@@ -172,6 +220,65 @@ public abstract class DataReducer {
     }
   }
 
+  /**
+   * Get the sensor types whose QC flags are cascaded to the data reduction
+   * records.
+   *
+   * @return The sensor types.
+   */
+  protected List<SensorType> getCascadeSensorTypes() {
+    if (null == cascadeSensorTypes) {
+      cascadeSensorTypes = variable.getAllSensorTypes(true, true);
+    }
+
+    return cascadeSensorTypes;
+  }
+
+  /**
+   * Get the flag that results from cascading a {@link SensorType}'s QC flag to
+   * the {@link Variable}.
+   *
+   * <p>
+   * The result for each combination of sensor type and flag is only
+   * calculated once, since the same combinations occur for most measurements
+   * in a dataset.
+   * </p>
+   *
+   * @param instrument
+   *          The {@link Instrument} being processed.
+   * @param sensorType
+   *          The {@link SensorType}.
+   * @param flag
+   *          The QC flag for the sensor type.
+   * @return The cascaded flag, or {@code null} if the sensor type has no effect
+   *         on the variable.
+   * @throws SensorConfigurationException
+   *           If the cascade cannot be determined.
+   * @see Variable#getCascade(SensorType, FlagScheme, Flag, SensorAssignments)
+   */
+  protected Flag getCascade(Instrument instrument, SensorType sensorType,
+    Flag flag) throws SensorConfigurationException {
+
+    if (instrument != cascadeInstrument) {
+      cascades.clear();
+      cascadeInstrument = instrument;
+    }
+
+    Map<Flag, Flag> sensorTypeCascades = cascades.computeIfAbsent(sensorType,
+      t -> new HashMap<Flag, Flag>());
+
+    Flag result;
+    if (sensorTypeCascades.containsKey(flag)) {
+      result = sensorTypeCascades.get(flag);
+    } else {
+      result = variable.getCascade(sensorType, instrument.getFlagScheme(),
+        flag, instrument.getSensorAssignments());
+      sensorTypeCascades.put(flag, result);
+    }
+
+    return result;
+  }
+
   /**
    * Perform the data reduction calculations for the supplied
    * {@link Measurement} and add the results to the supplied
@@ -206,6 +313,25 @@ public abstract class DataReducer {
       .map(CalculationParameter::getShortName).collect(Collectors.toList());
   }
 
+  /**
+   * Get the index of calculation parameters for this reducer's records.
+   *
+   * <p>
+   * The index is obtained from {@link ParameterIndex#of(List)} the first time
+   * it is requested. It is then held here and shared by all the records
+   * created by the reducer.
+   * </p>
+   *
+   * @return The parameter index.
+   */
+  protected ParameterIndex getParameterIndex() {
+    if (null == parameterIndex) {
+      parameterIndex = ParameterIndex.of(getCalculationParameterNames());
+    }
+
+    return parameterIndex;
+  }
+
   /**
    * Get a {@link Variable} property/attribute as a {@link Float} value.
    *
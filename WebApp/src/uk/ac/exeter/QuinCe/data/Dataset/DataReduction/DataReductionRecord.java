@@ -1,21 +1,32 @@
 package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
 
 import uk.ac.exeter.QuinCe.data.Dataset.Measurement;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
-import uk.ac.exeter.QuinCe.utils.MathUtils;
 import uk.ac.exeter.QuinCe.utils.NoEmptyStringSet;
 
+/**
+ * The results of data reduction for a single {@link Measurement} and
+ * {@link Variable}.
+ *
+ * <p>
+ * Calculation values are held in a primitive array, with positions given by a
+ * {@link ParameterIndex} that is shared by all records with the same
+ * parameters. This keeps the memory and allocation overhead of each record
+ * low, since a dataset can contain millions of them.
+ * </p>
+ */
 public class DataReductionRecord implements Comparable<DataReductionRecord> {
 
   /**
@@ -29,14 +40,21 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
   private final long variableId;
 
   /**
-   * The parameter names for this record.
+   * The positions of the parameters in {@link #values}.
    */
-  private final List<String> parameterNames;
+  private final ParameterIndex parameters;
 
   /**
    * Holds variables calculated for this record.
    */
-  private Map<String, Double> calculationValues;
+  private final double[] values;
+
+  /**
+   * Indicates which entries in {@link #values} have been set. Unset values,
+   * including those explicitly set to {@code null}, are reported as
+   * {@code null}.
+   */
+  private final boolean[] valueSet;
 
   /**
    * The {@link FlagScheme} used for this record.
@@ -61,27 +79,45 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
    */
   public DataReductionRecord(Measurement measurement, Variable variable,
     FlagScheme flagScheme, List<String> parameterNames) {
+    this(measurement, variable, flagScheme, ParameterIndex.of(parameterNames));
+  }
+
+  /**
+   * Create an empty record for a given measurement, using a shared
+   * {@link ParameterIndex}.
+   *
+   * @param measurement
+   *          The measurement
+   */
+  public DataReductionRecord(Measurement measurement, Variable variable,
+    FlagScheme flagScheme, ParameterIndex parameters) {
     this.measurementId = measurement.getId();
     this.variableId = variable.getId();
     this.flagScheme = flagScheme;
-    this.parameterNames = Collections.unmodifiableList(parameterNames);
+    this.parameters = parameters;
 
-    this.calculationValues = new HashMap<String, Double>();
+    this.values = new double[parameters.size()];
+    this.valueSet = new boolean[parameters.size()];
     this.qcFlag = flagScheme.getAssumedGoodFlag();
     this.qcMessages = new NoEmptyStringSet();
   }
 
   protected DataReductionRecord(long measurementId, long variableId,
-    FlagScheme flagScheme, List<String> parameterNames,
-    Map<String, Double> calculationValues, Flag qcFlag,
+    FlagScheme flagScheme, Map<String, Double> calculationValues, Flag qcFlag,
     NoEmptyStringSet qcMessages) {
 
     this.measurementId = measurementId;
     this.variableId = variableId;
     this.flagScheme = flagScheme;
-    this.parameterNames = Collections.unmodifiableList(parameterNames);
+    this.parameters = ParameterIndex
+      .of(new ArrayList<String>(calculationValues.keySet()));
+
+    this.values = new double[parameters.size()];
+    this.valueSet = new boolean[parameters.size()];
+    for (Map.Entry<String, Double> entry : calculationValues.entrySet()) {
+      setValue(parameters.indexOf(entry.getKey()), entry.getValue());
+    }
 
-    this.calculationValues = calculationValues;
     this.qcFlag = qcFlag;
     this.qcMessages = qcMessages;
   }
@@ -143,11 +179,21 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
    */
   public void put(String parameter, Double value)
     throws DataReductionException {
-    if (!parameterNames.contains(parameter)) {
+    int index = parameters.indexOf(parameter);
+    if (index == -1) {
       throw new DataReductionException(
         "Unrecognised calculation parameter '" + parameter + "'");
     }
-    calculationValues.put(parameter, value);
+    setValue(index, value);
+  }
+
+  private void setValue(int index, Double value) {
+    if (null == value) {
+      valueSet[index] = false;
+    } else {
+      values[index] = value;
+      valueSet[index] = true;
+    }
   }
 
   /**
@@ -187,12 +233,37 @@ public class DataReductionRecord implements Comparable<DataReductionRecord> {
    * @return The calculation JSON
    */
   public String getCalculationJson() {
-    Gson gson = new Gson();
-    return gson.toJson(MathUtils.nanToNull(calculationValues));
+    StringWriter result = new StringWriter();
+
+    // Written directly in the same format as Gson would, omitting NaN and
+    // infinite values (which Gson would write as nulls, and therefore skip).
+    try (JsonWriter writer = new JsonWriter(result)) {
+      writer.setHtmlSafe(true);
+      writer.beginObject();
+      for (int i = 0; i < values.length; i++) {
+        if (valueSet[i] && Double.isFinite(values[i])) {
+          writer.name(parameters.getName(i));
+          writer.value(values[i]);
+        }
+      }
+      writer.endObject();
+    } catch (IOException e) {
+      // StringWriters don't throw IOExceptions
+      throw new IllegalStateException(e);
+    }
+
+    return result.toString();
   }
 
   public Double getCalculationValue(String param) {
-    return calculationValues.get(param);
+    Double result = null;
+
+    int index = parameters.indexOf(param);
+    if (index > -1 && valueSet[index]) {
+      result = values[index];
+    }
+
+    return result;
   }
 
   @Override
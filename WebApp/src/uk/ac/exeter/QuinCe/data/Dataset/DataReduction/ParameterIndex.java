@@ -0,0 +1,140 @@
+package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps calculation parameter names to positions in the value arrays of
+ * {@link DataReductionRecord}s.
+ *
+ * <p>
+ * All the records for a given {@link DataReducer} have the same parameters,
+ * so they can share a single index. Instances should be obtained from
+ * {@link #of(List)}, which returns a shared instance for each distinct list of
+ * parameter names.
+ * </p>
+ *
+ * <p>
+ * The shared instances are held in a {@link ConcurrentHashMap} keyed by the
+ * list of parameter names, so finding an existing index does not build a new
+ * one. The map holds at most {@link #MAX_INDICES} indices, which is far more
+ * than the number of parameter sets used by the reducers. Once it is full,
+ * {@link #of(List)} builds a new, unshared index for any other parameter set.
+ * These work in the same way, but are not reused.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable.
+ * </p>
+ */
+public class ParameterIndex {
+
+  /**
+   * The maximum number of shared indices.
+   */
+  private static final int MAX_INDICES = 1000;
+
+  /**
+   * The shared indices, keyed by their parameter names.
+   */
+  private static final Map<List<String>, ParameterIndex> INDICES =
+    new ConcurrentHashMap<List<String>, ParameterIndex>();
+
+  /**
+   * The parameter names, in order.
+   */
+  private final List<String> names;
+
+  /**
+   * The position of each parameter.
+   */
+  private final Map<String, Integer> positions;
+
+  private ParameterIndex(List<String> names) {
+    this.names = Collections.unmodifiableList(new ArrayList<String>(names));
+    this.positions = new HashMap<String, Integer>();
+    for (int i = 0; i < names.size(); i++) {
+      positions.put(names.get(i), i);
+    }
+  }
+
+  /**
+   * Get the index for the specified parameter names. This is the shared
+   * index for the names if there is one, or if there is room to add one.
+   *
+   * @param names
+   *          The parameter names.
+   * @return The index.
+   */
+  public static ParameterIndex of(List<String> names) {
+    ParameterIndex result = INDICES.get(names);
+
+    if (null == result) {
+      result = new ParameterIndex(names);
+      if (INDICES.size() < MAX_INDICES) {
+        ParameterIndex existing = INDICES.putIfAbsent(result.names, result);
+        if (null != existing) {
+          result = existing;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the position of a parameter.
+   *
+   * @param name
+   *          The parameter name.
+   * @return The parameter's position, or {@code -1} if it is not in the index.
+   */
+  public int indexOf(String name) {
+    Integer result = positions.get(name);
+    return null == result ? -1 : result;
+  }
+
+  /**
+   * Get the number of parameters in the index.
+   *
+   * @return The parameter count.
+   */
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Get the name of the parameter at the specified position.
+   *
+   * @param index
+   *          The position.
+   * @return The parameter name.
+   */
+  public String getName(int index) {
+    return names.get(index);
+  }
+
+  /**
+   * Get the parameter names in order.
+   *
+   * @return The parameter names.
+   */
+  public List<String> getNames() {
+    return names;
+  }
+
+  @Override
+  public int hashCode() {
+    return names.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return obj instanceof ParameterIndex
+      && names.equals(((ParameterIndex) obj).names);
+  }
+}
@@ -1,6 +1,5 @@
 package uk.ac.exeter.QuinCe.data.Dataset.DataReduction;
 
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
@@ -74,12 +73,8 @@ public class ReadOnlyDataReductionRecord extends DataReductionRecord {
     long variableId, FlagScheme flagScheme,
     Map<String, Double> calculationValues, Flag qcFlag, String qcMessage) {
 
-    List<String> parameterNames = new ArrayList<String>();
-    calculationValues.keySet().forEach(parameterNames::add);
-
     ReadOnlyDataReductionRecord record = new ReadOnlyDataReductionRecord(
-      measurementId, variableId, flagScheme, parameterNames, calculationValues,
-      qcFlag,
+      measurementId, variableId, flagScheme, calculationValues, qcFlag,
       new NoEmptyStringSet(StringUtils.delimitedToList(qcMessage, ";")));
 
     return record;
@@ -104,11 +99,10 @@ public class ReadOnlyDataReductionRecord extends DataReductionRecord {
    *          separate messages.
    */
   private ReadOnlyDataReductionRecord(long measurementId, long variableId,
-    FlagScheme flagScheme, List<String> parameterNames,
-    Map<String, Double> calculationValues, Flag qcFlag,
+    FlagScheme flagScheme, Map<String, Double> calculationValues, Flag qcFlag,
     NoEmptyStringSet qcMessages) {
-    super(measurementId, variableId, flagScheme, parameterNames,
-      calculationValues, qcFlag, qcMessages);
+    super(measurementId, variableId, flagScheme, calculationValues, qcFlag,
+      qcMessages);
   }
 
   @Override
@@ -1028,7 +1028,7 @@ public class DataSet implements Comparable<DataSet> {
   }
 
   public boolean hasProcessingMessages() {
-    return processingMessages.getMessageCount() > 0;
+    return processingMessages.hasMessages();
   }
 
   public void setProcessingVersion() {
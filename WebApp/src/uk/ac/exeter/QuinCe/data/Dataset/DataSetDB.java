@@ -94,6 +94,18 @@ public class DataSetDB {
     + "d.min_longitude, d.max_longitude, d.min_latitude, d.max_latitude, d.exported "
     + "FROM dataset d WHERE ";
 
+  /**
+   * Query for dataset summaries for an instrument.
+   *
+   * @see #getDataSetSummaries(Connection, long, boolean)
+   */
+  private static final String DATASET_SUMMARIES_QUERY = "SELECT "
+    + "d.id, d.name, d.start, d.end, d.status, d.status_date, d.nrt, "
+    + "d.created, d.last_touched, COALESCE(d.error_messages, '[]'), "
+    + "d.processing_messages, d.min_longitude, d.max_longitude, "
+    + "d.min_latitude, d.max_latitude, d.exported "
+    + "FROM dataset d WHERE d.instrument_id = ? ORDER BY d.id";
+
   private static final String NRT_COUNT_QUERY = "SELECT COUNT(*) FROM dataset "
     + "WHERE nrt = 1 AND instrument_id = ?";
 
@@ -235,6 +247,136 @@ public class DataSetDB {
     return result;
   }
 
+  /**
+   * Get summaries of the data sets defined for a given instrument.
+   *
+   * <p>
+   * Summaries are much quicker to load than complete {@link DataSet}s, and
+   * should be used when only a list of datasets is required.
+   * </p>
+   *
+   * @param dataSource
+   *          A data source
+   * @param instrumentId
+   *          The instrument's database ID
+   * @param includeNrt
+   *          Indicates whether or not NRT datasets should be included in the
+   *          result
+   * @return The data set summaries
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @see DataSetSummary
+   */
+  public static LinkedHashMap<Long, DataSetSummary> getDataSetSummaries(
+    DataSource dataSource, long instrumentId, boolean includeNrt)
+    throws DatabaseException, MissingParamException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkDatabaseId(instrumentId, "instrumentId", false);
+
+    LinkedHashMap<Long, DataSetSummary> result = null;
+    Connection conn = null;
+    try {
+      conn = dataSource.getConnection();
+      result = getDataSetSummaries(conn, instrumentId, includeNrt);
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while retrieving data sets", e);
+    } finally {
+      DatabaseUtils.closeConnection(conn);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get summaries of the data sets defined for a given instrument.
+   *
+   * @param conn
+   *          A database connection
+   * @param instrumentId
+   *          The instrument's database ID
+   * @param includeNrt
+   *          Indicates whether or not NRT datasets should be included in the
+   *          result
+   * @return The data set summaries
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   * @see #getDataSetSummaries(DataSource, long, boolean)
+   */
+  public static LinkedHashMap<Long, DataSetSummary> getDataSetSummaries(
+    Connection conn, long instrumentId, boolean includeNrt)
+    throws DatabaseException, MissingParamException {
+
+    MissingParam.checkMissing(conn, "conn");
+    MissingParam.checkDatabaseId(instrumentId, "instrumentId", false);
+
+    LinkedHashMap<Long, DataSetSummary> result =
+      new LinkedHashMap<Long, DataSetSummary>();
+
+    PreparedStatement stmt = null;
+    ResultSet records = null;
+
+    try {
+      // All the datasets belong to the same instrument, so we only load it
+      // once.
+      Instrument instrument = InstrumentDB.getInstrument(conn, instrumentId);
+
+      stmt = conn.prepareStatement(DATASET_SUMMARIES_QUERY);
+      stmt.setLong(1, instrumentId);
+
+      records = stmt.executeQuery();
+
+      while (records.next()) {
+        DataSetSummary summary = summaryFromRecord(records, instrument);
+        if (!summary.isNrt() || includeNrt) {
+          result.put(summary.getId(), summary);
+        }
+      }
+
+    } catch (Exception e) {
+      throw new DatabaseException("Error while retrieving data sets", e);
+    } finally {
+      DatabaseUtils.closeResultSets(records);
+      DatabaseUtils.closeStatements(stmt);
+    }
+
+    return result;
+  }
+
+  /**
+   * Create a {@link DataSetSummary} from a {@link #DATASET_SUMMARIES_QUERY}
+   * result.
+   *
+   * <p>
+   * The processing messages are not parsed until they are accessed.
+   * </p>
+   *
+   * @param record
+   *          The search result
+   * @param instrument
+   *          The instrument to which the dataset belongs
+   * @return The summary
+   * @throws SQLException
+   *           If the data cannot be extracted from the result
+   */
+  private static DataSetSummary summaryFromRecord(ResultSet record,
+    Instrument instrument) throws SQLException {
+
+    return new DataSetSummary(record.getLong(1), instrument,
+      record.getString(2), record.getString(3), record.getString(4),
+      record.getInt(5), DateTimeUtils.longToDate(record.getLong(6)),
+      record.getBoolean(7),
+      DateTimeUtils.longToDate(record.getTimestamp(8).getTime()),
+      DateTimeUtils.longToDate(record.getLong(9)), record.getString(10),
+      DatasetProcessingMessages.fromJson(record.getString(11)),
+      record.getDouble(12), record.getDouble(14), record.getDouble(13),
+      record.getDouble(15), record.getBoolean(16));
+  }
+
   /**
    * Create a DataSet object from a search result
    *
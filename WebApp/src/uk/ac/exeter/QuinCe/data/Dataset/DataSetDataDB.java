@@ -29,7 +29,6 @@ import uk.ac.exeter.QuinCe.data.Dataset.QC.CalibrationFlagScheme;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.InvalidFlagException;
-import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
 import uk.ac.exeter.QuinCe.data.Instrument.InstrumentException;
@@ -40,6 +39,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorsConfiguration
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.utils.LongObjectMap;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -81,6 +81,12 @@ public class DataSetDataDB {
   private static final String UPDATE_SENSOR_VALUE_STATEMENT = "UPDATE sensor_values "
     + "SET auto_qc=?, user_qc_flag=?, user_qc_message=? WHERE id = ?";
 
+  /**
+   * The maximum number of sensor value updates sent to the database in a
+   * single batch.
+   */
+  private static final int UPDATE_BATCH_SIZE = 5000;
+
   /**
    * Statement to remove all sensor values for a data set
    */
@@ -93,22 +99,32 @@ public class DataSetDataDB {
   private static final String DELETE_COORDINATES_STATEMENT = "DELETE FROM "
     + "coordinates WHERE dataset_id = ?";
 
+  /**
+   * The index of the first coordinate column in the sensor value queries.
+   *
+   * @see CoordinateDB#JOINED_COORDINATE_COLUMNS
+   */
+  private static final int SENSOR_VALUE_COORDINATE_COLUMN = 8;
+
   private static final String GET_SENSOR_VALUES_FOR_DATASET_QUERY = "SELECT "
     + "sv.id, sv.coordinate_id, sv.file_column, sv.value, sv.auto_qc, "
-    + "sv.user_qc_flag, sv.user_qc_message "
-    + "FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
+    + "sv.user_qc_flag, sv.user_qc_message, "
+    + CoordinateDB.JOINED_COORDINATE_COLUMNS
+    + " FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
     + "WHERE c.dataset_id = ? ORDER BY sv.id";
 
   private static final String GET_SENSOR_VALUES_FOR_DATASET_NO_FLUSHING_QUERY = "SELECT "
     + "sv.id, sv.coordinate_id, sv.file_column, sv.value, sv.auto_qc, "
-    + "sv.user_qc_flag, sv.user_qc_message "
-    + "FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
+    + "sv.user_qc_flag, sv.user_qc_message, "
+    + CoordinateDB.JOINED_COORDINATE_COLUMNS
+    + " FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
     + "WHERE c.dataset_id = ? AND user_qc_flag != "
     + FlagScheme.FLUSHING_FLAG.getValue();
 
   private static final String GET_POSITION_SENSOR_VALUES_QUERY = "SELECT "
-    + "sv.id, sv.coordinate_id, sv.file_column, sv.value, sv.auto_qc, sv.user_qc_flag, sv.user_qc_message "
-    + "FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
+    + "sv.id, sv.coordinate_id, sv.file_column, sv.value, sv.auto_qc, sv.user_qc_flag, sv.user_qc_message, "
+    + CoordinateDB.JOINED_COORDINATE_COLUMNS
+    + " FROM sensor_values sv INNER JOIN coordinates c ON sv.coordinate_id = c.id "
     + "WHERE c.dataset_id = ? AND sv.file_column IN (" + SensorType.LONGITUDE_ID
     + ", " + SensorType.LATITUDE_ID + ", " + SensorType.DEPTH_ID
     + ") ORDER BY sv.id";
@@ -417,7 +433,7 @@ public class DataSetDataDB {
             addStmt.setString(3, value.getValue());
           }
 
-          addStmt.setString(4, value.getAutoQcResult().toJson());
+          addStmt.setString(4, value.getAutoQcJson());
           addStmt.setInt(5, value.getUserQCFlag().getValue());
           addStmt.setString(6, value.getUserQCMessage());
 
@@ -450,6 +466,11 @@ public class DataSetDataDB {
    * thrown and none of the values will be stored.
    * </p>
    *
+   * <p>
+   * Only values marked as dirty are stored. The updates are sent to the
+   * database in batches.
+   * </p>
+   *
    * @param conn
    * @param sensorValues
    * @throws DatabaseException
@@ -487,6 +508,8 @@ public class DataSetDataDB {
       // Set of dataset IDs/columns we know to be valid
       HashSet<DatasetColumn> verifiedColumns = new HashSet<DatasetColumn>();
 
+      int batchCount = 0;
+
       for (SensorValue value : sensorValues) {
 
         if (!value.canBeSaved()) {
@@ -526,7 +549,7 @@ public class DataSetDataDB {
         }
 
         if (value.isDirty()) {
-          updateStmt.setString(1, value.getAutoQcResult().toJson());
+          updateStmt.setString(1, value.getAutoQcJson());
           updateStmt.setInt(2, value.getUserQCFlag().getValue());
 
           // Truncate user QC message (except for LOOKUP flags)
@@ -548,10 +571,20 @@ public class DataSetDataDB {
           updateStmt.setString(3, userQCMessage);
           updateStmt.setLong(4, value.getId());
 
-          updateStmt.execute();
+          updateStmt.addBatch();
+          batchCount++;
+
+          if (batchCount == UPDATE_BATCH_SIZE) {
+            updateStmt.executeBatch();
+            batchCount = 0;
+          }
         }
       }
 
+      if (batchCount > 0) {
+        updateStmt.executeBatch();
+      }
+
       // Clear the dirty flag on all the sensor values
       SensorValue.clearDirtyFlag(sensorValues);
 
@@ -642,22 +675,20 @@ public class DataSetDataDB {
       ? GET_SENSOR_VALUES_FOR_DATASET_NO_FLUSHING_QUERY
       : GET_SENSOR_VALUES_FOR_DATASET_QUERY;
 
-    try {
-      Map<Long, Coordinate> coordinates = CoordinateDB
-        .getSensorValueCoordinates(conn, dataset);
+    try (PreparedStatement stmt = DatabaseUtils.prepareStreamingStatement(conn,
+      query)) {
 
-      try (PreparedStatement stmt = conn.prepareStatement(query)) {
+      stmt.setLong(1, dataset.getId());
 
-        stmt.setLong(1, dataset.getId());
+      try (ResultSet records = stmt.executeQuery()) {
 
-        try (ResultSet records = stmt.executeQuery()) {
+        Map<Long, Coordinate> coordinates = new LongObjectMap<Coordinate>();
 
-          while (records.next()) {
-            SensorValue value = sensorValueFromResultSet(records,
-              dataset.getId(), dataset.getFlagScheme(), coordinates);
-            if (!ignoredSensorValues.contains(value.getId())) {
-              values.add(value);
-            }
+        while (records.next()) {
+          SensorValue value = streamedSensorValueFromResultSet(records,
+            dataset, coordinates);
+          if (!ignoredSensorValues.contains(value.getId())) {
+            values.add(value);
           }
         }
       }
@@ -688,20 +719,18 @@ public class DataSetDataDB {
 
     TreeSet<SensorValue> sensorValues = new TreeSet<SensorValue>();
 
-    try {
-      Map<Long, Coordinate> coordinates = CoordinateDB
-        .getSensorValueCoordinates(conn, dataset);
+    try (PreparedStatement stmt = DatabaseUtils.prepareStreamingStatement(conn,
+      GET_SENSOR_VALUES_FOR_DATASET_QUERY)) {
 
-      try (PreparedStatement stmt = conn
-        .prepareStatement(GET_SENSOR_VALUES_FOR_DATASET_QUERY)) {
+      stmt.setLong(1, dataset.getId());
 
-        stmt.setLong(1, dataset.getId());
+      try (ResultSet records = stmt.executeQuery()) {
 
-        try (ResultSet records = stmt.executeQuery()) {
-          while (records.next()) {
-            sensorValues.add(sensorValueFromResultSet(records, dataset.getId(),
-              dataset.getFlagScheme(), coordinates));
-          }
+        Map<Long, Coordinate> coordinates = new LongObjectMap<Coordinate>();
+
+        while (records.next()) {
+          sensorValues.add(
+            streamedSensorValueFromResultSet(records, dataset, coordinates));
         }
       }
     } catch (SQLException e) {
@@ -719,24 +748,21 @@ public class DataSetDataDB {
 
     DatasetSensorValues values = new DatasetSensorValues(dataset);
 
-    try {
-      Map<Long, Coordinate> coordinates = CoordinateDB
-        .getSensorValueCoordinates(conn, dataset);
+    try (PreparedStatement stmt = DatabaseUtils.prepareStreamingStatement(conn,
+      GET_POSITION_SENSOR_VALUES_QUERY)) {
 
-      try (PreparedStatement stmt = conn
-        .prepareStatement(GET_POSITION_SENSOR_VALUES_QUERY)) {
+      stmt.setLong(1, dataset.getId());
 
-        stmt.setLong(1, dataset.getId());
-        try (ResultSet records = stmt.executeQuery()) {
-          while (records.next()) {
-            values.add(sensorValueFromResultSet(records, dataset.getId(),
-              dataset.getFlagScheme(), coordinates));
-          }
+      try (ResultSet records = stmt.executeQuery()) {
+
+        Map<Long, Coordinate> coordinates = new LongObjectMap<Coordinate>();
+
+        while (records.next()) {
+          values.add(
+            streamedSensorValueFromResultSet(records, dataset, coordinates));
         }
       }
-    } catch (
-
-    Exception e) {
+    } catch (Exception e) {
       throw new DatabaseException("Error while retrieving sensor values", e);
     }
 
@@ -761,21 +787,82 @@ public class DataSetDataDB {
     long datasetId, FlagScheme flagScheme, Map<Long, Coordinate> coordinates)
     throws SQLException, InvalidFlagException, RecordNotFoundException {
 
+    Coordinate coordinate = coordinates.get(record.getLong(2));
+
+    if (null == coordinate) {
+      throw new RecordNotFoundException("Coordinate not loaded");
+    }
+
+    return sensorValueFromResultSet(record, datasetId, flagScheme, coordinate);
+  }
+
+  /**
+   * Build a SensorValue object from a ResultSet that also contains the
+   * value's {@link Coordinate}, starting at
+   * {@link #SENSOR_VALUE_COORDINATE_COLUMN}.
+   *
+   * <p>
+   * Coordinates are shared by many sensor values, so each one is only built
+   * the first time it is seen and then taken from {@code coordinates}.
+   * </p>
+   *
+   * @param record
+   *          The ResultSet
+   * @param dataset
+   *          The value's parent dataset
+   * @param coordinates
+   *          The coordinates loaded so far
+   * @return The SensorValue
+   * @throws SQLException
+   *           If any values cannot be read
+   * @throws InvalidFlagException
+   *           If the stored Flag value is invalid
+   * @throws CoordinateException
+   *           If the Coordinate cannot be constructed
+   */
+  private static SensorValue streamedSensorValueFromResultSet(ResultSet record,
+    DataSet dataset, Map<Long, Coordinate> coordinates)
+    throws SQLException, InvalidFlagException, CoordinateException {
+
+    Coordinate coordinate = CoordinateDB.coordinateFromRecord(record,
+      dataset.getInstrument().getBasis(), SENSOR_VALUE_COORDINATE_COLUMN,
+      coordinates);
+
+    return sensorValueFromResultSet(record, dataset.getId(),
+      dataset.getFlagScheme(), coordinate);
+  }
+
+  /**
+   * Build a SensorValue object from a ResultSet with a known
+   * {@link Coordinate}.
+   *
+   * @param record
+   *          The ResultSet
+   * @param datasetId
+   *          The ID of the value's parent dataset
+   * @param flagScheme
+   *          The dataset's flag scheme
+   * @param coordinate
+   *          The value's coordinate
+   * @return The SensorValue
+   * @throws SQLException
+   *           If any values cannot be read
+   * @throws InvalidFlagException
+   *           If the stored Flag value is invalid
+   */
+  private static SensorValue sensorValueFromResultSet(ResultSet record,
+    long datasetId, FlagScheme flagScheme, Coordinate coordinate)
+    throws SQLException, InvalidFlagException {
+
     long valueId = record.getLong(1);
-    long coordinateId = record.getLong(2);
     long fileColumnId = record.getLong(3);
     String value = record.getString(4);
-    AutoQCResult autoQC = AutoQCResult.buildFromJson(record.getString(5),
-      flagScheme);
+    String autoQCJson = record.getString(5);
     Flag userQCFlag = flagScheme.getFlag(record.getInt(6));
     String userQCMessage = record.getString(7);
 
-    if (null == coordinates.get(coordinateId)) {
-      throw new RecordNotFoundException("Coordinate not loaded");
-    }
-
-    return new SensorValue(valueId, datasetId, flagScheme, fileColumnId,
-      coordinates.get(coordinateId), value, autoQC, userQCFlag, userQCMessage);
+    return SensorValue.fromDatabase(valueId, datasetId, flagScheme,
+      fileColumnId, coordinate, value, autoQCJson, userQCFlag, userQCMessage);
   }
 
   /**
@@ -1246,13 +1333,17 @@ public class DataSetDataDB {
     MissingParam.checkMissing(instrument, "instrument");
     MissingParam.checkMissing(dataSet, "dataSet");
 
-    Map<Long, Map<Variable, ReadOnlyDataReductionRecord>> result = new HashMap<Long, Map<Variable, ReadOnlyDataReductionRecord>>();
+    LongObjectMap<Map<Variable, ReadOnlyDataReductionRecord>> result = new LongObjectMap<Map<Variable, ReadOnlyDataReductionRecord>>();
 
     try (PreparedStatement stmt = conn
       .prepareStatement(GET_DATA_REDUCTION_QUERY)) {
 
       stmt.setLong(1, dataSet.getId());
 
+      Gson gson = new Gson();
+      Type mapType = new TypeToken<HashMap<String, Double>>() {
+      }.getType();
+
       long currentMeasurement = -1L;
       try (ResultSet records = stmt.executeQuery()) {
 
@@ -1262,9 +1353,7 @@ public class DataSetDataDB {
           long variableId = records.getLong(2);
 
           String calculationValuesJson = records.getString(3);
-          Type mapType = new TypeToken<HashMap<String, Double>>() {
-          }.getType();
-          Map<String, Double> calculationValues = new Gson()
+          Map<String, Double> calculationValues = gson
             .fromJson(calculationValuesJson, mapType);
 
           Flag qcFlag = instrument.getFlagScheme().getFlag(records.getInt(4));
@@ -0,0 +1,280 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+
+/**
+ * A read-only summary of a {@link DataSet}, containing only the details
+ * required to display it in a list.
+ *
+ * <p>
+ * Loading a complete {@link DataSet} requires its properties, sensor offsets
+ * and messages to be parsed. Summaries skip all of this, so lists of datasets
+ * can be built quickly. The full {@link DataSet} should be loaded using
+ * {@link DataSetDB#getDataSet(javax.sql.DataSource, long)} when it is needed.
+ * </p>
+ *
+ * <p>
+ * The getters have the same names as their equivalents in {@link DataSet}.
+ * </p>
+ *
+ * @see DataSetDB#getDataSetSummaries(javax.sql.DataSource, long, boolean)
+ */
+public class DataSetSummary {
+
+  /**
+   * The dataset's database ID
+   */
+  private final long id;
+
+  /**
+   * The instrument to which the dataset belongs
+   */
+  private final Instrument instrument;
+
+  /**
+   * The dataset name
+   */
+  private final String name;
+
+  /**
+   * The start point of the dataset, in the internal format
+   */
+  private final String start;
+
+  /**
+   * The end point of the dataset, in the internal format
+   */
+  private final String end;
+
+  /**
+   * The dataset's status
+   */
+  private final int status;
+
+  /**
+   * The date that the status was set
+   */
+  private final LocalDateTime statusDate;
+
+  /**
+   * Indicates whether or not this is a NRT dataset
+   */
+  private final boolean nrt;
+
+  /**
+   * The date that the dataset was created
+   */
+  private final LocalDateTime createdDate;
+
+  /**
+   * The date that the dataset was last accessed
+   */
+  private final LocalDateTime lastTouched;
+
+  /**
+   * The dataset's error messages, as stored in the database
+   */
+  private final String errorMessagesJson;
+
+  /**
+   * Messages generated during processing and data reduction
+   */
+  private final DatasetProcessingMessages processingMessages;
+
+  /**
+   * The minimum longitude
+   */
+  private final double minLon;
+
+  /**
+   * The minimum latitude
+   */
+  private final double minLat;
+
+  /**
+   * The maximum longitude
+   */
+  private final double maxLon;
+
+  /**
+   * The maximum latitude
+   */
+  private final double maxLat;
+
+  /**
+   * Indicates whether or not the dataset has ever been exported
+   */
+  private final boolean exported;
+
+  protected DataSetSummary(long id, Instrument instrument, String name,
+    String start, String end, int status, LocalDateTime statusDate,
+    boolean nrt, LocalDateTime createdDate, LocalDateTime lastTouched,
+    String errorMessagesJson, DatasetProcessingMessages processingMessages,
+    double minLon, double minLat, double maxLon, double maxLat,
+    boolean exported) {
+
+    this.id = id;
+    this.instrument = instrument;
+    this.name = name;
+    this.start = start;
+    this.end = end;
+    this.status = status;
+    this.statusDate = statusDate;
+    this.nrt = nrt;
+    this.createdDate = createdDate;
+    this.lastTouched = lastTouched;
+    this.errorMessagesJson = errorMessagesJson;
+    this.processingMessages = processingMessages;
+    this.minLon = minLon;
+    this.minLat = minLat;
+    this.maxLon = maxLon;
+    this.maxLat = maxLat;
+    this.exported = exported;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public Instrument getInstrument() {
+    return instrument;
+  }
+
+  public long getInstrumentId() {
+    return instrument.getId();
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Get the start point of the data set.
+   *
+   * @return The start point.
+   * @see DataSet#getStart()
+   */
+  public String getStart() {
+    return start;
+  }
+
+  /**
+   * Get the end point of the data set.
+   *
+   * @return The end point.
+   * @see DataSet#getEnd()
+   */
+  public String getEnd() {
+    return end;
+  }
+
+  /**
+   * Get the human-readable version of the start point of the dataset.
+   *
+   * @return The human-readable start point
+   * @see DataSet#getDisplayStart()
+   */
+  public String getDisplayStart() {
+    return makeDisplayString(start);
+  }
+
+  /**
+   * Get the human-readable version of the end point of the dataset.
+   *
+   * @return The human-readable end point
+   * @see DataSet#getDisplayEnd()
+   */
+  public String getDisplayEnd() {
+    return makeDisplayString(end);
+  }
+
+  /**
+   * Convert a start or end point to a human-readable string. Time based
+   * datasets store times as milliseconds, which are converted to formatted
+   * dates. Other points are returned as they are.
+   *
+   * @param point
+   *          The start or end point.
+   * @return The human-readable string.
+   */
+  private String makeDisplayString(String point) {
+    String result = point;
+
+    if (instrument.getBasis() == Instrument.BASIS_TIME) {
+      result = DateTimeUtils
+        .formatDateTime(DateTimeUtils.longToDate(Long.parseLong(point)));
+    }
+
+    return result;
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public String getStatusName() {
+    return DataSet.getStatusName(status);
+  }
+
+  public LocalDateTime getStatusDate() {
+    return statusDate;
+  }
+
+  public boolean isNrt() {
+    return nrt;
+  }
+
+  public LocalDateTime getCreatedDate() {
+    return createdDate;
+  }
+
+  public LocalDateTime getLastTouched() {
+    return lastTouched;
+  }
+
+  public String getErrorMessagesAsJSONString() {
+    return errorMessagesJson;
+  }
+
+  public DatasetProcessingMessages getProcessingMessages() {
+    return processingMessages;
+  }
+
+  public boolean hasProcessingMessages() {
+    return processingMessages.hasMessages();
+  }
+
+  public double getMinLon() {
+    return minLon;
+  }
+
+  public double getMinLat() {
+    return minLat;
+  }
+
+  public double getMaxLon() {
+    return maxLon;
+  }
+
+  public double getMaxLat() {
+    return maxLat;
+  }
+
+  /**
+   * Determine whether or not the dataset can be exported.
+   *
+   * @return {@code true} if the dataset can be exported; {@code false} if it
+   *         cannot
+   * @see DataSet#getCanBeExported()
+   */
+  public boolean getCanBeExported() {
+    return status >= DataSet.STATUS_USER_QC;
+  }
+
+  public boolean hasBeenExported() {
+    return exported;
+  }
+}
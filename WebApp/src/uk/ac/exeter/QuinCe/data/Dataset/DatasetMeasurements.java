@@ -1,11 +1,11 @@
 package uk.ac.exeter.QuinCe.data.Dataset;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
@@ -48,6 +48,18 @@ public class DatasetMeasurements {
    */
   private HashMap<Measurement, Integer> measurementIndices = null;
 
+  /**
+   * The runs of each variable and run type, built when first needed.
+   *
+   * @see #getRunIndex(long, String)
+   */
+  private final HashMap<VariableRunType, RunIndex> runIndices = new HashMap<VariableRunType, RunIndex>();
+
+  /**
+   * Cached external standard runs used for calibrating measurement values.
+   */
+  private final StandardRunCache standardRunCache = new StandardRunCache();
+
   /**
    * Basic constructor.
    */
@@ -104,6 +116,7 @@ public class DatasetMeasurements {
       measurements.get(varRunType).add(measurement);
       orderedMeasurements = null;
       measurementCoordinates = null;
+      runIndices.clear();
     }
   }
 
@@ -218,48 +231,215 @@ public class DatasetMeasurements {
     return result;
   }
 
-  public TreeSet<Measurement> getRunBefore(long variableId, String runType,
-    Coordinate coordinate) {
+  /**
+   * Get the cache of external standard runs used for calibrating measurement
+   * values.
+   *
+   * @return The cache.
+   */
+  protected StandardRunCache getStandardRunCache() {
+    return standardRunCache;
+  }
 
-    TreeSet<Measurement> result;
+  /**
+   * Get the last run of measurements with the specified run type that starts
+   * before the specified {@link Coordinate}.
+   *
+   * <p>
+   * A run is a sequence of consecutive measurements with the same run type.
+   * The returned run may continue past the coordinate.
+   * </p>
+   *
+   * @param variableId
+   *          The variable's database ID.
+   * @param runType
+   *          The run type.
+   * @param coordinate
+   *          The coordinate.
+   * @return The measurements in the run, in {@link Coordinate} order. The list
+   *         is empty if there is no matching run.
+   */
+  public List<Measurement> getRunBefore(long variableId, String runType,
+    Coordinate coordinate) {
 
-    List<Measurement> measurements = getMeasurements(variableId, runType);
+    RunIndex index = getRunIndex(variableId, runType);
+    return index.getRun(index.countStartsBefore(coordinate) - 1);
+  }
 
-    if (null == measurements) {
-      result = new TreeSet<Measurement>();
-    } else {
+  /**
+   * Get the first run of measurements with the specified run type that ends
+   * after the specified {@link Coordinate}.
+   *
+   * <p>
+   * A run is a sequence of consecutive measurements with the same run type.
+   * The returned run may start before the coordinate.
+   * </p>
+   *
+   * @param variableId
+   *          The variable's database ID.
+   * @param runType
+   *          The run type.
+   * @param coordinate
+   *          The coordinate.
+   * @return The measurements in the run, in {@link Coordinate} order. The list
+   *         is empty if there is no matching run.
+   */
+  public List<Measurement> getRunAfter(long variableId, String runType,
+    Coordinate coordinate) {
 
-      Optional<Measurement> lastBefore = getMeasurements(variableId, runType)
-        .stream().filter(m -> m.getCoordinate().isBefore(coordinate))
-        .reduce((first, second) -> second);
+    RunIndex index = getRunIndex(variableId, runType);
+    return index.getRun(index.countEndsOnOrBefore(coordinate));
+  }
 
-      result = lastBefore.isEmpty() ? new TreeSet<Measurement>()
-        : getMeasurementsInSameRun(variableId, lastBefore.get());
+  /**
+   * Get the {@link RunIndex} for a variable and run type, building it if
+   * needed.
+   *
+   * @param variableId
+   *          The variable's database ID.
+   * @param runType
+   *          The run type.
+   * @return The run index.
+   */
+  private RunIndex getRunIndex(long variableId, String runType) {
+    if (null == orderedMeasurements) {
+      makeOrderedMeasurements();
     }
 
-    return result;
+    return runIndices.computeIfAbsent(new VariableRunType(variableId, runType),
+      k -> new RunIndex(orderedMeasurements, variableId, runType));
   }
 
-  public TreeSet<Measurement> getRunAfter(long variableId, String runType,
-    Coordinate coordinate) {
+  /**
+   * The runs of measurements with a given variable and run type.
+   *
+   * <p>
+   * The runs are held as the positions of their first and last measurements
+   * in the {@link Coordinate}-ordered list of all measurements, so the runs
+   * either side of a coordinate can be found by binary search.
+   * </p>
+   */
+  private static class RunIndex {
+
+    /**
+     * All measurements in {@link Coordinate} order.
+     */
+    private final List<Measurement> orderedMeasurements;
+
+    /**
+     * The position of the first measurement of each run.
+     */
+    private final int[] runStarts;
+
+    /**
+     * The position after the last measurement of each run.
+     */
+    private final int[] runEnds;
+
+    /**
+     * Find the runs in a list of measurements.
+     *
+     * @param orderedMeasurements
+     *          All measurements in {@link Coordinate} order.
+     * @param variableId
+     *          The variable's database ID.
+     * @param runType
+     *          The run type.
+     */
+    private RunIndex(List<Measurement> orderedMeasurements, long variableId,
+      String runType) {
+
+      this.orderedMeasurements = Collections
+        .unmodifiableList(orderedMeasurements);
+
+      int[] starts = new int[orderedMeasurements.size()];
+      int[] ends = new int[orderedMeasurements.size()];
+      int runCount = 0;
+
+      boolean inRun = false;
+      for (int i = 0; i < orderedMeasurements.size(); i++) {
+        boolean matches = runType
+          .equals(orderedMeasurements.get(i).getRunType(variableId));
+
+        if (matches && !inRun) {
+          starts[runCount] = i;
+        } else if (!matches && inRun) {
+          ends[runCount] = i;
+          runCount++;
+        }
 
-    TreeSet<Measurement> result;
+        inRun = matches;
+      }
 
-    List<Measurement> measurements = getMeasurements(variableId, runType);
+      if (inRun) {
+        ends[runCount] = orderedMeasurements.size();
+        runCount++;
+      }
 
-    if (null == measurements) {
-      result = new TreeSet<Measurement>();
-    } else {
-      Optional<Measurement> firstAfter = getMeasurements(variableId, runType)
-        .stream().filter(m -> m.getCoordinate().isAfter(coordinate))
-        .findFirst();
+      runStarts = Arrays.copyOf(starts, runCount);
+      runEnds = Arrays.copyOf(ends, runCount);
+    }
 
-      result = firstAfter.isEmpty() ? new TreeSet<Measurement>()
-        : getMeasurementsInSameRun(variableId, firstAfter.get());
+    /**
+     * Get the measurements in a run.
+     *
+     * @param run
+     *          The run number.
+     * @return The measurements, or an empty list if the run does not exist.
+     */
+    private List<Measurement> getRun(int run) {
+      return run < 0 || run >= runStarts.length ? Collections.emptyList()
+        : orderedMeasurements.subList(runStarts[run], runEnds[run]);
     }
 
-    return result;
+    /**
+     * Count the runs whose first measurement is before a {@link Coordinate}.
+     *
+     * @param coordinate
+     *          The coordinate.
+     * @return The number of runs.
+     */
+    private int countStartsBefore(Coordinate coordinate) {
+      int low = 0;
+      int high = runStarts.length;
+
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (orderedMeasurements.get(runStarts[mid]).getCoordinate()
+          .isBefore(coordinate)) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+
+      return low;
+    }
+
+    /**
+     * Count the runs whose last measurement is on or before a
+     * {@link Coordinate}.
+     *
+     * @param coordinate
+     *          The coordinate.
+     * @return The number of runs.
+     */
+    private int countEndsOnOrBefore(Coordinate coordinate) {
+      int low = 0;
+      int high = runEnds.length;
+
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (orderedMeasurements.get(runEnds[mid] - 1).getCoordinate()
+          .isAfter(coordinate)) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
 
+      return low;
+    }
   }
 
   private static class VariableRunType {
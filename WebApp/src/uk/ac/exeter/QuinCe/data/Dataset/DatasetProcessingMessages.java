@@ -1,13 +1,17 @@
 package uk.ac.exeter.QuinCe.data.Dataset;
 
+import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 
 import uk.ac.exeter.QuinCe.data.Files.DataFile;
 
@@ -22,17 +26,54 @@ import uk.ac.exeter.QuinCe.data.Files.DataFile;
  * </p>
  *
  * <p>
- * Although this is based on a standard {@link LinkedHashMap}, adding and
- * removing things manually may result in unpredictable behaviour in the
- * application. Please use only the methods provided here.
+ * A badly formatted file can generate the same message for every line, so
+ * repeated messages are aggregated: each distinct message is stored once per
+ * module (and per file for messages about specific file lines) with a count of
+ * how many times it occurred and a sample of up to {@link #MAX_SAMPLE_LINES}
+ * line numbers. Each module holds at most {@link #MAX_MESSAGES_PER_MODULE}
+ * distinct messages; any further messages are only counted.
+ * </p>
+ *
+ * <p>
+ * Messages loaded from the database using {@link #fromJson(String)} are not
+ * parsed until they are needed, so loading lists of datasets does not incur
+ * the cost of parsing every dataset's messages.
  * </p>
  */
-@SuppressWarnings("serial")
-public class DatasetProcessingMessages
-  extends LinkedHashMap<String, List<String>> {
+public class DatasetProcessingMessages {
+
+  /**
+   * The maximum number of distinct messages stored for each module.
+   */
+  protected static final int MAX_MESSAGES_PER_MODULE = 500;
+
+  /**
+   * The maximum number of line numbers recorded for each distinct file
+   * message.
+   */
+  protected static final int MAX_SAMPLE_LINES = 10;
 
   private static Gson gson;
 
+  /**
+   * The JSON that the messages were loaded from, if they have not yet been
+   * parsed.
+   */
+  private String json = null;
+
+  /**
+   * The messages for each module, keyed by the message text (and file name
+   * for messages about specific files).
+   */
+  private LinkedHashMap<String, Module> modules = null;
+
+  /**
+   * Create an empty set of messages.
+   */
+  public DatasetProcessingMessages() {
+    modules = new LinkedHashMap<String, Module>();
+  }
+
   /**
    * Add a message for a specified processing module.
    *
@@ -42,11 +83,7 @@ public class DatasetProcessingMessages
    *          The message.
    */
   public void addMessage(String module, String message) {
-    if (!containsKey(module)) {
-      put(module, new ArrayList<String>());
-    }
-
-    get(module).add(message);
+    getModule(module).add(null, -1, message);
   }
 
   /**
@@ -63,7 +100,7 @@ public class DatasetProcessingMessages
    *          The error.
    */
   public void addMessage(String module, DataFile file, int line, Throwable e) {
-    addMessage(module, makeFileMessage(file, line, e.getMessage()));
+    addMessage(module, file, line, e.getMessage());
   }
 
   /**
@@ -81,17 +118,7 @@ public class DatasetProcessingMessages
    */
   public void addMessage(String module, DataFile file, int line,
     String message) {
-    addMessage(module, makeFileMessage(file, line, message));
-  }
-
-  private String makeFileMessage(DataFile file, int line, String messageText) {
-    StringBuilder message = new StringBuilder();
-    message.append(file.getFilename());
-    message.append(':');
-    message.append(line);
-    message.append(' ');
-    message.append(messageText);
-    return message.toString();
+    getModule(module).add(file.getFilename(), line, message);
   }
 
   /**
@@ -105,17 +132,35 @@ public class DatasetProcessingMessages
    * @param module
    */
   public void clearModule(String module) {
-    put(module, new ArrayList<String>());
+    getModules().put(module, new Module());
   }
 
-  @Override
-  public List<String> get(Object key) {
-    // We always return a list, even if it's empty.
-    if (!containsKey(key)) {
-      return new ArrayList<String>();
-    } else {
-      return super.get(key);
+  /**
+   * Get the messages for a module, formatted for display. Repeated messages
+   * are shown once with a summary of their occurrences.
+   *
+   * @param module
+   *          The module.
+   * @return The messages.
+   */
+  public List<String> getMessages(String module) {
+    List<String> result = new ArrayList<String>();
+
+    Module moduleMessages = getModules().get(module);
+    if (null != moduleMessages) {
+      moduleMessages.getMessages().forEach(m -> result.add(m.toString()));
     }
+
+    return result;
+  }
+
+  /**
+   * Get the names of the modules that have messages.
+   *
+   * @return The module names.
+   */
+  public Collection<String> getModuleNames() {
+    return getModules().keySet();
   }
 
   /**
@@ -127,16 +172,16 @@ public class DatasetProcessingMessages
     StringBuilder result = new StringBuilder();
 
     boolean first = true;
-    for (Map.Entry<String, List<String>> entry : entrySet()) {
+    for (String module : getModules().keySet()) {
       if (!first) {
         result.append('\n');
       }
-      result.append(entry.getKey());
+      result.append(module);
       result.append('\n');
-      result.append("-".repeat(entry.getKey().length()));
+      result.append("-".repeat(module.length()));
       result.append('\n');
 
-      entry.getValue().forEach(s -> {
+      getMessages(module).forEach(s -> {
         result.append(s);
         result.append('\n');
       });
@@ -146,6 +191,59 @@ public class DatasetProcessingMessages
     return result.toString();
   }
 
+  /**
+   * Get the stored messages for a module, creating the module if it does not
+   * exist.
+   *
+   * @param module
+   *          The module name.
+   * @return The module's messages.
+   */
+  private Module getModule(String module) {
+    return getModules().computeIfAbsent(module, m -> new Module());
+  }
+
+  /**
+   * Get the messages for all modules, parsing them from the loaded JSON if
+   * required.
+   *
+   * @return The messages.
+   */
+  private LinkedHashMap<String, Module> getModules() {
+    if (null == modules) {
+      modules = getGson().fromJson(json, DatasetProcessingMessages.class)
+        .getModules();
+      json = null;
+    }
+
+    return modules;
+  }
+
+  /**
+   * Add a message read from the database.
+   *
+   * @param module
+   *          The module.
+   * @param message
+   *          The message.
+   */
+  protected void addMessage(String module, Message message) {
+    getModule(module).add(message);
+  }
+
+  /**
+   * Get the stored messages for each module.
+   *
+   * @return The messages.
+   */
+  protected Map<String, Collection<Message>> getStoredMessages() {
+    Map<String, Collection<Message>> result =
+      new LinkedHashMap<String, Collection<Message>>();
+    getModules()
+      .forEach((name, module) -> result.put(name, module.getMessages()));
+    return result;
+  }
+
   private static Gson getGson() {
     if (null == gson) {
       gson = new GsonBuilder()
@@ -158,22 +256,334 @@ public class DatasetProcessingMessages
   }
 
   protected String toJson() {
-    return getGson().toJson(this);
+    String result;
+
+    if (null == modules) {
+      // The messages haven't been touched since they were loaded.
+      result = json;
+    } else {
+      result = getGson().toJson(this);
+    }
+
+    return result;
   }
 
+  /**
+   * Create a messages object from its JSON representation. The JSON is not
+   * parsed until the messages are accessed.
+   *
+   * @param json
+   *          The JSON.
+   * @return The messages object.
+   */
   protected static DatasetProcessingMessages fromJson(String json) {
-    DatasetProcessingMessages result;
+    DatasetProcessingMessages result = new DatasetProcessingMessages();
 
-    if (null == json) {
-      result = new DatasetProcessingMessages();
-    } else {
-      result = getGson().fromJson(json, DatasetProcessingMessages.class);
+    if (null != json) {
+      result.modules = null;
+      result.json = json;
     }
 
     return result;
   }
 
+  /**
+   * Get the total number of messages, including repeats.
+   *
+   * @return The message count.
+   */
   protected int getMessageCount() {
-    return values().stream().collect(Collectors.summingInt(List::size));
+    return getModules().values().stream().mapToInt(Module::getCount).sum();
+  }
+
+  /**
+   * Determine whether any messages have been recorded.
+   *
+   * <p>
+   * If the messages have not been parsed yet, the JSON is scanned only as far
+   * as the first message.
+   * </p>
+   *
+   * @return {@code true} if there are any messages; {@code false} otherwise.
+   */
+  protected boolean hasMessages() {
+    boolean result;
+
+    if (null != modules) {
+      result = getMessageCount() > 0;
+    } else {
+      try {
+        result = jsonHasMessages(json);
+      } catch (IOException | IllegalStateException e) {
+        // Let the full parser deal with it
+        result = getMessageCount() > 0;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Scan a JSON representation of the messages to see whether any module
+   * contains any messages.
+   *
+   * @param json
+   *          The JSON.
+   * @return {@code true} if there are any messages; {@code false} otherwise.
+   * @throws IOException
+   *           If the JSON cannot be read.
+   */
+  private static boolean jsonHasMessages(String json) throws IOException {
+    boolean result = false;
+
+    try (JsonReader reader = new JsonReader(new StringReader(json))) {
+      reader.beginObject();
+      while (!result && reader.hasNext()) {
+        reader.nextName();
+        if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+          reader.beginArray();
+          result = reader.hasNext();
+          if (!result) {
+            reader.endArray();
+          }
+        } else {
+          reader.skipValue();
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * The aggregated messages for a single module.
+   */
+  private static class Module {
+
+    /**
+     * The distinct messages, keyed by file name and message text.
+     */
+    private final LinkedHashMap<String, Message> messages =
+      new LinkedHashMap<String, Message>();
+
+    /**
+     * The count of messages that were not stored because the module was full.
+     */
+    private final Message omitted = new Message(null, null, 0, true);
+
+    /**
+     * Add an occurrence of a message.
+     *
+     * @param file
+     *          The file name, or {@code null} if the message does not relate
+     *          to a file.
+     * @param line
+     *          The line number, if the message relates to a file.
+     * @param text
+     *          The message text.
+     */
+    private void add(String file, int line, String text) {
+      String key = null == file ? text : file + '\0' + text;
+
+      Message message = messages.get(key);
+      if (null == message) {
+        if (messages.size() < MAX_MESSAGES_PER_MODULE) {
+          message = new Message(file, text, 0, false);
+          messages.put(key, message);
+        } else {
+          message = omitted;
+        }
+      }
+
+      message.addOccurrence(line);
+    }
+
+    /**
+     * Add a message loaded from the database.
+     *
+     * @param message
+     *          The message.
+     */
+    private void add(Message message) {
+      if (message.isOmitted()) {
+        omitted.count += message.count;
+      } else {
+        String key = null == message.file ? message.text
+          : message.file + '\0' + message.text;
+
+        Message existing = messages.get(key);
+        if (null != existing) {
+          existing.merge(message);
+        } else if (messages.size() < MAX_MESSAGES_PER_MODULE) {
+          messages.put(key, message);
+        } else {
+          omitted.count += message.count;
+        }
+      }
+    }
+
+    /**
+     * Get the messages for this module, including the count of omitted
+     * messages if there are any.
+     *
+     * @return The messages.
+     */
+    private Collection<Message> getMessages() {
+      Collection<Message> result = messages.values();
+      if (omitted.count > 0) {
+        result = new ArrayList<Message>(result);
+        result.add(omitted);
+      }
+
+      return result;
+    }
+
+    /**
+     * Get the total number of messages for this module, including repeats and
+     * omitted messages.
+     *
+     * @return The message count.
+     */
+    private int getCount() {
+      return messages.values().stream().mapToInt(Message::getCount).sum()
+        + omitted.count;
+    }
+  }
+
+  /**
+   * A single distinct message, with the number of times it has occurred.
+   */
+  protected static class Message {
+
+    /**
+     * The file that the message relates to. Can be {@code null}.
+     */
+    private final String file;
+
+    /**
+     * The message text.
+     */
+    private final String text;
+
+    /**
+     * The number of times the message has occurred.
+     */
+    private int count;
+
+    /**
+     * A sample of the file lines on which the message occurred.
+     */
+    private final List<Integer> lines = new ArrayList<Integer>();
+
+    /**
+     * Indicates whether this message represents the count of messages that
+     * were not stored.
+     */
+    private final boolean omitted;
+
+    protected Message(String file, String text, int count, boolean omitted) {
+      this.file = file;
+      this.text = text;
+      this.count = count;
+      this.omitted = omitted;
+    }
+
+    /**
+     * Record an occurrence of the message.
+     *
+     * @param line
+     *          The line on which the message occurred. Ignored for messages
+     *          that do not relate to a file.
+     */
+    private void addOccurrence(int line) {
+      count++;
+      addLine(line);
+    }
+
+    /**
+     * Add a line number to the sample, if there is space.
+     *
+     * @param line
+     *          The line number.
+     */
+    protected void addLine(int line) {
+      if (null != file && lines.size() < MAX_SAMPLE_LINES) {
+        lines.add(line);
+      }
+    }
+
+    /**
+     * Add the occurrences of another instance of the same message to this
+     * message.
+     *
+     * @param other
+     *          The other message.
+     */
+    private void merge(Message other) {
+      count += other.count;
+      other.lines.forEach(this::addLine);
+    }
+
+    protected String getFile() {
+      return file;
+    }
+
+    protected String getText() {
+      return text;
+    }
+
+    protected int getCount() {
+      return count;
+    }
+
+    protected List<Integer> getLines() {
+      return lines;
+    }
+
+    protected boolean isOmitted() {
+      return omitted;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder result = new StringBuilder();
+
+      if (omitted) {
+        result.append(count);
+        result.append(" further messages not shown");
+      } else if (null == file) {
+        result.append(text);
+        if (count > 1) {
+          result.append(" (");
+          result.append(count);
+          result.append(" times)");
+        }
+      } else if (count == 1 && lines.size() == 1) {
+        result.append(file);
+        result.append(':');
+        result.append(lines.get(0));
+        result.append(' ');
+        result.append(text);
+      } else {
+        result.append(file);
+        result.append(": ");
+        result.append(text);
+        result.append(" (");
+        result.append(count);
+        result.append(" lines: ");
+        for (int i = 0; i < lines.size(); i++) {
+          if (i > 0) {
+            result.append(", ");
+          }
+          result.append(lines.get(i));
+        }
+        if (count > lines.size()) {
+          result.append(", ...");
+        }
+        result.append(')');
+      }
+
+      return result.toString();
+    }
   }
 }
@@ -1,7 +1,7 @@
 package uk.ac.exeter.QuinCe.data.Dataset;
 
 import java.lang.reflect.Type;
-import java.util.List;
+import java.util.Collection;
 import java.util.Map;
 
 import com.google.gson.JsonArray;
@@ -10,28 +10,82 @@ import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
 
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetProcessingMessages.Message;
+
+/**
+ * Serializer for {@link DatasetProcessingMessages}.
+ *
+ * <p>
+ * The messages are stored as an object with an array of messages for each
+ * module. Messages that occurred once and do not relate to a file are stored
+ * as plain strings, which is also the format used before messages were
+ * aggregated. All other messages are stored as objects containing the message
+ * text, the number of occurrences and, for file messages, the file name and
+ * sample line numbers.
+ * </p>
+ */
 public class DatasetProcessingMessagesSerializer
   implements JsonSerializer<DatasetProcessingMessages>,
   JsonDeserializer<DatasetProcessingMessages> {
 
+  private static final String MESSAGE_KEY = "message";
+
+  private static final String COUNT_KEY = "count";
+
+  private static final String FILE_KEY = "file";
+
+  private static final String LINES_KEY = "lines";
+
+  private static final String OMITTED_KEY = "omitted";
+
   @Override
   public JsonElement serialize(DatasetProcessingMessages src, Type typeOfSrc,
     JsonSerializationContext context) {
 
     JsonObject json = new JsonObject();
 
-    for (Map.Entry<String, List<String>> entry : src.entrySet()) {
+    for (Map.Entry<String, Collection<Message>> entry : src
+      .getStoredMessages().entrySet()) {
       JsonArray messageArray = new JsonArray();
-      entry.getValue().forEach(s -> messageArray.add(s));
+      entry.getValue().forEach(m -> messageArray.add(serializeMessage(m)));
       json.add(entry.getKey(), messageArray);
     }
 
     return json;
   }
 
+  private JsonElement serializeMessage(Message message) {
+    JsonElement result;
+
+    if (null == message.getFile() && message.getCount() == 1
+      && !message.isOmitted()) {
+      result = new JsonPrimitive(message.getText());
+    } else {
+      JsonObject messageObj = new JsonObject();
+      if (message.isOmitted()) {
+        messageObj.addProperty(OMITTED_KEY, true);
+      } else {
+        messageObj.addProperty(MESSAGE_KEY, message.getText());
+      }
+      messageObj.addProperty(COUNT_KEY, message.getCount());
+
+      if (null != message.getFile()) {
+        messageObj.addProperty(FILE_KEY, message.getFile());
+        JsonArray lines = new JsonArray();
+        message.getLines().forEach(lines::add);
+        messageObj.add(LINES_KEY, lines);
+      }
+
+      result = messageObj;
+    }
+
+    return result;
+  }
+
   @Override
   public DatasetProcessingMessages deserialize(JsonElement json, Type typeOfT,
     JsonDeserializationContext context) throws JsonParseException {
@@ -40,8 +94,35 @@ public class DatasetProcessingMessagesSerializer
 
     JsonObject jsonObj = json.getAsJsonObject();
     for (String module : jsonObj.keySet()) {
+      result.clearModule(module);
+
       JsonArray messages = jsonObj.get(module).getAsJsonArray();
-      messages.forEach(m -> result.addMessage(module, m.getAsString()));
+      for (JsonElement message : messages) {
+        if (message.isJsonObject()) {
+          result.addMessage(module,
+            deserializeMessage(message.getAsJsonObject()));
+        } else {
+          result.addMessage(module, message.getAsString());
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private Message deserializeMessage(JsonObject json) {
+    String file = json.has(FILE_KEY) ? json.get(FILE_KEY).getAsString() : null;
+    String text = json.has(MESSAGE_KEY) ? json.get(MESSAGE_KEY).getAsString()
+      : null;
+    boolean omitted = json.has(OMITTED_KEY)
+      && json.get(OMITTED_KEY).getAsBoolean();
+
+    Message result = new Message(file, text, json.get(COUNT_KEY).getAsInt(),
+      omitted);
+
+    if (json.has(LINES_KEY)) {
+      json.get(LINES_KEY).getAsJsonArray()
+        .forEach(l -> result.addLine(l.getAsInt()));
     }
 
     return result;
@@ -23,6 +23,7 @@ import uk.ac.exeter.QuinCe.data.Instrument.DataFormats.PositionException;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.LongObjectMap;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableValue;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.SensorValuePlotPageTableValue;
@@ -47,7 +48,7 @@ public class DatasetSensorValues {
   /**
    * The {@link SensorValue}s mapped by their database ID.
    */
-  private Map<Long, SensorValue> valuesById;
+  private LongObjectMap<SensorValue> valuesById;
 
   /**
    * The {@link SensorValues}s grouped by their source {@link FileColumn} ID.
@@ -115,7 +116,7 @@ public class DatasetSensorValues {
    * @throws RecordNotFoundException
    */
   public DatasetSensorValues(DataSet dataset) throws RecordNotFoundException {
-    valuesById = new HashMap<Long, SensorValue>();
+    valuesById = new LongObjectMap<SensorValue>();
     valuesByColumn = new HashMap<Long, SensorValuesList>();
     this.dataset = dataset;
 
@@ -160,7 +161,7 @@ public class DatasetSensorValues {
     throws DatabaseException, RecordNotFoundException {
 
     this.dataset = dataset;
-    valuesById = new HashMap<Long, SensorValue>();
+    valuesById = new LongObjectMap<SensorValue>(rawSensorValues.size());
     valuesByColumn = new HashMap<Long, SensorValuesList>();
 
     TreeSet<Long> ignoredSensorValues = new TreeSet<Long>();
@@ -944,6 +945,165 @@ public class DatasetSensorValues {
     return changedValues;
   }
 
+  /**
+   * Cascade QC values from a collection of {@link SensorValue}s to other
+   * sensors.
+   *
+   * <p>
+   * This applies the same rules as {@link #applyQCCascade(SensorValue,
+   * RunTypePeriods)}, but is designed for large selections such as a user
+   * flagging a long period of bad data. The sources are grouped by column and
+   * sorted into {@link Coordinate} order, so the affected sensors for each
+   * column are only calculated once. The closest values in each affected
+   * column are then found for all the sources in a single merged pass over
+   * that column (see {@link SensorValuesList#getClosestSensorValues(List)}).
+   * </p>
+   *
+   * <p>
+   * The single value method resets the output cache of each affected column
+   * after every source. Here the reset is done once per affected column after
+   * all the sources in a column have been applied. This is safe because the
+   * only lookups made on the affected columns during the walk use their raw
+   * {@link Coordinate}s, which depend on which values are in the list and not
+   * on their QC flags. The only output values read are those of the source
+   * column (to look for GOOD values between a source and a target), and that
+   * column's cache is reset before its walk starts.
+   * </p>
+   *
+   * <p>
+   * The QC flags of all the sources must be set before this method is called.
+   * </p>
+   *
+   * @param sources
+   *          The source QCed {@link SensorValue}s.
+   * @param runTypePeriods
+   *          The run type periods to which the cascade should be applied.
+   * @return The {@link SensorValues} that have been changed as part of this
+   *         cascade.
+   * @throws RecordNotFoundException
+   * @throws InvalidFlagException
+   * @throws SensorValuesListException
+   * @see #applyQCCascade(SensorValue, RunTypePeriods)
+   */
+  public Set<SensorValue> applyQCCascade(Collection<SensorValue> sources,
+    RunTypePeriods runTypePeriods) throws RecordNotFoundException,
+    InvalidFlagException, SensorValuesListException {
+
+    Set<SensorValue> changedValues = new HashSet<SensorValue>();
+
+    // Group the sources by column. Positions are handled individually because
+    // they simply copy the flag to their counterpart.
+    Map<Long, List<SensorValue>> sourcesByColumn = new HashMap<Long, List<SensorValue>>();
+
+    for (SensorValue source : sources) {
+      if (SensorType.isPosition(source.getColumnId())) {
+        changedValues.addAll(applyQCCascade(source, runTypePeriods));
+      } else {
+        if (!sourcesByColumn.containsKey(source.getColumnId())) {
+          sourcesByColumn.put(source.getColumnId(),
+            new ArrayList<SensorValue>());
+        }
+        sourcesByColumn.get(source.getColumnId()).add(source);
+      }
+    }
+
+    for (Map.Entry<Long, List<SensorValue>> entry : sourcesByColumn
+      .entrySet()) {
+
+      List<SensorValue> columnSources = entry.getValue();
+
+      // The affected sensors only depend on the source column
+      Map<SensorAssignment, Collection<String>> affectedSensorAssignments = getCascadeAffectedSensorAssignments(
+        columnSources.get(0));
+
+      if (!affectedSensorAssignments.isEmpty()) {
+        columnSources.sort(SensorValuesList.COORDINATE_COMPARATOR);
+        List<Coordinate> sourceCoordinates = columnSources.stream()
+          .map(SensorValue::getCoordinate).toList();
+
+        // The flags of the sources have changed, so make sure that the checks
+        // for GOOD values between sources and targets see the new flags.
+        SensorValuesList sourceSensorValues = valuesByColumn
+          .get(entry.getKey());
+        sourceSensorValues.resetOutput();
+
+        for (SensorAssignment assignment : affectedSensorAssignments
+          .keySet()) {
+
+          SensorValuesList targetSensorValues = valuesByColumn
+            .get(assignment.getDatabaseId());
+
+          List<List<SensorValue>> closestValues = targetSensorValues
+            .getClosestSensorValues(sourceCoordinates);
+
+          for (int i = 0; i < columnSources.size(); i++) {
+            SensorValue source = columnSources.get(i);
+
+            for (SensorValue value : closestValues.get(i)) {
+
+              String valueRunType = runTypePeriods
+                .getRunType(value.getCoordinate().getTime());
+              if (null == valueRunType || affectedSensorAssignments
+                .get(assignment).contains(valueRunType)) {
+
+                cascadeValue(source, value, sourceSensorValues);
+                changedValues.add(value);
+              }
+            }
+          }
+
+          // Reset the output cache once all sources have been applied. See
+          // the method Javadoc for why this is safe.
+          targetSensorValues.resetOutput();
+        }
+      }
+    }
+
+    return changedValues;
+  }
+
+  /**
+   * Apply or remove the cascading QC from a source {@link SensorValue} to an
+   * affected {@link SensorValue}.
+   *
+   * @param source
+   *          The source QCed {@link SensorValue}.
+   * @param value
+   *          The affected {@link SensorValue}.
+   * @param sourceSensorValues
+   *          The list containing the source {@link SensorValue}.
+   * @throws InvalidFlagException
+   * @throws SensorValuesListException
+   * @see #applyQCCascade(SensorValue, RunTypePeriods)
+   */
+  private void cascadeValue(SensorValue source, SensorValue value,
+    SensorValuesList sourceSensorValues)
+    throws InvalidFlagException, SensorValuesListException {
+
+    if (!dataset.getFlagScheme().isGood(source.getDisplayFlag(this), false)) {
+
+      /*
+       * See applyQCCascade(SensorValue, RunTypePeriods) for an explanation of
+       * this check.
+       */
+      if (dataset.getInstrument().getBasis() != Instrument.BASIS_TIME) {
+        value.setCascadingQC(source);
+      } else {
+        if (!sourceSensorValues
+          .getValuesBetween(source.getCoordinate(), value.getCoordinate())
+          .stream()
+          .anyMatch(v -> dataset.getFlagScheme().isGood(v.getQCFlag(), true))) {
+          value.setCascadingQC(source);
+        }
+      }
+    } else {
+      value.removeCascadingQC(source.getId());
+    }
+
+    // Update the value in the By ID lookup map
+    valuesById.put(value.getId(), value);
+  }
+
   /**
    * Get the set of {@link SensorAssignment}s that will be affected by the
    * cascading QC from the specified {@link SensorValue}, along with the run
@@ -1152,6 +1312,82 @@ public class DatasetSensorValues {
     return result;
   }
 
+  /**
+   * Get the closest position for each of a list of {@link Coordinate}s, as
+   * defined by {@link #getClosestPosition(Coordinate)}.
+   *
+   * <p>
+   * The coordinates must be in ascending order. The positions are found in a
+   * single pass through the position values instead of searching for each
+   * coordinate separately.
+   * </p>
+   *
+   * @param coordinates
+   *          The coordinates, in ascending order.
+   * @return The positions, in the same order as the coordinates. Entries are
+   *         {@code null} where no position is available.
+   * @throws SensorValuesListException
+   */
+  public List<LatLng> getClosestPositions(List<Coordinate> coordinates)
+    throws SensorValuesListException {
+
+    List<LatLng> result = new ArrayList<LatLng>(coordinates.size());
+
+    List<SensorValuesListValue> lats = null == latitudes ? null
+      : latitudes.getValues();
+    List<SensorValuesListValue> lons = null == longitudes ? null
+      : longitudes.getValues();
+
+    int latIndex = -1;
+    int lonIndex = -1;
+
+    for (Coordinate coordinate : coordinates) {
+      LatLng position = null;
+
+      if (null != lats && null != lons) {
+        latIndex = advanceOnOrBefore(lats, latIndex, coordinate);
+        lonIndex = advanceOnOrBefore(lons, lonIndex, coordinate);
+
+        if (latIndex >= 0 && lonIndex >= 0) {
+          SensorValuesListValue lat = lats.get(latIndex);
+          SensorValuesListValue lon = lons.get(lonIndex);
+          if (lat.getCoordinate().equals(lon.getCoordinate())) {
+            position = new LatLng(lat.getDoubleValue(), lon.getDoubleValue());
+          }
+        }
+      }
+
+      result.add(position);
+    }
+
+    return result;
+  }
+
+  /**
+   * Move an index through a list of values to the last value whose
+   * {@link Coordinate} is on or before the specified coordinate.
+   *
+   * @param values
+   *          The values, in ascending {@link Coordinate} order.
+   * @param index
+   *          The current index, or {@code -1} if no value has been passed yet.
+   * @param coordinate
+   *          The coordinate.
+   * @return The new index, or {@code -1} if all values are after the
+   *         coordinate.
+   */
+  private static int advanceOnOrBefore(List<SensorValuesListValue> values,
+    int index, Coordinate coordinate) {
+
+    int result = index;
+    while (result + 1 < values.size()
+      && values.get(result + 1).getCoordinate().compareTo(coordinate) <= 0) {
+      result++;
+    }
+
+    return result;
+  }
+
   public SensorValuesList getSensorValues(Collection<Long> columnIds,
     boolean forceString) throws RecordNotFoundException {
 
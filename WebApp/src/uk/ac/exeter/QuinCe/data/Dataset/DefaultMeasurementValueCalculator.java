@@ -4,22 +4,18 @@ import java.sql.Connection;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 
-import org.apache.commons.math3.stat.descriptive.moment.Mean;
-import org.apache.commons.math3.stat.regression.SimpleRegression;
-
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.Calculators;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
+import uk.ac.exeter.QuinCe.data.Dataset.StandardRunCache.StandardRun;
+import uk.ac.exeter.QuinCe.data.Dataset.StandardRunCache.StandardsFit;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.Variable;
-import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
 
 /**
@@ -294,15 +290,53 @@ public class DefaultMeasurementValueCalculator
     }
   }
 
+  /**
+   * Calculate the offset for a value from the external standard runs either
+   * before or after it.
+   *
+   * <p>
+   * The runs and the regressions built from them are cached in the
+   * {@link DatasetMeasurements}, since all the measurements between two sets
+   * of standard runs will use the same ones.
+   * </p>
+   *
+   * @param direction
+   *          Whether to use the runs before ({@link #PRIOR}) or after
+   *          ({@link #POST}) the measurement.
+   * @param externalStandards
+   *          The external standards for the dataset.
+   * @param flagScheme
+   *          The instrument's flag scheme.
+   * @param allMeasurements
+   *          All the measurements for the dataset.
+   * @param sensorValues
+   *          The sensor values for the column being calibrated.
+   * @param columnId
+   *          The ID of the column being calibrated.
+   * @param sensorType
+   *          The {@link SensorType} being calibrated.
+   * @param measurementTime
+   *          The time of the measurement.
+   * @param value
+   *          The value being calibrated.
+   * @return The calculated offset.
+   * @throws RecordNotFoundException
+   *           If the standard concentrations cannot be found.
+   */
   private CalibrationOffset getCalibrationOffset(int direction,
     CalibrationSet externalStandards, FlagScheme flagScheme,
     DatasetMeasurements allMeasurements, SensorValuesList sensorValues,
     long columnId, SensorType sensorType, TimeCoordinate measurementTime,
     MeasurementValue value) throws RecordNotFoundException {
 
-    CalibrationOffset result = new CalibrationOffset();
+    StandardRunCache cache = allMeasurements.getStandardRunCache();
+
+    List<Double> concentrations = new ArrayList<Double>();
+    List<StandardRun> runs = new ArrayList<StandardRun>();
 
-    SimpleRegression regression = new SimpleRegression();
+    // The fit key is the column and each run/concentration pair
+    List<Object> fitKey = new ArrayList<Object>();
+    fitKey.add(columnId);
 
     // Loop through each calibration target
     for (String runType : externalStandards.getTargets()) {
@@ -315,7 +349,7 @@ public class DefaultMeasurementValueCalculator
         || standardConcentration > 0.0D) {
 
         // Get the measurements for the closest run
-        TreeSet<Measurement> runTypeMeasurements;
+        List<Measurement> runTypeMeasurements;
 
         if (direction == PRIOR) {
           runTypeMeasurements = allMeasurements.getRunBefore(
@@ -325,41 +359,40 @@ public class DefaultMeasurementValueCalculator
             Measurement.RUN_TYPE_DEFINES_VARIABLE, runType, measurementTime);
         }
 
-        /*
-         * Get the mean sensor value for these calibration measurements,
-         * filtering out any bad ones.
-         */
-        List<SensorValue> runSensorValues = runTypeMeasurements.stream()
-          .map(m -> sensorValues.getRawSensorValue(m.getCoordinate(), columnId))
-          .filter(v -> null != v).filter(v -> !v.getDoubleValue().isNaN())
-          .filter(v -> flagScheme.isGood(v.getUserQCFlag(), true))
-          .collect(Collectors.toList());
-
-        Mean mean = new Mean();
-
-        runSensorValues.stream().map(v -> v.getDoubleValue()).forEach(d -> {
-          mean.increment(d);
-        });
-
-        // If there are values from the run...
-        if (!Double.isNaN(mean.getResult())) {
-
-          result.addUsedSensorValues(runSensorValues);
-
-          double offset = mean.getResult() - standardConcentration;
-
-          regression.addData(standardConcentration, offset);
+        if (!runTypeMeasurements.isEmpty()) {
+
+          /*
+           * Get the sensor values for these calibration measurements,
+           * filtering out any bad ones.
+           */
+          StandardRun run = cache.getRun(runTypeMeasurements.get(0), columnId,
+            () -> runTypeMeasurements.stream()
+              .map(m -> sensorValues.getRawSensorValue(m.getCoordinate(),
+                columnId))
+              .filter(v -> null != v).filter(v -> !v.getDoubleValue().isNaN())
+              .filter(v -> flagScheme.isGood(v.getUserQCFlag(), true))
+              .collect(Collectors.toList()));
+
+          // If there are values from the run...
+          if (!Double.isNaN(run.getMean())) {
+            concentrations.add(standardConcentration);
+            runs.add(run);
+            fitKey.add(runTypeMeasurements.get(0).getId());
+            fitKey.add(standardConcentration);
+          }
         }
       }
     }
 
-    if (regression.getN() < 2) {
-      result.addComment("Not enough gas standards available");
-    } else {
-      result.setOffset(regression.predict(value.getCalculatedValue()));
-    }
+    StandardsFit fit = cache.getFit(fitKey, () -> {
+      StandardsFit newFit = new StandardsFit();
+      for (int i = 0; i < runs.size(); i++) {
+        newFit.addRun(concentrations.get(i), runs.get(i));
+      }
+      return newFit;
+    });
 
-    return result;
+    return new CalibrationOffset(fit, value);
   }
 
   private void applyOffset(MeasurementValue value, Double offset) {
@@ -375,9 +408,9 @@ public class DefaultMeasurementValueCalculator
   class CalibrationOffset {
 
     /**
-     * The {@link SensorValue}s used in the calculation of this calibration.
+     * The regression from which the offset was calculated.
      */
-    private HashSet<SensorValue> usedValues;
+    private final StandardsFit fit;
 
     /**
      * The calculated offset from the gas standards.
@@ -391,12 +424,23 @@ public class DefaultMeasurementValueCalculator
     private List<String> comments;
 
     /**
-     * Initialise with no used values, invalid offset and no comments.
+     * Calculate the offset for a value from a regression of the gas standards.
+     *
+     * @param fit
+     *          The regression.
+     * @param value
+     *          The value.
      */
-    protected CalibrationOffset() {
-      this.usedValues = new HashSet<SensorValue>();
-      this.offset = Double.NaN;
+    protected CalibrationOffset(StandardsFit fit, MeasurementValue value) {
+      this.fit = fit;
       this.comments = new ArrayList<String>();
+
+      if (fit.isUsable()) {
+        this.offset = fit.predict(value.getCalculatedValue());
+      } else {
+        this.offset = Double.NaN;
+        addComment("Not enough gas standards available");
+      }
     }
 
     /**
@@ -442,8 +486,8 @@ public class DefaultMeasurementValueCalculator
      *
      * @return The used {@link SensorValue}s.
      */
-    protected HashSet<SensorValue> getUsedValues() {
-      return usedValues;
+    protected Collection<SensorValue> getUsedValues() {
+      return fit.getUsedValues();
     }
 
     /**
@@ -457,18 +501,7 @@ public class DefaultMeasurementValueCalculator
      * @return The calculated calibration time.
      */
     protected LocalDateTime getTime() {
-      return DateTimeUtils
-        .meanTime(usedValues.stream().map(v -> v.getCoordinate().getTime()));
-    }
-
-    /**
-     * Add a collection of {@link SensorValue}s.
-     *
-     * @param values
-     *          The {@link SensorValue}s.
-     */
-    protected void addUsedSensorValues(Collection<SensorValue> values) {
-      usedValues.addAll(values);
+      return fit.getTime();
     }
 
     /**
@@ -480,9 +513,5 @@ public class DefaultMeasurementValueCalculator
     protected void addComment(String comment) {
       comments.add(comment);
     }
-
-    protected void setOffset(double offset) {
-      this.offset = offset;
-    }
   }
 }
@@ -2,6 +2,7 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -34,6 +35,12 @@ import uk.ac.exeter.QuinCe.web.system.ResourceManager;
  */
 public class MeasurementValue implements PlotPageTableValue {
 
+  /**
+   * The QC messages for values that could not be calculated.
+   */
+  private static final Set<String> NAN_MESSAGES = Collections
+    .singleton("NaN");
+
   /**
    * The {@link SensorType} that this measurement value is for.
    */
@@ -442,7 +449,7 @@ public class MeasurementValue implements PlotPageTableValue {
   /**
    * Get the QC messages for this value as a {@link Set}. If the
    * {@link #calculatedValue} is {@link Double#NaN}, the list is a single value
-   * of {@code "NaN"}.
+   * of {@code "NaN"}, which must not be modified.
    *
    * @return The QC messages.
    */
@@ -450,8 +457,7 @@ public class MeasurementValue implements PlotPageTableValue {
     Set<String> result = qcMessage;
 
     if (calculatedValue.isNaN()) {
-      result = new HashSet<String>();
-      result.add("NaN");
+      result = NAN_MESSAGES;
     }
 
     return result;
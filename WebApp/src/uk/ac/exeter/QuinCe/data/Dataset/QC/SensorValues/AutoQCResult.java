@@ -2,7 +2,9 @@ package uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
@@ -32,6 +34,23 @@ import uk.ac.exeter.QuinCe.utils.StringUtils;
 @SuppressWarnings("serial")
 public class AutoQCResult extends HashSet<RoutineFlag> {
 
+  /**
+   * The maximum number of shared results held for each {@link FlagScheme}.
+   *
+   * @see #getSharedResult(String, FlagScheme)
+   */
+  private static final int MAX_SHARED_RESULTS = 10000;
+
+  /**
+   * Shared, read-only results keyed by their JSON representation.
+   */
+  private static final Map<FlagScheme, Map<String, AutoQCResult>> SHARED_RESULTS = new ConcurrentHashMap<FlagScheme, Map<String, AutoQCResult>>();
+
+  /**
+   * {@link Gson} instances for each {@link FlagScheme}.
+   */
+  private static final Map<FlagScheme, Gson> GSON = new ConcurrentHashMap<FlagScheme, Gson>();
+
   private final FlagScheme flagScheme;
 
   /**
@@ -51,7 +70,7 @@ public class AutoQCResult extends HashSet<RoutineFlag> {
    */
   public static AutoQCResult buildFromJson(String json, FlagScheme flagScheme) {
     AutoQCResult result = null;
-    if (null == json || json.trim().length() == 0) {
+    if (isEmptyJson(json)) {
       result = new AutoQCResult(flagScheme);
     } else {
       result = makeGson(flagScheme).fromJson(json, AutoQCResult.class);
@@ -60,6 +79,62 @@ public class AutoQCResult extends HashSet<RoutineFlag> {
     return result;
   }
 
+  /**
+   * Get a shared AutoQCResult for a JSON string, as stored in the database.
+   *
+   * <p>
+   * Most sensor values in a dataset have either no automatic QC result or one
+   * of a small number of common results. Instead of building a separate object
+   * for every value, this method returns the same instance for all identical
+   * JSON strings. The returned object <b>must not be modified</b>; callers
+   * that need to change the result should use
+   * {@link #buildFromJson(String, FlagScheme)} to get their own copy.
+   * </p>
+   *
+   * @param json
+   *          The JSON string.
+   * @param flagScheme
+   *          The flag scheme for the result.
+   * @return The shared AutoQCResult.
+   */
+  public static AutoQCResult getSharedResult(String json,
+    FlagScheme flagScheme) {
+
+    String key = isEmptyJson(json) ? "" : json;
+
+    Map<String, AutoQCResult> schemeResults = SHARED_RESULTS
+      .computeIfAbsent(flagScheme,
+        k -> new ConcurrentHashMap<String, AutoQCResult>());
+
+    AutoQCResult result = schemeResults.get(key);
+    if (null == result) {
+      result = buildFromJson(key, flagScheme);
+
+      // Results with unusual messages will not be shared, so don't let them
+      // fill the cache.
+      if (schemeResults.size() < MAX_SHARED_RESULTS) {
+        AutoQCResult existing = schemeResults.putIfAbsent(key, result);
+        if (null != existing) {
+          result = existing;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determine whether a JSON string from the database represents an empty
+   * result.
+   *
+   * @param json
+   *          The JSON string.
+   * @return {@code true} if the string is empty; {@code false} otherwise.
+   */
+  public static boolean isEmptyJson(String json) {
+    return null == json || json.trim().length() == 0;
+  }
+
   /**
    * Return the overall flag that results from a set of flags from QC routines.
    *
@@ -154,9 +229,22 @@ public class AutoQCResult extends HashSet<RoutineFlag> {
     return removeIf(i -> i.getRoutineName().equals(routine.getName()));
   }
 
-  private static Gson makeGson(FlagScheme flagScheme) {
-    return new GsonBuilder().registerTypeAdapter(AutoQCResult.class,
-      new AutoQCResultSerializer(flagScheme)).create();
+  /**
+   * Determine whether or not this result contains a {@link RoutineFlag} from
+   * the specified routine.
+   *
+   * @param routine
+   *          The routine.
+   * @return {@code true} if the routine has set a flag; {@code false}
+   *         otherwise.
+   */
+  public boolean contains(Routine routine) {
+    return stream().anyMatch(i -> i.getRoutineName().equals(routine.getName()));
+  }
 
+  private static Gson makeGson(FlagScheme flagScheme) {
+    return GSON.computeIfAbsent(flagScheme,
+      k -> new GsonBuilder().registerTypeAdapter(AutoQCResult.class,
+        new AutoQCResultSerializer(k)).create());
   }
 }
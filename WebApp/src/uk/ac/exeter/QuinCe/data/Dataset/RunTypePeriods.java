@@ -2,7 +2,6 @@ package uk.ac.exeter.QuinCe.data.Dataset;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -63,10 +62,28 @@ public class RunTypePeriods extends ArrayList<RunTypePeriod> {
   }
 
   public String getRunType(LocalDateTime time) {
-    Optional<RunTypePeriod> period = stream().filter(p -> p.encompasses(time))
-      .findAny();
+    String result = null;
 
-    return period.isEmpty() ? null : period.get().getRunType();
+    // Periods are added in time order and never overlap, so we can binary
+    // search them.
+    int low = 0;
+    int high = size() - 1;
+
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      RunTypePeriod period = get(mid);
+
+      if (period.encompasses(time)) {
+        result = period.getRunType();
+        break;
+      } else if (time.isBefore(period.getStart())) {
+        high = mid - 1;
+      } else {
+        low = mid + 1;
+      }
+    }
+
+    return result;
   }
 
   /**
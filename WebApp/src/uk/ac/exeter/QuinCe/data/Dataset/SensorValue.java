@@ -17,6 +17,7 @@ import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AutoQCResult;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.Calibration;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
+import uk.ac.exeter.QuinCe.utils.Interner;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
 import uk.ac.exeter.QuinCe.utils.StringUtils;
 import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableValue;
@@ -36,6 +37,14 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
    */
   public static final String MISSING_QC_COMMENT = "Missing";
 
+  /**
+   * Shared user QC messages for values loaded from the database.
+   *
+   * @see #fromDatabase(long, long, FlagScheme, long, Coordinate, String,
+   *      String, Flag, String)
+   */
+  private static final Interner<String> MESSAGES = new Interner<String>(10000);
+
   /**
    * The {@link FlagScheme} being used for this value.
    */
@@ -63,10 +72,25 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
   private Coordinate coordinate;
 
   /**
-   * The automatic QC result
+   * The automatic QC result.
+   *
+   * <p>
+   * Values loaded from the database keep the stored JSON in
+   * {@link #autoQCJson} instead, and this is only built when the result needs
+   * to be modified or is requested with {@link #getAutoQcResult()}.
+   * </p>
+   *
+   * @see #getAutoQC()
+   * @see #readAutoQC()
    */
   private AutoQCResult autoQC = null;
 
+  /**
+   * The unparsed automatic QC result, as stored in the database. Only used
+   * while {@link #autoQC} is {@code null}.
+   */
+  private String autoQCJson = null;
+
   /**
    * The user QC flag
    */
@@ -144,12 +168,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     this.columnId = columnId;
     this.coordinate = coordinate;
     this.value = value;
-
-    if (null == autoQc) {
-      this.autoQC = new AutoQCResult(flagScheme);
-    } else {
-      this.autoQC = autoQc;
-    }
+    this.autoQC = autoQc;
 
     this.userQCFlag = userQcFlag;
     this.userQCMessage = userQcMessage;
@@ -173,7 +192,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     this.datasetId = source.datasetId;
     this.flagScheme = source.flagScheme;
     this.columnId = source.columnId;
-    this.autoQC = source.autoQC;
+    this.autoQC = source.getAutoQC();
     this.userQCFlag = source.userQCFlag;
     this.userQCMessage = source.userQCMessage;
     this.value = source.value;
@@ -183,6 +202,52 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     this.canBeSaved = false;
   }
 
+  /**
+   * Build a sensor value loaded from the database.
+   *
+   * <p>
+   * The automatic QC result is kept as JSON and only parsed if it is needed.
+   * Most values share the same few results, so read-only operations use a
+   * shared copy (see {@link AutoQCResult#getSharedResult(String, FlagScheme)})
+   * and the value only gets its own copy if the result is modified. User QC
+   * messages are also shared between values where possible.
+   * </p>
+   *
+   * @param databaseId
+   *          The value's database ID
+   * @param datasetId
+   *          The ID of the dataset to which the value belongs
+   * @param flagScheme
+   *          The dataset's flag scheme
+   * @param columnId
+   *          The column ID
+   * @param coordinate
+   *          The value's coordinate
+   * @param value
+   *          The value
+   * @param autoQcJson
+   *          The automatic QC result as JSON
+   * @param userQcFlag
+   *          The user QC flag
+   * @param userQcMessage
+   *          The user QC message
+   * @return The sensor value
+   */
+  public static SensorValue fromDatabase(long databaseId, long datasetId,
+    FlagScheme flagScheme, long columnId, Coordinate coordinate, String value,
+    String autoQcJson, Flag userQcFlag, String userQcMessage) {
+
+    // Lookup flags have a list of source value IDs as their message, which
+    // will rarely be repeated.
+    String message = userQcFlag.equals(FlagScheme.LOOKUP_FLAG) ? userQcMessage
+      : MESSAGES.get(userQcMessage);
+
+    SensorValue result = new SensorValue(databaseId, datasetId, flagScheme,
+      columnId, coordinate, value, null, userQcFlag, message);
+    result.autoQCJson = autoQcJson;
+    return result;
+  }
+
   /**
    * Get the database ID of the dataset to which this value belongs
    *
@@ -250,7 +315,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
    * @return The automatic QC flag
    */
   public Flag getAutoQcFlag() {
-    return autoQC.getOverallFlag();
+    return readAutoQC().getOverallFlag();
   }
 
   /**
@@ -259,9 +324,59 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
    * @return The automatic QC result
    */
   public AutoQCResult getAutoQcResult() {
+    return getAutoQC();
+  }
+
+  /**
+   * Get the automatic QC result as JSON for storing in the database.
+   *
+   * <p>
+   * If the result has not been parsed or modified since the value was loaded,
+   * the original JSON is returned.
+   * </p>
+   *
+   * @return The JSON, or {@code null} if there is no automatic QC result.
+   */
+  public String getAutoQcJson() {
+    String result;
+
+    if (null != autoQC) {
+      result = autoQC.toJson();
+    } else if (AutoQCResult.isEmptyJson(autoQCJson)) {
+      result = null;
+    } else {
+      result = autoQCJson;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the automatic QC result so it can be modified, building it if
+   * required.
+   *
+   * @return The automatic QC result.
+   */
+  private AutoQCResult getAutoQC() {
+    if (null == autoQC) {
+      autoQC = AutoQCResult.buildFromJson(autoQCJson, flagScheme);
+      autoQCJson = null;
+    }
+
     return autoQC;
   }
 
+  /**
+   * Get the automatic QC result for reading. If this value doesn't have its own
+   * copy of the result, a shared copy is returned which must not be modified.
+   *
+   * @return The automatic QC result.
+   */
+  private AutoQCResult readAutoQC() {
+    return null != autoQC ? autoQC
+      : AutoQCResult.getSharedResult(autoQCJson, flagScheme);
+  }
+
   /**
    * Get the QC flag set by the user
    *
@@ -311,6 +426,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
         "SensorValue has not been stored in the database");
     }
     autoQC = new AutoQCResult(flagScheme);
+    autoQCJson = null;
 
     // Reset the user QC if it hasn't been set by the user
     if (userQCFlag.equals(flagScheme.getAssumedGoodFlag())
@@ -338,7 +454,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
       throw new RecordNotFoundException(
         "SensorValue has not been stored in the database");
     }
-    autoQC.add(flag);
+    getAutoQC().add(flag);
 
     // Update the user QC if it hasn't been set by the user
     if (userQCFlag.equals(flagScheme.getAssumedGoodFlag())
@@ -357,7 +473,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
    *          The routine whose information is to be removed.
    */
   public boolean removeAutoQCFlag(Routine routine) {
-    boolean result = autoQC.remove(routine);
+    boolean result = getAutoQC().remove(routine);
 
     if (result) {
       if (autoQC.size() == 0 && userQCFlag.equals(FlagScheme.NEEDED_FLAG)) {
@@ -370,6 +486,24 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     return result;
   }
 
+  /**
+   * Determine whether or not the automatic QC contains a flag from the
+   * specified {@link Routine}.
+   *
+   * <p>
+   * Unlike {@link #removeAutoQCFlag(Routine)}, this does not require the value
+   * to have its own copy of the automatic QC result.
+   * </p>
+   *
+   * @param routine
+   *          The routine.
+   * @return {@code true} if the routine has flagged this value; {@code false}
+   *         otherwise.
+   */
+  public boolean hasAutoQCFlag(Routine routine) {
+    return readAutoQC().contains(routine);
+  }
+
   /**
    * Set the User QC information. If this will override an existing position QC,
    * only set it if the flag is worse than the position flag.
@@ -428,7 +562,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
     }
 
     if (remove) {
-      userQCFlag = autoQC.size() > 0 ? FlagScheme.NEEDED_FLAG
+      userQCFlag = readAutoQC().size() > 0 ? FlagScheme.NEEDED_FLAG
         : flagScheme.getAssumedGoodFlag();
       userQCMessage = "";
       dirty = true;
@@ -609,7 +743,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
           allSensorValues)
         .getDisplayFlag(allSensorValues);
     } else {
-      result = flagNeeded() ? autoQC.getOverallFlag() : getUserQCFlag();
+      result = flagNeeded() ? readAutoQC().getOverallFlag() : getUserQCFlag();
     }
 
     return result;
@@ -637,7 +771,8 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
       result = StringUtils.collectionToDelimited(messages, ";");
 
     } else {
-      result = flagNeeded() ? autoQC.getAllMessages() : getUserQCMessage();
+      result = flagNeeded() ? readAutoQC().getAllMessages()
+        : getUserQCMessage();
     }
 
     return result;
@@ -670,7 +805,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
   @Override
   public Object clone() {
     SensorValue clone = new SensorValue(id, datasetId, flagScheme, columnId,
-      coordinate, value, autoQC, userQCFlag, userQCMessage);
+      coordinate, value, getAutoQC(), userQCFlag, userQCMessage);
     clone.dirty = this.dirty;
     return clone;
   }
@@ -880,7 +1015,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
 
       if (sources.size() == 0) {
         // Reset the flag to either NEEDED or ASSUMED_GOOD
-        if (!flagScheme.isGood(autoQC.getOverallFlag(), true)) {
+        if (!flagScheme.isGood(readAutoQC().getOverallFlag(), true)) {
           userQCFlag = FlagScheme.NEEDED_FLAG;
         } else {
           userQCFlag = flagScheme.getAssumedGoodFlag();
@@ -905,7 +1040,7 @@ public class SensorValue implements Comparable<SensorValue>, Cloneable {
 
       if (sources.size() == 0) {
         // Reset the flag to either NEEDED or ASSUMED_GOOD
-        if (!flagScheme.isGood(autoQC.getOverallFlag(), true)) {
+        if (!flagScheme.isGood(readAutoQC().getOverallFlag(), true)) {
           userQCFlag = FlagScheme.NEEDED_FLAG;
         } else {
           userQCFlag = flagScheme.getAssumedGoodFlag();
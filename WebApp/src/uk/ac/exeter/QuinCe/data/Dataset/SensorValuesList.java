@@ -501,6 +501,60 @@ public abstract class SensorValuesList {
     return result;
   }
 
+  /**
+   * Get the closest {@link SensorValue}s to each of a list of
+   * {@link Coordinate}s, as returned by
+   * {@link #getClosestSensorValues(Coordinate)}.
+   *
+   * <p>
+   * The coordinates must be in ascending order. They are matched against the
+   * list in a single pass, so this is much quicker than searching for each
+   * coordinate separately.
+   * </p>
+   *
+   * @param coordinates
+   *          The coordinates, in ascending order.
+   * @return The closest values for each coordinate, in the same order as the
+   *         coordinates.
+   */
+  public List<List<SensorValue>> getClosestSensorValues(
+    List<Coordinate> coordinates) {
+
+    List<List<SensorValue>> result = new ArrayList<List<SensorValue>>(
+      coordinates.size());
+
+    List<Coordinate> rawCoordinates = getRawCoordinates();
+
+    // The index of the first value at or after the current coordinate
+    int index = 0;
+
+    for (Coordinate coordinate : coordinates) {
+      while (index < rawCoordinates.size()
+        && rawCoordinates.get(index).compareTo(coordinate) < 0) {
+        index++;
+      }
+
+      List<SensorValue> closest = new ArrayList<SensorValue>(2);
+
+      if (index < rawCoordinates.size()
+        && rawCoordinates.get(index).compareTo(coordinate) == 0) {
+        closest.add(list.get(index));
+      } else {
+        if (index > 0) {
+          closest.add(list.get(index - 1));
+        }
+
+        if (index < list.size()) {
+          closest.add(list.get(index));
+        }
+      }
+
+      result.add(closest);
+    }
+
+    return result;
+  }
+
   /**
    * Get the number of individual {@link SensorValue} objects in the list.
    *
@@ -630,7 +684,14 @@ public abstract class SensorValuesList {
       int step = (coord1.isBefore(coord2) ? 1 : -1);
 
       List<Coordinate> coords = getOutputCoordinates();
-      int index = coords.indexOf(coord1);
+
+      // The output coordinates are in ascending order, so we can binary search
+      // for the start point. A missing coordinate gives -1 as it would for
+      // indexOf.
+      int index = Collections.binarySearch(coords, coord1);
+      if (index < 0 || !coords.get(index).equals(coord1)) {
+        index = -1;
+      }
 
       boolean stop = false;
 
@@ -0,0 +1,196 @@
+package uk.ac.exeter.QuinCe.data.Dataset;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import org.apache.commons.math3.stat.regression.SimpleRegression;
+
+import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
+
+/**
+ * Cache of the external standard runs used to calibrate measurement values.
+ *
+ * <p>
+ * Every measurement between the same pair of standard runs is calibrated
+ * using the same runs, so the sensor values and means for each run, and the
+ * regressions built from them, only need to be calculated once. A cache is
+ * held by each {@link DatasetMeasurements} object, so its contents last for
+ * a single data reduction job.
+ * </p>
+ *
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @see DefaultMeasurementValueCalculator
+ */
+class StandardRunCache {
+
+  /**
+   * The cached runs.
+   */
+  private final Map<RunKey, StandardRun> runs = new HashMap<RunKey, StandardRun>();
+
+  /**
+   * The cached regressions.
+   */
+  private final Map<List<Object>, StandardsFit> fits = new HashMap<List<Object>, StandardsFit>();
+
+  /**
+   * Get the details of a standard run for a given column, calculating them if
+   * they have not already been cached.
+   *
+   * @param runStart
+   *          The first {@link Measurement} in the run.
+   * @param columnId
+   *          The column ID.
+   * @param values
+   *          Supplies the usable {@link SensorValue}s for the run if they are
+   *          not already cached.
+   * @return The run details.
+   */
+  protected StandardRun getRun(Measurement runStart, long columnId,
+    Supplier<List<SensorValue>> values) {
+    return runs.computeIfAbsent(new RunKey(runStart.getId(), columnId),
+      k -> new StandardRun(values.get()));
+  }
+
+  /**
+   * Get a regression built from a set of standard runs, building it if it has
+   * not already been cached.
+   *
+   * @param key
+   *          A key identifying the column, runs and standard concentrations
+   *          used in the regression.
+   * @param builder
+   *          Builds the regression if it is not already cached.
+   * @return The regression.
+   */
+  protected StandardsFit getFit(List<Object> key,
+    Supplier<StandardsFit> builder) {
+    return fits.computeIfAbsent(key, k -> builder.get());
+  }
+
+  /**
+   * Key for a standard run in a given column.
+   */
+  private record RunKey(long runStartId, long columnId) {
+  }
+
+  /**
+   * The usable {@link SensorValue}s from a standard run, and their mean.
+   */
+  static class StandardRun {
+
+    /**
+     * The sensor values.
+     */
+    private final List<SensorValue> values;
+
+    /**
+     * The mean of the sensor values.
+     */
+    private final double mean;
+
+    private StandardRun(List<SensorValue> values) {
+      this.values = values;
+
+      Mean mean = new Mean();
+      values.forEach(v -> mean.increment(v.getDoubleValue()));
+      this.mean = mean.getResult();
+    }
+
+    protected List<SensorValue> getValues() {
+      return values;
+    }
+
+    protected double getMean() {
+      return mean;
+    }
+  }
+
+  /**
+   * A regression of standard offsets against standard concentrations, with
+   * the {@link SensorValue}s used to build it.
+   */
+  static class StandardsFit {
+
+    /**
+     * The regression.
+     */
+    private final SimpleRegression regression;
+
+    /**
+     * The sensor values used in the regression.
+     */
+    private final Set<SensorValue> usedValues = new HashSet<SensorValue>();
+
+    /**
+     * The mean time of the used sensor values.
+     */
+    private LocalDateTime time = null;
+
+    protected StandardsFit() {
+      this.regression = new SimpleRegression();
+    }
+
+    /**
+     * Add a standard run to the regression.
+     *
+     * @param concentration
+     *          The concentration of the standard.
+     * @param run
+     *          The run.
+     */
+    protected void addRun(double concentration, StandardRun run) {
+      usedValues.addAll(run.getValues());
+      regression.addData(concentration, run.getMean() - concentration);
+    }
+
+    /**
+     * Determine whether enough runs have been added to build a regression.
+     *
+     * @return {@code true} if the regression can be used; {@code false}
+     *         otherwise.
+     */
+    protected boolean isUsable() {
+      return regression.getN() >= 2;
+    }
+
+    /**
+     * Get the offset of the specified value from the standards.
+     *
+     * @param value
+     *          The value.
+     * @return The offset.
+     */
+    protected double predict(double value) {
+      return regression.predict(value);
+    }
+
+    protected Collection<SensorValue> getUsedValues() {
+      return usedValues;
+    }
+
+    /**
+     * Get the mean time of the {@link SensorValue}s used in the regression.
+     *
+     * @return The mean time.
+     */
+    protected LocalDateTime getTime() {
+      if (null == time) {
+        time = DateTimeUtils
+          .meanTime(usedValues.stream().map(v -> v.getCoordinate().getTime()));
+      }
+
+      return time;
+    }
+  }
+}
@@ -151,7 +151,7 @@ public class ArgoDataFile extends DataFile {
       int searchLine = firstLine;
       while (startCycle == -1 && searchLine <= lastLine) {
         String cycle = fileDefinition
-          .extractFields(getContents().get(searchLine)).get(cycleColumn);
+          .extractField(getContents().get(searchLine), cycleColumn);
 
         if (!StringUtils.isEmpty(cycle)) {
           startCycle = Integer.parseInt(cycle);
@@ -164,7 +164,7 @@ public class ArgoDataFile extends DataFile {
       searchLine = lastLine - 1;
       while (endCycle == -1 && searchLine >= firstLine) {
         String cycle = fileDefinition
-          .extractFields(getContents().get(searchLine)).get(cycleColumn);
+          .extractField(getContents().get(searchLine), cycleColumn);
 
         if (!StringUtils.isEmpty(cycle)) {
           endCycle = Integer.parseInt(cycle);
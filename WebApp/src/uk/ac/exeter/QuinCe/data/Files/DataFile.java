@@ -1,6 +1,7 @@
 package uk.ac.exeter.QuinCe.data.Files;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -500,6 +501,35 @@ public abstract class DataFile implements Comparable<DataFile> {
     return result.toString();
   }
 
+  /**
+   * Write the contents of the file to a {@link Writer}, one line at a time.
+   *
+   * <p>
+   * The output is identical to {@link #getContentsAsString()}, but the
+   * complete contents are never held in a single {@link String}.
+   * </p>
+   *
+   * @param writer
+   *          The destination writer
+   * @throws DataFileException
+   *           If the file contents cannot be retrieved
+   * @throws IOException
+   *           If the contents cannot be written
+   */
+  public void writeContents(Writer writer)
+    throws DataFileException, IOException {
+
+    int lineCount = getContentLineCount();
+
+    for (int i = 0; i < lineCount; i++) {
+      writer.write(getContents().get(i));
+
+      if (i < lineCount - 1) {
+        writer.write('\n');
+      }
+    }
+  }
+
   /**
    * Get the raw bytes for a file
    *
@@ -527,8 +557,8 @@ public abstract class DataFile implements Comparable<DataFile> {
    */
   public Double getDoubleValue(int line, int field, String missingValue)
     throws DataFileException {
-    String fieldValue = fileDefinition.extractFields(getContents().get(line))
-      .get(field);
+    String fieldValue = fileDefinition.extractField(getContents().get(line),
+      field);
 
     Double result = null;
 
@@ -112,6 +112,25 @@ public class DataFileDB {
     + "INNER JOIN file_definition AS d ON f.file_definition_id = d.id "
     + "WHERE d.id = ?";
 
+  /**
+   * Query to get the ranges covered by all the files for a file definition
+   *
+   * @see #getOverlappingFiles(Connection, Instrument, DataFile)
+   */
+  private static final String GET_FILE_RANGES_BY_DEFINITION_QUERY = "SELECT "
+    + "id, start, end FROM data_file WHERE file_definition_id = ?";
+
+  /**
+   * Query to get a set of data files for a file definition by their ID
+   *
+   * @see #getOverlappingFiles(Connection, Instrument, DataFile)
+   */
+  private static final String GET_DEFINITION_FILES_BY_ID_QUERY = "SELECT "
+    + "f.id, f.file_definition_id, f.filename, f.start, f.end, "
+    + "f.record_count, f.properties FROM data_file AS f "
+    + "WHERE f.file_definition_id = ? AND f.id IN "
+    + DatabaseUtils.IN_PARAMS_TOKEN;
+
   /**
    * Statement to delete the details of a data file
    *
@@ -168,7 +187,7 @@ public class DataFileDB {
    * @throws RecordNotFoundException
    * @see #ADD_FILE_STATEMENT
    * @see #REPLACE_FILE_STATEMENT
-   * @see FileStore#storeFile(String, DataFile)
+   * @see FileStore#storeFile(String, DataFile, boolean)
    */
   public static void storeFile(DataSource dataSource, Properties appConfig,
     Instrument instrument, DataFile dataFile, long replacementId)
@@ -216,7 +235,7 @@ public class DataFileDB {
    * @throws DatabaseException
    *           If an error occurs while storing the file
    * @see #ADD_FILE_STATEMENT
-   * @see FileStore#storeFile(String, DataFile)
+   * @see FileStore#storeFile(String, DataFile, boolean)
    */
   private static void storeNewFile(Connection conn, Properties appConfig,
     Instrument instrument, DataFile dataFile)
@@ -226,10 +245,7 @@ public class DataFileDB {
     ResultSet generatedKeys = null;
 
     try {
-      TreeSet<DataFile> existingFiles = getFiles(conn, instrument,
-        dataFile.getFileDefinition());
-
-      if (dataFile.getOverlappingFiles(existingFiles).size() > 0) {
+      if (getOverlappingFiles(conn, instrument, dataFile).size() > 0) {
         throw new FileExistsException(dataFile.getFileDescription());
       }
 
@@ -249,7 +265,8 @@ public class DataFileDB {
         dataFile.setDatabaseId(generatedKeys.getLong(1));
 
         // Store the file
-        FileStore.storeFile(appConfig.getProperty("filestore"), dataFile);
+        FileStore.storeFile(appConfig.getProperty("filestore"), dataFile,
+          compressFiles(appConfig));
       }
     } catch (FileExistsException e) {
       throw e;
@@ -282,7 +299,7 @@ public class DataFileDB {
    * @throws DatabaseException
    *           If an error occurs while storing the file
    * @see #REPLACE_FILE_STATEMENT
-   * @see FileStore#storeFile(String, DataFile)
+   * @see FileStore#storeFile(String, DataFile, boolean)
    */
   private static void replaceFile(Connection conn, Properties appConfig,
     DataFile dataFile, long replacementId)
@@ -325,7 +342,8 @@ public class DataFileDB {
         dataFile.setDatabaseId(replacementId);
 
         // Store the file - automatically replaces the old one
-        FileStore.storeFile(appConfig.getProperty("filestore"), dataFile);
+        FileStore.storeFile(appConfig.getProperty("filestore"), dataFile,
+          compressFiles(appConfig));
 
         conn.commit();
 
@@ -543,6 +561,104 @@ public class DataFileDB {
     return fileInfo;
   }
 
+  /**
+   * Get the existing files with the same {@link FileDefinition} as the
+   * specified file that overlap it.
+   *
+   * @param dataSource
+   *          A data source
+   * @param instrument
+   *          The instrument that the file belongs to
+   * @param dataFile
+   *          The file
+   * @return The overlapping files
+   * @throws DatabaseException
+   *           If an error occurs during the search
+   * @see #getOverlappingFiles(Connection, Instrument, DataFile)
+   */
+  public static TreeSet<DataFile> getOverlappingFiles(DataSource dataSource,
+    Instrument instrument, DataFile dataFile) throws DatabaseException {
+
+    try (Connection conn = dataSource.getConnection()) {
+      return getOverlappingFiles(conn, instrument, dataFile);
+    } catch (SQLException e) {
+      throw new DatabaseException("An error occurred while searching for files",
+        e);
+    }
+  }
+
+  /**
+   * Get the existing files with the same {@link FileDefinition} as the
+   * specified file that overlap it.
+   *
+   * <p>
+   * Only the ranges of the existing files are read at first, and searched
+   * using a {@link FileRangeIndex}. Full {@link DataFile} objects are only
+   * built for the files that may overlap, and the final check is made using
+   * {@link DataFile#getOverlappingFiles(TreeSet)}.
+   * </p>
+   *
+   * @param conn
+   *          A database connection
+   * @param instrument
+   *          The instrument that the file belongs to
+   * @param dataFile
+   *          The file
+   * @return The overlapping files
+   * @throws DatabaseException
+   *           If an error occurs during the search
+   */
+  public static TreeSet<DataFile> getOverlappingFiles(Connection conn,
+    Instrument instrument, DataFile dataFile) throws DatabaseException {
+
+    FileDefinition fileDefinition = dataFile.getFileDefinition();
+    TreeSet<DataFile> candidates = new TreeSet<DataFile>();
+
+    try {
+      FileRangeIndex index = new FileRangeIndex();
+
+      try (PreparedStatement stmt = conn
+        .prepareStatement(GET_FILE_RANGES_BY_DEFINITION_QUERY)) {
+        stmt.setLong(1, fileDefinition.getDatabaseId());
+
+        try (ResultSet records = stmt.executeQuery()) {
+          while (records.next()) {
+            index.add(records.getLong(1), records.getString(2),
+              records.getString(3));
+          }
+        }
+      }
+
+      List<Long> candidateIds = index.getOverlapping(
+        Long.parseLong(dataFile.getStartString()),
+        Long.parseLong(dataFile.getEndString()));
+
+      if (candidateIds.size() > 0) {
+        try (PreparedStatement stmt = conn.prepareStatement(DatabaseUtils
+          .makeInStatementSql(GET_DEFINITION_FILES_BY_ID_QUERY,
+            candidateIds.size()))) {
+
+          stmt.setLong(1, fileDefinition.getDatabaseId());
+          for (int i = 0; i < candidateIds.size(); i++) {
+            stmt.setLong(i + 2, candidateIds.get(i));
+          }
+
+          try (ResultSet records = stmt.executeQuery()) {
+            while (records.next()) {
+              candidates.add(makeDataFile(records, instrument, fileDefinition));
+            }
+          }
+        }
+      }
+    } catch (Exception e) {
+      ExceptionUtils.printStackTrace(e);
+      throw new DatabaseException("An error occurred while searching for files",
+        e);
+    }
+
+    return dataFile.getOverlappingFiles(candidates);
+  }
+
   /**
    * Get the {@link DataFile} objects for a set of files
    *
@@ -944,6 +1060,39 @@ public class DataFileDB {
     }
   }
 
+  /**
+   * Determine whether or not new files should be compressed in the file store.
+   *
+   * <p>
+   * This is controlled by the {@code filestore.compress} property in the
+   * application configuration. Files are not compressed by default.
+   * </p>
+   *
+   * @param appConfig
+   *          The application configuration
+   * @return {@code true} if files should be compressed; {@code false} if not.
+   */
+  public static boolean compressFiles(Properties appConfig) {
+    return Boolean
+      .parseBoolean(appConfig.getProperty("filestore.compress", "false"));
+  }
+
+  /**
+   * Compress any uncompressed files in the file store.
+   *
+   * @param appConfig
+   *          The application configuration
+   * @return The number of files that were compressed
+   * @throws MissingParamException
+   *           If the file store location is not configured
+   * @see FileStore#compressFiles(String)
+   */
+  public static int compressFileStore(Properties appConfig)
+    throws MissingParamException {
+    MissingParam.checkMissing(appConfig, "appConfig");
+    return FileStore.compressFiles(appConfig.getProperty("filestore"));
+  }
+
   public static FileContents getFileContents(long fileDefinitionId,
     long fileId) {
 
@@ -0,0 +1,156 @@
+package uk.ac.exeter.QuinCe.data.Files;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An index of the ranges covered by a set of {@link DataFile}s, used to find
+ * the files that overlap a given range without building a {@link DataFile}
+ * object for every file.
+ *
+ * <p>
+ * The ranges are the numeric start and end values stored in the database (see
+ * {@link DataFile#getStartString()} and {@link DataFile#getEndString()}). The
+ * ranges are sorted by start position, and the maximum end position of all
+ * the ranges up to each position is recorded. A search locates the last range
+ * that starts before the end of the search range, and then works backwards
+ * until no earlier range can reach the start of the search range. For files
+ * that follow each other in sequence this only visits the overlapping files.
+ * </p>
+ *
+ * <p>
+ * The search is inclusive at both ends, and is only intended to find
+ * candidate files. The exact overlap rules for each file type are applied by
+ * {@link DataFile#getOverlappingFiles(java.util.TreeSet)}.
+ * </p>
+ */
+public class FileRangeIndex {
+
+  /**
+   * The files added to the index.
+   */
+  private List<Range> ranges = new ArrayList<Range>();
+
+  /**
+   * The IDs of files whose ranges cannot be interpreted. These are included
+   * in all search results.
+   */
+  private List<Long> unindexed = new ArrayList<Long>();
+
+  /**
+   * The file IDs sorted by start position.
+   */
+  private long[] ids = null;
+
+  /**
+   * The sorted start positions.
+   */
+  private long[] starts;
+
+  /**
+   * The end positions, in the same order as {@link #starts}.
+   */
+  private long[] ends;
+
+  /**
+   * The maximum end position of all ranges up to and including each position.
+   */
+  private long[] maxEnds;
+
+  /**
+   * Add a file to the index.
+   *
+   * @param id
+   *          The file's database ID.
+   * @param start
+   *          The file's start position.
+   * @param end
+   *          The file's end position.
+   */
+  public void add(long id, String start, String end) {
+    try {
+      ranges.add(new Range(id, Long.parseLong(start), Long.parseLong(end)));
+    } catch (NumberFormatException | NullPointerException e) {
+      unindexed.add(id);
+    }
+
+    ids = null;
+  }
+
+  /**
+   * Get the IDs of the files that may overlap the specified range.
+   *
+   * @param start
+   *          The start of the range.
+   * @param end
+   *          The end of the range.
+   * @return The file IDs.
+   */
+  public List<Long> getOverlapping(long start, long end) {
+    if (null == ids) {
+      build();
+    }
+
+    List<Long> result = new ArrayList<Long>(unindexed);
+
+    // Find the first range that starts after the search range
+    int searchPos = Arrays.binarySearch(starts, end);
+    if (searchPos < 0) {
+      searchPos = -(searchPos + 1);
+    } else {
+      while (searchPos < starts.length && starts[searchPos] <= end) {
+        searchPos++;
+      }
+    }
+
+    searchPos--;
+    while (searchPos >= 0 && maxEnds[searchPos] >= start) {
+      if (ends[searchPos] >= start) {
+        result.add(ids[searchPos]);
+      }
+      searchPos--;
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the number of files in the index.
+   *
+   * @return The file count.
+   */
+  public int size() {
+    return ranges.size() + unindexed.size();
+  }
+
+  /**
+   * Build the sorted arrays used for searching.
+   */
+  private void build() {
+    ranges.sort(Comparator.comparingLong(Range::start));
+
+    ids = new long[ranges.size()];
+    starts = new long[ranges.size()];
+    ends = new long[ranges.size()];
+    maxEnds = new long[ranges.size()];
+
+    long maxEnd = Long.MIN_VALUE;
+
+    for (int i = 0; i < ranges.size(); i++) {
+      Range range = ranges.get(i);
+      ids[i] = range.id();
+      starts[i] = range.start();
+      ends[i] = range.end();
+      maxEnd = Math.max(maxEnd, range.end());
+      maxEnds[i] = maxEnd;
+    }
+  }
+
+  /**
+   * The range of a single file.
+   */
+  private record Range(long id, long start, long end) {
+  }
+}
@@ -1,15 +1,30 @@
 package uk.ac.exeter.QuinCe.data.Files;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
 import java.util.Properties;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import javax.sql.DataSource;
 
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.utils.ExceptionUtils;
 import uk.ac.exeter.QuinCe.utils.FileUtils;
 import uk.ac.exeter.QuinCe.utils.MissingParam;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
@@ -22,55 +37,131 @@ import uk.ac.exeter.QuinCe.utils.MissingParamException;
  * are made through the {@code DataFileDB} class.
  * </p>
  *
+ * <p>
+ * Files can be stored either as plain text or compressed with gzip. The format
+ * of each file is detected from its first bytes when it is read (gzip files
+ * always start with {@link #GZIP_MAGIC}, which cannot occur at the start of a
+ * text file), so both formats can exist in the file store at the same time.
+ * Existing plain text files can be compressed with
+ * {@link #compressFiles(String)}.
+ * </p>
+ *
  * @see DataFileDB
  */
 public class FileStore {
 
+  /**
+   * The first two bytes of a gzip stream.
+   */
+  private static final int[] GZIP_MAGIC = { 0x1f, 0x8b };
+
+  /**
+   * Suffix for temporary files created while compressing existing files.
+   */
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  /**
+   * The number of lock objects in {@link #LOCKS}.
+   */
+  private static final int LOCK_STRIPES = 64;
+
+  /**
+   * Lock objects for files and instrument directories.
+   *
+   * <p>
+   * A file's lock is held while it is written, deleted or replaced by its
+   * compressed version. A directory's lock is held while it is created or
+   * deleted, and while any file in it is written or replaced, so a directory
+   * cannot be removed while a file is being put into it.
+   * </p>
+   *
+   * <p>
+   * Paths are mapped onto a fixed set of locks by their hash (see
+   * {@link #getLock(File)}), so the number of lock objects does not grow with
+   * the number of files stored. Unrelated paths may share a lock, which only
+   * means that they occasionally wait for each other. Where a directory and a
+   * file lock are both needed they are taken in index order by
+   * {@link #getLocks(File, File)}, so two threads can never wait for each
+   * other's locks.
+   * </p>
+   */
+  private static final Object[] LOCKS = new Object[LOCK_STRIPES];
+
+  /**
+   * Lock held while {@link #compressFiles(String)} runs, so only one
+   * compression pass can write temporary files at a time.
+   */
+  private static final Object COMPRESS_LOCK = new Object();
+
+  static {
+    for (int i = 0; i < LOCKS.length; i++) {
+      LOCKS[i] = new Object();
+    }
+  }
+
   /**
    * Store a file in the file store. This will overwrite any existing file.
    *
    * @param fileStore
    *          The location of the file store
-   * @param fileDefinitionId
-   *          The ID of the file's {@link FileDefinition}.
-   * @param fileId
-   *          The ID of the file.
+   * @param dataFile
+   *          The file to be stored
+   * @param compress
+   *          Indicates whether the file should be compressed
    * @throws MissingParamException
    *           If any of the parameters are missing
    * @throws FileStoreException
    *           If an error occurs while storing the file
    * @see DataFileDB#storeFile(DataSource, Properties, DataFile)
    */
-  protected static void storeFile(String fileStore, DataFile dataFile)
-    throws MissingParamException, FileStoreException {
+  protected static void storeFile(String fileStore, DataFile dataFile,
+    boolean compress) throws MissingParamException, FileStoreException {
 
     MissingParam.checkMissing(fileStore, "fileStore");
     MissingParam.checkMissing(dataFile, "dataFile");
 
-    FileWriter fileWriter = null;
-    File file = null;
+    File file = getFileObject(fileStore,
+      dataFile.getFileDefinition().getDatabaseId(), dataFile.getDatabaseId());
 
-    try {
-      checkInstrumentDirectory(fileStore,
-        dataFile.getFileDefinition().getDatabaseId());
+    Writer fileWriter = null;
 
-      file = getFileObject(fileStore,
-        dataFile.getFileDefinition().getDatabaseId(), dataFile.getDatabaseId());
-      if (file.exists()) {
-        file.delete();
-      }
+    Object[] locks = getLocks(file.getParentFile(), file);
+
+    synchronized (locks[0]) {
+      synchronized (locks[1]) {
+        try {
+          checkInstrumentDirectory(fileStore,
+            dataFile.getFileDefinition().getDatabaseId());
+
+          if (file.exists()) {
+            file.delete();
+          }
+
+          // Remove any temporary file left by an interrupted compression
+          deleteFile(getTempFile(file));
 
-      fileWriter = new FileWriter(file);
-      fileWriter.write(dataFile.getContentsAsString());
-      fileWriter.close();
+          // Write the file line by line so we don't need to build the whole
+          // file contents in memory
+          if (compress) {
+            fileWriter = new BufferedWriter(new OutputStreamWriter(
+              new GZIPOutputStream(new FileOutputStream(file)),
+              Charset.defaultCharset()));
+          } else {
+            fileWriter = new BufferedWriter(new FileWriter(file));
+          }
 
-    } catch (Exception e) {
+          dataFile.writeContents(fileWriter);
+          fileWriter.close();
 
-      closeWriter(fileWriter);
-      deleteFile(file);
+        } catch (Exception e) {
 
-      throw new FileStoreException("An error occurred while storing the file",
-        e);
+          closeWriter(fileWriter);
+          deleteFile(file);
+
+          throw new FileStoreException(
+            "An error occurred while storing the file", e);
+        }
+      }
     }
   }
 
@@ -93,16 +184,27 @@ public class FileStore {
 
     File fileToDelete = getFileObject(fileStore,
       dataFile.getFileDefinition().getDatabaseId(), dataFile.getDatabaseId());
-    deleteFile(fileToDelete);
+
+    synchronized (getLock(fileToDelete)) {
+      deleteFile(fileToDelete);
+      deleteFile(getTempFile(fileToDelete));
+    }
   }
 
   /**
-   * Get the raw bytes for a file
+   * Get the raw bytes for a file.
+   *
+   * <p>
+   * Compressed files are decompressed, so the result is always the plain file
+   * contents.
+   * </p>
    *
    * @param fileStore
    *          The file store
-   * @param dataFile
-   *          The file to be retrieved
+   * @param fileDefinitionId
+   *          The file definition ID
+   * @param fileId
+   *          The file ID
    * @return The file bytes
    * @throws IOException
    *           If the file cannot be read
@@ -110,29 +212,286 @@ public class FileStore {
   protected static byte[] getBytes(String fileStore, long fileDefinitionId,
     long fileId) throws IOException {
 
-    byte[] fileData;
-    File readFile = getFileObject(fileStore, fileDefinitionId, fileId);
+    try (InputStream in = getInputStream(
+      getFileObject(fileStore, fileDefinitionId, fileId))) {
+      return in.readAllBytes();
+    }
+  }
+
+  /**
+   * Get a {@link BufferedReader} for the contents of a file.
+   *
+   * <p>
+   * Compressed files are decompressed as they are read.
+   * </p>
+   *
+   * @param fileStore
+   *          The file store
+   * @param fileDefinitionId
+   *          The file definition ID
+   * @param fileId
+   *          The file ID
+   * @return The reader
+   * @throws IOException
+   *           If the file cannot be opened
+   */
+  protected static BufferedReader getReader(String fileStore,
+    long fileDefinitionId, long fileId) throws IOException {
+
+    return new BufferedReader(new InputStreamReader(
+      getInputStream(getFileObject(fileStore, fileDefinitionId, fileId)),
+      Charset.defaultCharset()));
+  }
+
+  /**
+   * Open an {@link InputStream} for a file in the file store, decompressing it
+   * if required.
+   *
+   * @param file
+   *          The file
+   * @return The stream
+   * @throws IOException
+   *           If the file cannot be opened
+   */
+  private static InputStream getInputStream(File file) throws IOException {
+    InputStream in = new BufferedInputStream(new FileInputStream(file));
 
-    FileInputStream inputStream = null;
     try {
-      inputStream = new FileInputStream(readFile);
-      int fileLength = (int) readFile.length();
-      fileData = new byte[fileLength];
-      int bytesRead = inputStream.read(fileData);
-      if (bytesRead < fileLength) {
-        throw new IOException(
-          "Too few bytes read from file " + readFile.getAbsolutePath()
-            + ": got " + bytesRead + ", expected " + fileLength);
+      if (isCompressed(in)) {
+        in = new GZIPInputStream(in);
       }
     } catch (IOException e) {
+      in.close();
       throw e;
-    } finally {
-      if (null != inputStream) {
-        inputStream.close();
+    }
+
+    return in;
+  }
+
+  /**
+   * Determine whether or not a stream contains gzip compressed data by
+   * checking its first bytes. The stream is reset to its original position
+   * afterwards.
+   *
+   * @param in
+   *          The stream. Must support {@link InputStream#mark(int)}.
+   * @return {@code true} if the stream is compressed; {@code false} if not.
+   * @throws IOException
+   *           If the stream cannot be read
+   */
+  private static boolean isCompressed(InputStream in) throws IOException {
+    in.mark(GZIP_MAGIC.length);
+
+    boolean result = true;
+    for (int magicByte : GZIP_MAGIC) {
+      if (in.read() != magicByte) {
+        result = false;
+        break;
       }
     }
 
-    return fileData;
+    in.reset();
+    return result;
+  }
+
+  /**
+   * Compress all the uncompressed files in the file store.
+   *
+   * <p>
+   * Each file is compressed to a temporary file, which is then moved over the
+   * original. Files that are already compressed are left alone. Individual
+   * files that cannot be compressed are skipped, and will be tried again on
+   * the next call.
+   * </p>
+   *
+   * <p>
+   * Only one compression pass runs at a time, so any temporary files found
+   * when a pass starts were left by a pass that did not finish (for example
+   * because the application stopped). These are deleted.
+   * </p>
+   *
+   * @param fileStore
+   *          The location of the file store
+   * @return The number of files that were compressed
+   * @throws MissingParamException
+   *           If the file store is not specified
+   */
+  protected static int compressFiles(String fileStore)
+    throws MissingParamException {
+
+    MissingParam.checkMissing(fileStore, "fileStore");
+
+    int compressedCount = 0;
+
+    synchronized (COMPRESS_LOCK) {
+      File[] directories = new File(fileStore).listFiles(File::isDirectory);
+      if (null != directories) {
+        for (File directory : directories) {
+          File[] staleTempFiles = directory
+            .listFiles(f -> f.isFile() && f.getName().endsWith(TEMP_SUFFIX));
+
+          if (null != staleTempFiles) {
+            for (File tempFile : staleTempFiles) {
+              deleteFile(tempFile);
+            }
+          }
+
+          File[] files = directory
+            .listFiles(f -> f.isFile() && !f.getName().endsWith(TEMP_SUFFIX));
+
+          if (null != files) {
+            for (File file : files) {
+              try {
+                if (compressFile(file)) {
+                  compressedCount++;
+                }
+              } catch (IOException e) {
+                ExceptionUtils.printStackTrace(e);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    return compressedCount;
+  }
+
+  /**
+   * Compress a single file in the file store if it is not already compressed.
+   *
+   * <p>
+   * The file is compressed to a temporary file without holding any locks, so
+   * other file operations are not held up while the compression runs. The
+   * locks are only taken to replace the original file with the temporary one.
+   * If the file was deleted or rewritten while it was being compressed, the
+   * temporary file is discarded.
+   * </p>
+   *
+   * @param file
+   *          The file
+   * @return {@code true} if the file was compressed; {@code false} if it was
+   *         already compressed, or was deleted or changed while it was being
+   *         compressed.
+   * @throws IOException
+   *           If the file cannot be compressed
+   */
+  private static boolean compressFile(File file) throws IOException {
+
+    boolean compressed = false;
+
+    if (file.exists()) {
+      Object originalVersion = getVersion(file);
+      File tempFile = getTempFile(file);
+
+      boolean tempWritten = false;
+
+      try (
+        InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+
+        if (!isCompressed(in)) {
+          try (GZIPOutputStream out = new GZIPOutputStream(
+            new FileOutputStream(tempFile))) {
+            in.transferTo(out);
+          }
+
+          tempWritten = true;
+        }
+      } catch (IOException e) {
+        deleteFile(tempFile);
+        throw e;
+      }
+
+      if (tempWritten) {
+        Object[] locks = getLocks(file.getParentFile(), file);
+
+        synchronized (locks[0]) {
+          synchronized (locks[1]) {
+            if (file.exists() && originalVersion.equals(getVersion(file))) {
+              Files.move(tempFile.toPath(), file.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+              compressed = true;
+            } else {
+              deleteFile(tempFile);
+            }
+          }
+        }
+      }
+    }
+
+    return compressed;
+  }
+
+  /**
+   * Get an object identifying the current version of a file, used to detect
+   * whether it has been replaced or modified.
+   *
+   * @param file
+   *          The file
+   * @return The version identifier
+   * @throws IOException
+   *           If the file attributes cannot be read
+   */
+  private static Object getVersion(File file) throws IOException {
+    BasicFileAttributes attributes = Files.readAttributes(file.toPath(),
+      BasicFileAttributes.class);
+
+    return Arrays.asList(attributes.fileKey(),
+      attributes.lastModifiedTime().toMillis(), attributes.size());
+  }
+
+  /**
+   * Get the temporary file used while compressing a file.
+   *
+   * @param file
+   *          The file
+   * @return The temporary file
+   */
+  private static File getTempFile(File file) {
+    return new File(file.getAbsolutePath() + TEMP_SUFFIX);
+  }
+
+  /**
+   * Get the position of the lock for a file or directory in {@link #LOCKS}.
+   *
+   * @param file
+   *          The file or directory
+   * @return The lock index
+   */
+  private static int getLockIndex(File file) {
+    return Math.floorMod(file.getAbsolutePath().hashCode(), LOCKS.length);
+  }
+
+  /**
+   * Get the lock object for a file or directory.
+   *
+   * @param file
+   *          The file or directory
+   * @return The lock object
+   * @see #LOCKS
+   */
+  private static Object getLock(File file) {
+    return LOCKS[getLockIndex(file)];
+  }
+
+  /**
+   * Get the lock objects for a directory and a file within it, in the order
+   * in which they must be taken. The two objects may be the same.
+   *
+   * @param directory
+   *          The directory
+   * @param file
+   *          The file
+   * @return The lock objects
+   * @see #LOCKS
+   */
+  private static Object[] getLocks(File directory, File file) {
+    int directoryIndex = getLockIndex(directory);
+    int fileIndex = getLockIndex(file);
+
+    return new Object[] { LOCKS[Math.min(directoryIndex, fileIndex)],
+      LOCKS[Math.max(directoryIndex, fileIndex)] };
   }
 
   /**
@@ -166,17 +525,20 @@ public class FileStore {
     throws FileStoreException, IOException {
 
     File dir = new File(getStorageDirectory(fileStore, fileDefinitionId));
-    if (dir.exists()) {
-      if (!dir.isDirectory()) {
-        throw new FileStoreException(
-          "The path to the instrument directory is not a directory!");
-      }
 
-      if (!FileUtils.isDirectoryEmpty(dir)) {
-        throw new FileStoreException("Directory is not empty");
-      }
+    synchronized (getLock(dir)) {
+      if (dir.exists()) {
+        if (!dir.isDirectory()) {
+          throw new FileStoreException(
+            "The path to the instrument directory is not a directory!");
+        }
 
-      dir.delete();
+        if (!FileUtils.isDirectoryEmpty(dir)) {
+          throw new FileStoreException("Directory is not empty");
+        }
+
+        dir.delete();
+      }
     }
   }
 
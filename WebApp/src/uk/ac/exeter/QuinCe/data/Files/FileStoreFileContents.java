@@ -1,8 +1,8 @@
 package uk.ac.exeter.QuinCe.data.Files;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 
 import uk.ac.exeter.QuinCe.utils.StringUtils;
 
@@ -24,10 +24,22 @@ public class FileStoreFileContents extends FileContents {
   @Override
   protected void loadAction() throws DataFileException {
 
-    try {
-      String fileContent = new String(getBytes());
-      contents = new ArrayList<String>(
-        Arrays.asList(fileContent.split("[\\r\\n]+")));
+    // Read the file line by line, so compressed files can be decompressed as
+    // they are read instead of being expanded in memory first. Blank lines are
+    // skipped except at the start of the file.
+    try (BufferedReader reader = FileStore.getReader(fileStore,
+      fileDefinitionId, fileId)) {
+
+      contents = new ArrayList<String>();
+
+      String line = reader.readLine();
+      while (null != line) {
+        if (line.length() > 0 || contents.isEmpty()) {
+          contents.add(line);
+        }
+
+        line = reader.readLine();
+      }
 
       StringUtils.removeBlankTailLines(contents);
     } catch (IOException e) {
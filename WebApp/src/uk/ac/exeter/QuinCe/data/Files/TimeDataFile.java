@@ -462,8 +462,8 @@ public class TimeDataFile extends DataFile implements TimeRange {
           HighlightedString matchedLine = fileDefinition.getHeaderLine(
             getContents().get(), assignment.getPrefix(),
             assignment.getSuffix());
-          headerDate = LocalDateTime.parse(matchedLine.getHighlightedPortion(),
-            assignment.getFormatter());
+          headerDate = assignment
+            .parseDateTime(matchedLine.getHighlightedPortion());
         } catch (Exception e) {
           addMessage(
             "Could not extract file start date from header: " + e.getMessage());
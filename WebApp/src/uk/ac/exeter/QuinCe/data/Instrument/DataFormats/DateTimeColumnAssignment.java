@@ -1,7 +1,11 @@
 package uk.ac.exeter.QuinCe.data.Instrument.DataFormats;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoField;
 import java.util.Properties;
 
@@ -53,6 +57,22 @@ public class DateTimeColumnAssignment {
    */
   private Properties properties;
 
+  /**
+   * The format string used to build {@link #formatter} and
+   * {@link #fastParser}.
+   */
+  private String compiledFormat = null;
+
+  /**
+   * The cached formatter for the assignment's format string.
+   */
+  private DateTimeFormatter formatter = null;
+
+  /**
+   * The cached fast parser for the assignment's format string.
+   */
+  private FixedWidthDateTimeParser fastParser = null;
+
   /**
    * Create an empty assignment
    *
@@ -145,14 +165,33 @@ public class DateTimeColumnAssignment {
    * Get the date format as a formatter object. If this assignment does not have
    * a format, the method returns null
    *
+   * <p>
+   * The formatter is built the first time it is requested and then cached
+   * until the format string changes.
+   * </p>
+   *
    * @return The formatter
    */
-  public DateTimeFormatter getFormatter() {
-    DateTimeFormatter result = null;
+  public synchronized DateTimeFormatter getFormatter() {
+    compile();
+    return formatter;
+  }
 
-    if (null != getDateFormatString()) {
-      if (getDateFormatString().equals(ISO_FORMAT)) {
-        result = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+  /**
+   * Build the formatter and fast parser for the current format string, unless
+   * they have already been built.
+   */
+  private synchronized void compile() {
+    String formatString = getDateFormatString();
+
+    if (null == formatString) {
+      formatter = null;
+      fastParser = null;
+      compiledFormat = null;
+    } else if (!formatString.equals(compiledFormat)) {
+      if (formatString.equals(ISO_FORMAT)) {
+        formatter = DateTimeFormatter.ISO_OFFSET_DATE_TIME;
+        fastParser = FixedWidthDateTimeParser.forIso();
       } else {
 
         /*
@@ -162,17 +201,109 @@ public class DateTimeColumnAssignment {
          * For any format support fractions of a second, we take off the ".SSS"
          * identifier and replace it with a custom fractions parser.
          */
-        String formatString = getDateFormatString();
-        if (formatString.contains(".S")) {
-          formatString = formatString.replaceFirst("\\.S+", "");
-          result = new DateTimeFormatterBuilder().appendPattern(formatString)
+        boolean fraction = formatString.contains(".S");
+        String pattern = formatString;
+
+        if (fraction) {
+          pattern = formatString.replaceFirst("\\.S+", "");
+          formatter = new DateTimeFormatterBuilder().appendPattern(pattern)
             .appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
             .toFormatter();
         } else {
-          result = DateTimeFormatter.ofPattern(formatString);
+          formatter = DateTimeFormatter.ofPattern(pattern);
         }
 
+        fastParser = FixedWidthDateTimeParser.forPattern(pattern, fraction);
       }
+
+      compiledFormat = formatString;
+    }
+  }
+
+  /**
+   * Get the parser for fixed-width formats for this assignment.
+   *
+   * @return The parser
+   */
+  private synchronized FixedWidthDateTimeParser getFastParser() {
+    compile();
+    return fastParser;
+  }
+
+  /**
+   * Parse a date/time value using this assignment's format.
+   *
+   * <p>
+   * Common fixed-width formats are parsed by hand. Anything else is parsed by
+   * the {@link #getFormatter() formatter}.
+   * </p>
+   *
+   * @param value
+   *          The value to parse
+   * @return The date/time
+   * @throws DateTimeParseException
+   *           If the value cannot be parsed
+   */
+  public LocalDateTime parseDateTime(String value) {
+    LocalDateTime result = null;
+
+    FixedWidthDateTimeParser parser = getFastParser();
+    if (null != parser) {
+      result = parser.parseDateTime(value);
+    }
+
+    if (null == result) {
+      result = LocalDateTime.parse(value, getFormatter());
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a date value using this assignment's format.
+   *
+   * @param value
+   *          The value to parse
+   * @return The date
+   * @throws DateTimeParseException
+   *           If the value cannot be parsed
+   * @see #parseDateTime(String)
+   */
+  public LocalDate parseDate(String value) {
+    LocalDate result = null;
+
+    FixedWidthDateTimeParser parser = getFastParser();
+    if (null != parser) {
+      result = parser.parseDate(value);
+    }
+
+    if (null == result) {
+      result = LocalDate.parse(value, getFormatter());
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a time value using this assignment's format.
+   *
+   * @param value
+   *          The value to parse
+   * @return The time
+   * @throws DateTimeParseException
+   *           If the value cannot be parsed
+   * @see #parseDateTime(String)
+   */
+  public LocalTime parseTime(String value) {
+    LocalTime result = null;
+
+    FixedWidthDateTimeParser parser = getFastParser();
+    if (null != parser) {
+      result = parser.parseTime(value);
+    }
+
+    if (null == result) {
+      result = LocalTime.parse(value, getFormatter());
     }
 
     return result;
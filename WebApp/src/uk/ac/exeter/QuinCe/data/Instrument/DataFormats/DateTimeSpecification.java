@@ -940,7 +940,7 @@ public class DateTimeSpecification {
       throw new DateTimeSpecificationException("Date/time column is empty");
     } else {
       try {
-        result = LocalDateTime.parse(fieldValue, assignment.getFormatter());
+        result = assignment.parseDateTime(fieldValue);
       } catch (DateTimeParseException e) {
         throw new DateTimeSpecificationException(
           "Invalid date/time value '" + fieldValue + "'");
@@ -971,9 +971,9 @@ public class DateTimeSpecification {
       throw new DateTimeSpecificationException("Date/time column is empty");
     } else {
       try {
-        result = LocalDateTime.ofEpochSecond(Integer.parseInt(fieldValue), 0,
+        result = LocalDateTime.ofEpochSecond(Long.parseLong(fieldValue), 0,
           ZoneOffset.UTC);
-      } catch (DateTimeParseException e) {
+      } catch (NumberFormatException | DateTimeException e) {
         throw new DateTimeSpecificationException(
           "Invalid date/time value '" + fieldValue + "'");
       }
@@ -1021,17 +1021,20 @@ public class DateTimeSpecification {
         "Julian date/time value is not numeric");
     }
 
-    LocalDateTime result;
+    LocalDateTime result = FixedWidthDateTimeParser.makeYearDayTime(year,
+      jdayTime);
 
-    try {
-      result = LocalDateTime.of(year, 1, 1, 0, 0);
-      result = result.plusDays(jdayTime.intValue() - 1);
+    if (null == result) {
+      try {
+        result = LocalDateTime.of(year, 1, 1, 0, 0);
+        result = result.plusDays(jdayTime.intValue() - 1);
 
-      double secondsFraction = jdayTime - jdayTime.intValue();
-      result = result.plusSeconds((int) (secondsFraction * 86400));
-    } catch (DateTimeException e) {
-      throw new DateTimeSpecificationException(
-        "Invalid date/time value: " + e.getMessage());
+        double secondsFraction = jdayTime - jdayTime.intValue();
+        result = result.plusSeconds((int) (secondsFraction * 86400));
+      } catch (DateTimeException e) {
+        throw new DateTimeSpecificationException(
+          "Invalid date/time value: " + e.getMessage());
+      }
     }
 
     return result;
@@ -1065,7 +1068,7 @@ public class DateTimeSpecification {
         throw new MissingDateTimeException();
       } else {
         try {
-          result = LocalDate.parse(fieldValue, assignment.getFormatter());
+          result = assignment.parseDate(fieldValue);
         } catch (Exception e) {
           throw new DateTimeSpecificationException(
             "Invalid date value '" + fieldValue + "'");
@@ -1198,7 +1201,7 @@ public class DateTimeSpecification {
       throw new DateTimeSpecificationException("Time column is empty");
     } else {
       try {
-        result = LocalTime.parse(fieldValue, assignment.getFormatter());
+        result = assignment.parseTime(fieldValue);
       } catch (DateTimeParseException e) {
         throw new DateTimeSpecificationException(
           "Invalid time value '" + fieldValue + "'");
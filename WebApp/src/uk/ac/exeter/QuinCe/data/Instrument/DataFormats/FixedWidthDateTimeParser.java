@@ -0,0 +1,525 @@
+package uk.ac.exeter.QuinCe.data.Instrument.DataFormats;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fast parser for date/time formats made up only of fixed-width numeric
+ * fields and literal characters, such as {@code yyyy-MM-dd HH:mm:ss} or
+ * {@code dd/MM/yyyy}.
+ *
+ * <p>
+ * Most instrument files use formats like these, and parsing them by hand is
+ * much faster than using a {@link java.time.format.DateTimeFormatter}. The
+ * parser is deliberately conservative: the {@code parse} methods return
+ * {@code null} for any value that does not exactly match the layout or whose
+ * fields are out of range, and the caller is expected to fall back to the
+ * full formatter. The formatter will then either resolve the value or report
+ * the error in the usual way, so the fast path never changes the result of a
+ * parse.
+ * </p>
+ *
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ * </p>
+ *
+ * @see DateTimeColumnAssignment#parseDateTime(String)
+ */
+class FixedWidthDateTimeParser {
+
+  private static final int YEAR = 0;
+
+  private static final int MONTH = 1;
+
+  private static final int DAY = 2;
+
+  private static final int HOUR = 3;
+
+  private static final int MINUTE = 4;
+
+  private static final int SECOND = 5;
+
+  /**
+   * Token value for a literal character.
+   */
+  private static final int LITERAL = -1;
+
+  /**
+   * Format string prefix for ISO date/times, not including the fraction and
+   * offset.
+   */
+  private static final String ISO_PATTERN = "yyyy-MM-dd'T'HH:mm:ss";
+
+  /**
+   * The field for each token, or {@link #LITERAL}.
+   */
+  private final int[] tokenFields;
+
+  /**
+   * The width of each field token, or the character for each literal token.
+   */
+  private final char[] tokenValues;
+
+  /**
+   * Indicates which fields are present in the format.
+   */
+  private final boolean[] hasField = new boolean[6];
+
+  /**
+   * Indicates whether the format ends with an optional fraction of a second.
+   */
+  private final boolean fraction;
+
+  /**
+   * Indicates whether the format ends with an ISO offset.
+   */
+  private final boolean isoOffset;
+
+  /**
+   * Indicates whether the format string could be compiled.
+   */
+  private final boolean supported;
+
+  /**
+   * Compile a parser for a format string. The format should have already had
+   * any fraction of a second removed, as in
+   * {@link DateTimeColumnAssignment#getFormatter()}.
+   *
+   * @param formatString
+   *          The format string
+   * @param fraction
+   *          Whether the format ends with an optional fraction of a second
+   * @param isoOffset
+   *          Whether the format ends with an ISO offset
+   */
+  private FixedWidthDateTimeParser(String formatString, boolean fraction,
+    boolean isoOffset) {
+
+    this.fraction = fraction;
+    this.isoOffset = isoOffset;
+
+    List<Integer> fields = new ArrayList<Integer>();
+    List<Character> values = new ArrayList<Character>();
+    boolean ok = true;
+
+    int i = 0;
+    while (ok && i < formatString.length()) {
+      char c = formatString.charAt(i);
+
+      if (Character.isLetter(c)) {
+        int runEnd = i;
+        while (runEnd < formatString.length()
+          && formatString.charAt(runEnd) == c) {
+          runEnd++;
+        }
+
+        int field = getField(c, runEnd - i);
+        if (field == LITERAL || hasField[field]) {
+          ok = false;
+        } else {
+          hasField[field] = true;
+          fields.add(field);
+          values.add((char) (runEnd - i));
+        }
+
+        i = runEnd;
+      } else if (c == '\'') {
+        // Quoted literal text. Escaped quotes are not supported.
+        int close = formatString.indexOf('\'', i + 1);
+        if (close <= i + 1) {
+          ok = false;
+        } else {
+          for (int j = i + 1; j < close; j++) {
+            fields.add(LITERAL);
+            values.add(formatString.charAt(j));
+          }
+          i = close + 1;
+        }
+      } else if ("[]{}#".indexOf(c) > -1) {
+        // Reserved pattern characters
+        ok = false;
+      } else {
+        fields.add(LITERAL);
+        values.add(c);
+        i++;
+      }
+    }
+
+    tokenFields = new int[fields.size()];
+    tokenValues = new char[values.size()];
+    for (int t = 0; t < tokenFields.length; t++) {
+      tokenFields[t] = fields.get(t);
+      tokenValues[t] = values.get(t);
+    }
+
+    supported = ok;
+  }
+
+  /**
+   * Create a parser for a {@link DateTimeColumnAssignment} format string.
+   *
+   * @param formatString
+   *          The format string, after any fraction of a second has been
+   *          removed
+   * @param fraction
+   *          Whether the format ends with an optional fraction of a second
+   * @return The parser
+   */
+  protected static FixedWidthDateTimeParser forPattern(String formatString,
+    boolean fraction) {
+    return new FixedWidthDateTimeParser(formatString, fraction, false);
+  }
+
+  /**
+   * Create a parser for ISO offset date/times with whole seconds, as parsed by
+   * {@link java.time.format.DateTimeFormatter#ISO_OFFSET_DATE_TIME}.
+   *
+   * @return The parser
+   */
+  protected static FixedWidthDateTimeParser forIso() {
+    return new FixedWidthDateTimeParser(ISO_PATTERN, true, true);
+  }
+
+  /**
+   * Get the field represented by a run of pattern letters.
+   *
+   * @param letter
+   *          The pattern letter
+   * @param count
+   *          The number of times the letter is repeated
+   * @return The field, or {@link #LITERAL} if the run is not supported
+   */
+  private static int getField(char letter, int count) {
+    int result = LITERAL;
+
+    if (letter == 'y' && count == 4) {
+      result = YEAR;
+    } else if (count == 2) {
+      switch (letter) {
+      case 'M': {
+        result = MONTH;
+        break;
+      }
+      case 'd': {
+        result = DAY;
+        break;
+      }
+      case 'H': {
+        result = HOUR;
+        break;
+      }
+      case 'm': {
+        result = MINUTE;
+        break;
+      }
+      case 's': {
+        result = SECOND;
+        break;
+      }
+      default: {
+        result = LITERAL;
+      }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determine whether this parser can produce date/times.
+   *
+   * @return {@code true} if date/times can be parsed
+   */
+  protected boolean supportsDateTime() {
+    return supported && hasField[YEAR] && hasField[MONTH] && hasField[DAY]
+      && hasField[HOUR] && hasField[MINUTE] && hasField[SECOND];
+  }
+
+  /**
+   * Determine whether this parser can produce dates.
+   *
+   * @return {@code true} if dates can be parsed
+   */
+  protected boolean supportsDate() {
+    return supported && !fraction && hasField[YEAR] && hasField[MONTH]
+      && hasField[DAY] && !hasField[HOUR] && !hasField[MINUTE]
+      && !hasField[SECOND];
+  }
+
+  /**
+   * Determine whether this parser can produce times.
+   *
+   * @return {@code true} if times can be parsed
+   */
+  protected boolean supportsTime() {
+    return supported && !hasField[YEAR] && !hasField[MONTH] && !hasField[DAY]
+      && hasField[HOUR] && hasField[MINUTE] && hasField[SECOND];
+  }
+
+  /**
+   * Parse a date/time value.
+   *
+   * @param value
+   *          The value
+   * @return The date/time, or {@code null} if the value could not be parsed
+   */
+  protected LocalDateTime parseDateTime(String value) {
+    LocalDateTime result = null;
+
+    if (supportsDateTime()) {
+      int[] parsed = parse(value);
+      if (null != parsed) {
+        LocalDate date = makeDate(parsed);
+        LocalTime time = makeTime(parsed);
+        if (null != date && null != time) {
+          result = LocalDateTime.of(date, time);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a date value.
+   *
+   * @param value
+   *          The value
+   * @return The date, or {@code null} if the value could not be parsed
+   */
+  protected LocalDate parseDate(String value) {
+    LocalDate result = null;
+
+    if (supportsDate()) {
+      int[] parsed = parse(value);
+      if (null != parsed) {
+        result = makeDate(parsed);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a time value.
+   *
+   * @param value
+   *          The value
+   * @return The time, or {@code null} if the value could not be parsed
+   */
+  protected LocalTime parseTime(String value) {
+    LocalTime result = null;
+
+    if (supportsTime()) {
+      int[] parsed = parse(value);
+      if (null != parsed) {
+        result = makeTime(parsed);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Build a date/time from a year and a Julian day with a fractional time of
+   * day, as used by {@link DateTimeSpecification#JDAY_TIME}.
+   *
+   * <p>
+   * The date and time are constructed directly instead of adding days and
+   * seconds to the start of the year. Only days within the year and times
+   * within the day are handled; anything else returns {@code null} so the
+   * caller can use the full calculation, which also rolls over into adjacent
+   * years and reports invalid years.
+   * </p>
+   *
+   * @param year
+   *          The year
+   * @param jdayTime
+   *          The Julian day, with the time as a fraction of a day
+   * @return The date/time, or {@code null} if the value is not handled
+   */
+  protected static LocalDateTime makeYearDayTime(int year, double jdayTime) {
+    LocalDateTime result = null;
+
+    if (year >= Year.MIN_VALUE && year <= Year.MAX_VALUE && jdayTime >= 1D) {
+      int day = (int) jdayTime;
+      int seconds = (int) ((jdayTime - day) * 86400);
+
+      if (day <= Year.of(year).length() && seconds < 86400) {
+        result = LocalDateTime.of(LocalDate.ofYearDay(year, day),
+          LocalTime.ofSecondOfDay(seconds));
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Extract the field values from a string.
+   *
+   * @param value
+   *          The string
+   * @return The field values indexed by field, with the nanoseconds in the
+   *         last element, or {@code null} if the string does not match the
+   *         format
+   */
+  private int[] parse(String value) {
+    int[] result = new int[7];
+    int pos = 0;
+
+    for (int t = 0; t < tokenFields.length; t++) {
+      if (tokenFields[t] == LITERAL) {
+        if (pos >= value.length() || value.charAt(pos) != tokenValues[t]) {
+          return null;
+        }
+        pos++;
+      } else {
+        int width = tokenValues[t];
+        int fieldValue = parseDigits(value, pos, width);
+        if (fieldValue < 0) {
+          return null;
+        }
+        result[tokenFields[t]] = fieldValue;
+        pos += width;
+      }
+    }
+
+    if (fraction && pos < value.length() && value.charAt(pos) == '.') {
+      int digitsStart = pos + 1;
+      int digitsEnd = digitsStart;
+      while (digitsEnd < value.length() && isDigit(value.charAt(digitsEnd))) {
+        digitsEnd++;
+      }
+
+      int digitCount = digitsEnd - digitsStart;
+      if (digitCount < 1 || digitCount > 9) {
+        return null;
+      }
+
+      int nanos = parseDigits(value, digitsStart, digitCount);
+      for (int d = digitCount; d < 9; d++) {
+        nanos *= 10;
+      }
+
+      result[6] = nanos;
+      pos = digitsEnd;
+    }
+
+    if (isoOffset) {
+      if (!isIsoOffset(value, pos)) {
+        return null;
+      }
+    } else if (pos != value.length()) {
+      return null;
+    }
+
+    return result;
+  }
+
+  /**
+   * Determine whether the remainder of a string is a {@code Z} or
+   * {@code +HH:MM} offset.
+   *
+   * @param value
+   *          The string
+   * @param pos
+   *          The start of the offset
+   * @return {@code true} if the remainder is a simple offset
+   */
+  private static boolean isIsoOffset(String value, int pos) {
+    boolean result = false;
+
+    int remaining = value.length() - pos;
+    if (remaining == 1) {
+      result = value.charAt(pos) == 'Z';
+    } else if (remaining == 6) {
+      char sign = value.charAt(pos);
+      if ((sign == '+' || sign == '-') && value.charAt(pos + 3) == ':') {
+        int hours = parseDigits(value, pos + 1, 2);
+        int minutes = parseDigits(value, pos + 4, 2);
+        result = hours >= 0 && hours < 18 && minutes >= 0 && minutes < 60;
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Build a date from parsed fields.
+   *
+   * @param fields
+   *          The fields
+   * @return The date, or {@code null} if any field is out of range
+   */
+  private static LocalDate makeDate(int[] fields) {
+    LocalDate result = null;
+
+    int year = fields[YEAR];
+    int month = fields[MONTH];
+    int day = fields[DAY];
+
+    if (year >= 1 && month >= 1 && month <= 12 && day >= 1
+      && (day <= 28 || day <= LocalDate.of(year, month, 1).lengthOfMonth())) {
+      result = LocalDate.of(year, month, day);
+    }
+
+    return result;
+  }
+
+  /**
+   * Build a time from parsed fields.
+   *
+   * @param fields
+   *          The fields
+   * @return The time, or {@code null} if any field is out of range
+   */
+  private static LocalTime makeTime(int[] fields) {
+    LocalTime result = null;
+
+    int hour = fields[HOUR];
+    int minute = fields[MINUTE];
+    int second = fields[SECOND];
+
+    if (hour < 24 && minute < 60 && second < 60) {
+      result = LocalTime.of(hour, minute, second, fields[6]);
+    }
+
+    return result;
+  }
+
+  /**
+   * Parse a fixed number of ASCII digits from a string.
+   *
+   * @param value
+   *          The string
+   * @param start
+   *          The position of the first digit
+   * @param count
+   *          The number of digits
+   * @return The parsed value, or -1 if the digits are not all present
+   */
+  private static int parseDigits(String value, int start, int count) {
+    if (start + count > value.length()) {
+      return -1;
+    }
+
+    int result = 0;
+    for (int i = start; i < start + count; i++) {
+      char c = value.charAt(i);
+      if (!isDigit(c)) {
+        return -1;
+      }
+      result = result * 10 + (c - '0');
+    }
+
+    return result;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,327 @@
+package uk.ac.exeter.QuinCe.data.Instrument;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Splits lines from a data file into fields.
+ *
+ * <p>
+ * The tokenizer makes a single pass over a line and records the start and end
+ * of each field in arrays that are reused for every line it processes. No
+ * {@link String}s are created during tokenizing; a field's value is only built
+ * when it is requested through {@link #getField(int)} or the {@link List}
+ * returned by {@link #getFields()}. This means that callers that only need
+ * the field count, or a few columns from a wide file, don't pay for the rest
+ * of the line.
+ * </p>
+ *
+ * <p>
+ * The results are identical to the original implementation of
+ * {@link FileDefinition#extractFields(String)}, which split the line on the
+ * separator and then trimmed each field:
+ * </p>
+ * <ul>
+ * <li>For the space separator, leading and trailing whitespace is removed from
+ * the line and runs of spaces are treated as a single separator.</li>
+ * <li>Whitespace and quote characters ({@code "} and {@code '}) are trimmed
+ * from both ends of each field. Separators inside quotes are not treated
+ * specially.</li>
+ * <li>A single leading {@code \} is trimmed from a field; if a field starts
+ * with multiple {@code \} characters only the first is removed.</li>
+ * <li>If the line has one more field than expected and the last field is
+ * empty, it is assumed to come from a trailing separator and is removed.</li>
+ * </ul>
+ *
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ */
+public class FieldTokenizer {
+
+  /**
+   * The initial size of the field offset arrays
+   */
+  private static final int INITIAL_CAPACITY = 32;
+
+  /**
+   * The separator character
+   */
+  private final char separator;
+
+  /**
+   * Indicates whether runs of separators should be treated as one separator.
+   * This is only the case for space separated files.
+   */
+  private final boolean collapseSeparators;
+
+  /**
+   * The line currently being processed
+   */
+  private CharSequence line = null;
+
+  /**
+   * The start position of each field in the line
+   */
+  private int[] starts = new int[INITIAL_CAPACITY];
+
+  /**
+   * The end position of each field in the line (exclusive)
+   */
+  private int[] ends = new int[INITIAL_CAPACITY];
+
+  /**
+   * The number of fields in the current line
+   */
+  private int fieldCount = 0;
+
+  /**
+   * Create a tokenizer for the specified separator.
+   *
+   * @param separator
+   *          The separator
+   * @throws IllegalArgumentException
+   *           If the separator is not a single character
+   */
+  public FieldTokenizer(String separator) {
+    if (null == separator || separator.length() != 1) {
+      throw new IllegalArgumentException(
+        "Separator must be a single character");
+    }
+
+    this.separator = separator.charAt(0);
+    this.collapseSeparators = this.separator == ' ';
+  }
+
+  /**
+   * Split a line into fields.
+   *
+   * <p>
+   * Any previously tokenized line is discarded.
+   * </p>
+   *
+   * @param line
+   *          The line
+   * @param expectedFields
+   *          The number of fields expected on the line, used to detect a
+   *          trailing separator
+   * @return The number of fields found
+   */
+  public int tokenize(CharSequence line, int expectedFields) {
+    this.line = line;
+    fieldCount = 0;
+
+    if (collapseSeparators) {
+      tokenizeCollapsed();
+    } else {
+      tokenizeSimple();
+    }
+
+    // If the expected field count is one less than the extracted number of
+    // fields, and the last field is empty, assume we have a rogue trailing
+    // separator.
+    if (fieldCount == expectedFields + 1
+      && starts[fieldCount - 1] == ends[fieldCount - 1]) {
+      fieldCount--;
+    }
+
+    return fieldCount;
+  }
+
+  /**
+   * Split the line on every separator.
+   *
+   * <p>
+   * The original implementation used {@code String.split} with a limit of the
+   * line length, so a line consisting only of separators puts the final
+   * separator in the last field. That behaviour is preserved here.
+   * </p>
+   */
+  private void tokenizeSimple() {
+    int length = line.length();
+    int limit = length - 1;
+
+    int fieldStart = 0;
+    for (int i = 0; i < length; i++) {
+      if (line.charAt(i) == separator && fieldCount < limit) {
+        addField(fieldStart, i);
+        fieldStart = i + 1;
+      }
+    }
+
+    addField(fieldStart, length);
+  }
+
+  /**
+   * Split the line on runs of separators, ignoring any leading and trailing
+   * whitespace.
+   */
+  private void tokenizeCollapsed() {
+    int lineStart = 0;
+    int lineEnd = line.length();
+
+    while (lineStart < lineEnd && line.charAt(lineStart) <= ' ') {
+      lineStart++;
+    }
+
+    while (lineEnd > lineStart && line.charAt(lineEnd - 1) <= ' ') {
+      lineEnd--;
+    }
+
+    int fieldStart = lineStart;
+    int i = lineStart;
+    while (i < lineEnd) {
+      if (line.charAt(i) == separator) {
+        addField(fieldStart, i);
+        while (i < lineEnd && line.charAt(i) == separator) {
+          i++;
+        }
+        fieldStart = i;
+      } else {
+        i++;
+      }
+    }
+
+    addField(fieldStart, lineEnd);
+  }
+
+  /**
+   * Record a field, trimming whitespace, quotes and leading backslashes.
+   *
+   * @param start
+   *          The start of the field
+   * @param end
+   *          The end of the field (exclusive)
+   */
+  private void addField(int start, int end) {
+
+    boolean done = false;
+    while (!done) {
+      while (start < end && isTrimmable(line.charAt(start))) {
+        start++;
+      }
+      while (end > start && isTrimmable(line.charAt(end - 1))) {
+        end--;
+      }
+
+      if (end - start > 1 && line.charAt(start) == '\\'
+        && line.charAt(start + 1) == '\\') {
+        // If multiple \s, remove the first and stop
+        start++;
+        done = true;
+      } else if (end > start && line.charAt(start) == '\\') {
+        // Trim off the single \ and trim again
+        start++;
+      } else {
+        done = true;
+      }
+    }
+
+    if (fieldCount == starts.length) {
+      starts = Arrays.copyOf(starts, fieldCount * 2);
+      ends = Arrays.copyOf(ends, fieldCount * 2);
+    }
+
+    starts[fieldCount] = start;
+    ends[fieldCount] = end;
+    fieldCount++;
+  }
+
+  private static boolean isTrimmable(char c) {
+    return c <= ' ' || c == '"' || c == '\'';
+  }
+
+  /**
+   * Get the number of fields in the most recently tokenized line.
+   *
+   * @return The field count
+   */
+  public int getFieldCount() {
+    return fieldCount;
+  }
+
+  /**
+   * Get the value of a field in the most recently tokenized line.
+   *
+   * @param index
+   *          The field index
+   * @return The field value
+   * @throws IndexOutOfBoundsException
+   *           If the field does not exist
+   */
+  public String getField(int index) {
+    if (index < 0 || index >= fieldCount) {
+      throw new IndexOutOfBoundsException(
+        "Index " + index + " out of bounds for length " + fieldCount);
+    }
+
+    return line.subSequence(starts[index], ends[index]).toString();
+  }
+
+  /**
+   * Get the fields from the most recently tokenized line as a {@link List}.
+   *
+   * <p>
+   * The list is independent of the tokenizer, so it remains valid after the
+   * next line is tokenized. Field values are only created when they are first
+   * accessed. Fields can be replaced using {@link List#set(int, Object)}, but
+   * the size of the list cannot be changed.
+   * </p>
+   *
+   * @return The fields
+   */
+  public List<String> getFields() {
+    return new FieldList(line.toString(), Arrays.copyOf(starts, fieldCount),
+      Arrays.copyOf(ends, fieldCount));
+  }
+
+  /**
+   * A {@link List} of fields that builds each field value the first time it
+   * is accessed.
+   */
+  private static class FieldList extends AbstractList<String>
+    implements RandomAccess {
+
+    private final String line;
+
+    private final int[] starts;
+
+    private final int[] ends;
+
+    private final String[] values;
+
+    private final boolean[] created;
+
+    private FieldList(String line, int[] starts, int[] ends) {
+      this.line = line;
+      this.starts = starts;
+      this.ends = ends;
+      this.values = new String[starts.length];
+      this.created = new boolean[starts.length];
+    }
+
+    @Override
+    public String get(int index) {
+      if (!created[index]) {
+        values[index] = line.substring(starts[index], ends[index]);
+        created[index] = true;
+      }
+
+      return values[index];
+    }
+
+    @Override
+    public String set(int index, String element) {
+      String previous = get(index);
+      values[index] = element;
+      return previous;
+    }
+
+    @Override
+    public int size() {
+      return values.length;
+    }
+  }
+}
@@ -2,7 +2,6 @@ package uk.ac.exeter.QuinCe.data.Instrument;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -117,6 +116,12 @@ public class FileDefinition implements Comparable<FileDefinition> {
    */
   public static final int HEADER_TYPE_STRING = 1;
 
+  /**
+   * The maximum number of data lines examined by
+   * {@link #fileMatches(List)} when checking column counts.
+   */
+  protected static final int MATCH_SAMPLE_LINES = 1000;
+
   /**
    * The mapping of separator names to the separator characters
    */
@@ -189,6 +194,14 @@ public class FileDefinition implements Comparable<FileDefinition> {
    */
   private String separator = ",";
 
+  /**
+   * The tokenizer used by {@link #extractFields(String)} and
+   * {@link #extractField(String, int)}. Tokenizers hold the state of the line
+   * being processed, so each thread has its own. Replaced when the separator
+   * changes.
+   */
+  private transient ThreadLocal<FieldTokenizer> extractTokenizer = null;
+
   /**
    * The number of columns in the file
    */
@@ -484,6 +497,7 @@ public class FileDefinition implements Comparable<FileDefinition> {
       throw new InvalidSeparatorException(separator);
     }
     this.separator = separator;
+    extractTokenizer = null;
   }
 
   /**
@@ -500,6 +514,7 @@ public class FileDefinition implements Comparable<FileDefinition> {
       throw new InvalidSeparatorException(separatorName);
     } else {
       this.separator = SEPARATOR_LOOKUP.get(separatorName);
+      extractTokenizer = null;
     }
   }
 
@@ -592,31 +607,66 @@ public class FileDefinition implements Comparable<FileDefinition> {
   }
 
   /**
-   * Convert a string from a data file into a list of column values
+   * Convert a string from a data file into a list of column values.
+   *
+   * <p>
+   * The values in the returned list are only created when they are accessed,
+   * so extracting a few columns from a wide line is cheap.
+   * </p>
    *
    * @param dataLine
    *          The data line
    * @return The column values
+   * @see FieldTokenizer
    */
   public List<String> extractFields(String dataLine) {
-    List<String> values = new ArrayList<String>();
-
-    if (separator.equals(" ")) {
-      dataLine = StringUtils.removeRepeats(dataLine.trim(), ' ');
-    }
+    FieldTokenizer tokenizer = getExtractTokenizer();
+    tokenizer.tokenize(dataLine, getColumnCount());
+    return tokenizer.getFields();
+  }
 
-    values = StringUtils.trimListAndQuotes(
-      Arrays.asList(dataLine.split(separator, dataLine.length())));
+  /**
+   * Extract a single column value from a line in a data file.
+   *
+   * @param dataLine
+   *          The data line
+   * @param field
+   *          The index of the field to extract
+   * @return The field value
+   * @throws IndexOutOfBoundsException
+   *           If the line does not contain the field
+   */
+  public String extractField(String dataLine, int field) {
+    FieldTokenizer tokenizer = getExtractTokenizer();
+    tokenizer.tokenize(dataLine, getColumnCount());
+    return tokenizer.getField(field);
+  }
 
-    // If the column count is one less than the extracted number of columns,
-    // and the last column is empty, assume we have a rogue trailing separator.
-    if (values.size() == getColumnCount() + 1
-      && values.get(values.size() - 1).length() == 0) {
+  /**
+   * Get a {@link FieldTokenizer} for splitting lines from this file. The
+   * tokenizer can be reused for any number of lines, but not after the
+   * separator has been changed.
+   *
+   * @return The tokenizer
+   */
+  public FieldTokenizer getTokenizer() {
+    return new FieldTokenizer(separator);
+  }
 
-      values.remove(values.size() - 1);
+  /**
+   * Get the current thread's tokenizer for {@link #extractFields(String)} and
+   * {@link #extractField(String, int)}, creating it if needed.
+   *
+   * @return The tokenizer
+   */
+  private FieldTokenizer getExtractTokenizer() {
+    ThreadLocal<FieldTokenizer> tokenizers = extractTokenizer;
+    if (null == tokenizers) {
+      tokenizers = ThreadLocal.withInitial(this::getTokenizer);
+      extractTokenizer = tokenizers;
     }
 
-    return values;
+    return tokenizers.get();
   }
 
   /**
@@ -1078,6 +1128,12 @@ public class FileDefinition implements Comparable<FileDefinition> {
    * Examine the contents of a file to see if they match the format of this file
    * definition.
    *
+   * <p>
+   * Only the header and the first {@link #MATCH_SAMPLE_LINES} data lines are
+   * examined. This is enough to distinguish between file formats, and means
+   * that the cost of matching a large file does not depend on its length.
+   * </p>
+   *
    * @param lines
    *          The file lines
    * @return {@code true} if the file contents are compatible with this format;
@@ -1086,6 +1142,7 @@ public class FileDefinition implements Comparable<FileDefinition> {
   public boolean fileMatches(List<String> lines) {
 
     boolean matches = true;
+    FieldTokenizer tokenizer = getTokenizer();
 
     int currentLine = 0;
 
@@ -1113,7 +1170,8 @@ public class FileDefinition implements Comparable<FileDefinition> {
       // Check that the first column header row contains the correct number
       // of columns. If it does, skip the total number of header rows.
       if (columnHeaderRows > 0) {
-        int firstRowColumnCount = extractFields(lines.get(currentLine)).size();
+        int firstRowColumnCount = tokenizer.tokenize(lines.get(currentLine),
+          columnCount);
 
         if (firstRowColumnCount != columnCount) {
           matches = false;
@@ -1128,12 +1186,14 @@ public class FileDefinition implements Comparable<FileDefinition> {
       // Check the remaining rows to make sure that most of them contain the
       // correct number of columns.
       // The percentage threshold is entirely arbitrary and may need adjustment.
-      int dataRows = lines.size() - currentLine;
+      int lastLine = Math.min(lines.size(), currentLine + MATCH_SAMPLE_LINES);
+      int dataRows = lastLine - currentLine;
       int correctColumnCountRows = 0;
 
       if (dataRows > 0) {
-        while (currentLine < lines.size()) {
-          if (extractFields(lines.get(currentLine)).size() == columnCount) {
+        while (currentLine < lastLine) {
+          if (tokenizer.tokenize(lines.get(currentLine),
+            columnCount) == columnCount) {
             correctColumnCountRows++;
           }
           currentLine++;
@@ -176,29 +176,18 @@ public abstract class Job {
   /**
    * Set the progress for the job, as a percentage.
    *
+   * <p>
+   * The progress is held in the {@link JobProgressRegistry} and written to the
+   * database periodically, so this can be called as often as needed.
+   * </p>
+   *
    * @param progress
    *          The progress.
    * @throws BadProgressException
    *           If the progress is not between 0 and 100.
-   * @throws NoSuchJobException
-   *           If the job is not in the database.
-   * @throws DatabaseException
-   *           If an error occurs while updating the database.
-   * @throws MissingParamException
-   *           If any required parameters are missing in internal calls.
    */
-  protected void setProgress(double progress) throws MissingParamException,
-    BadProgressException, NoSuchJobException, DatabaseException {
-    Connection conn = null;
-    try {
-      conn = dataSource.getConnection();
-      JobManager.setProgress(conn, id, progress);
-    } catch (SQLException e) {
-      throw new DatabaseException(
-        "An error occurred while retrieving a database connection", e);
-    } finally {
-      DatabaseUtils.closeConnection(conn);
-    }
+  protected void setProgress(double progress) throws BadProgressException {
+    JobProgressRegistry.setProgress(id, progress);
   }
 
   /**
@@ -251,6 +240,7 @@ public abstract class Job {
       throw new DatabaseException(
         "An error occurred while updating a job's status", e);
     } finally {
+      JobProgressRegistry.remove(id);
       DatabaseUtils.closeConnection(conn);
     }
   }
@@ -277,6 +267,7 @@ public abstract class Job {
       throw new DatabaseException(
         "An error occurred while updating a job's status", e);
     } finally {
+      JobProgressRegistry.remove(id);
       DatabaseUtils.closeConnection(conn);
     }
   }
@@ -304,6 +295,7 @@ public abstract class Job {
       throw new DatabaseException(
         "An error occurred while updating a job's status", e);
     } finally {
+      JobProgressRegistry.remove(id);
       DatabaseUtils.closeConnection(conn);
     }
   }
@@ -367,4 +359,40 @@ public abstract class Job {
   protected Object getTransferData(String key) {
     return null == transferData ? null : transferData.get(key);
   }
+
+  /**
+   * Run a follow-on job as a stage of this job, instead of queueing it as a
+   * separate job.
+   *
+   * <p>
+   * The stage is run in the current thread under this job's ID, so its
+   * progress is reported against this job. If the stage is killed, this job is
+   * marked as killed.
+   * </p>
+   *
+   * @param stage
+   *          The details of the follow-on job.
+   * @param thread
+   *          The thread that is running this job.
+   * @return The details of the job that should follow the stage.
+   * @throws JobFailedException
+   *           If the stage fails.
+   */
+  protected NextJobInfo runStage(NextJobInfo stage, JobThread thread)
+    throws JobFailedException {
+
+    Job stageJob = JobManager.createJob(resourceManager, config, id, owner,
+      stage.jobClass, stage.properties);
+    stageJob.transferData = stage.transferData;
+
+    try {
+      NextJobInfo result = stageJob.execute(thread);
+      if (stageJob.getFinishState().equals(KILLED_STATUS)) {
+        finishState = KILLED_STATUS;
+      }
+      return result;
+    } finally {
+      stageJob.destroy();
+    }
+  }
 }
@@ -82,9 +82,25 @@ public class JobManager {
   private static final String FIND_JOB_QUERY = "SELECT COUNT(*) FROM job WHERE id = ?";
 
   /**
-   * Statement to retrieve the list of jobs
+   * Statement to retrieve a page of the list of jobs. Filters and the
+   * {@code LIMIT} are added by {@link #getJobList}.
    */
-  private static final String JOB_LIST_QUERY = "SELECT id, owner, class, created, status, started, ended, progress, stack_trace FROM job ORDER BY created DESC";
+  private static final String JOB_LIST_QUERY = "SELECT id, owner, class, created, status, started, ended, progress, stack_trace IS NOT NULL FROM job";
+
+  /**
+   * Query to get the stack trace of a job
+   */
+  private static final String GET_STACK_TRACE_QUERY = "SELECT stack_trace FROM job WHERE id = ?";
+
+  /**
+   * Query to get the job classes in the job table
+   */
+  private static final String GET_JOB_CLASSES_QUERY = "SELECT DISTINCT class FROM job ORDER BY class";
+
+  /**
+   * Query to get the owners of jobs in the job table
+   */
+  private static final String GET_JOB_OWNERS_QUERY = "SELECT DISTINCT owner FROM job WHERE owner IS NOT NULL";
 
   /**
    * SQL statement for setting a job's status
@@ -92,9 +108,10 @@ public class JobManager {
   private static final String SET_STATUS_STATEMENT = "UPDATE job SET status = ? WHERE id = ?";
 
   /**
-   * SQL statement for setting a job's progress
+   * SQL statement to store the progress of a running job
    */
-  private static final String SET_PROGRESS_STATEMENT = "UPDATE job SET progress = ? WHERE id = ?";
+  private static final String STORE_PROGRESS_STATEMENT = "UPDATE job SET progress = ? WHERE id = ? AND status = '"
+    + Job.RUNNING_STATUS + "'";
 
   /**
    * SQL statement for recording that a job has started
@@ -629,7 +646,6 @@ public class JobManager {
    * @throws SQLException
    *           If a database error occurs
    */
-  @SuppressWarnings("unchecked")
   private static Job getJobFromResultSet(Connection conn, ResultSet result,
     ResourceManager resourceManager, Properties config)
     throws JobFailedException, SQLException {
@@ -638,17 +654,51 @@ public class JobManager {
 
     try {
       jobId = result.getLong(1);
+      return createJob(resourceManager, config, jobId,
+        UserDB.getUser(conn, result.getLong(2)), result.getString(3),
+        new Gson().fromJson(result.getString(4), Properties.class));
+    } catch (SQLException e) {
+      throw e;
+    } catch (JobFailedException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new JobFailedException(jobId, "Error while creating job object", e);
+    }
+  }
+
+  /**
+   * Create a {@link Job} object of the specified class.
+   *
+   * @param resourceManager
+   *          The application's resource manager
+   * @param config
+   *          The application configuration
+   * @param jobId
+   *          The job's database ID
+   * @param owner
+   *          The job's owner
+   * @param jobClass
+   *          The job class
+   * @param properties
+   *          The job properties
+   * @return The Job object
+   * @throws JobFailedException
+   *           If the Job object could not be created
+   */
+  @SuppressWarnings("unchecked")
+  protected static Job createJob(ResourceManager resourceManager,
+    Properties config, long jobId, User owner, String jobClass,
+    Properties properties) throws JobFailedException {
+
+    try {
       Class<? extends Job> jobClazz = (Class<? extends Job>) Class
-        .forName(result.getString(3));
+        .forName(jobClass);
       Constructor<? extends Job> jobConstructor = jobClazz.getConstructor(
         ResourceManager.class, Properties.class, long.class, User.class,
         Properties.class);
 
-      return jobConstructor.newInstance(resourceManager, config,
-        result.getLong(1), UserDB.getUser(conn, result.getLong(2)),
-        new Gson().fromJson(result.getString(4), Properties.class));
-    } catch (SQLException e) {
-      throw e;
+      return jobConstructor.newInstance(resourceManager, config, jobId, owner,
+        properties);
     } catch (Throwable e) {
       throw new JobFailedException(jobId, "Error while creating job object", e);
     }
@@ -779,51 +829,46 @@ public class JobManager {
   }
 
   /**
-   * Set the progress for a job. The progress must be a percentage (between 0
-   * and 100 inclusive)
+   * Store the progress of a set of running jobs. Jobs that are no longer
+   * running are not updated.
    *
-   * @param conn
-   *          A database connection
-   * @param jobID
-   *          The ID of the job
+   * @param dataSource
+   *          A data source
    * @param progress
-   *          The progress
+   *          The progress of each job, keyed by job ID
    * @throws MissingParamException
    *           If any required parameters are missing
-   * @throws BadProgressException
-   *           If the progress value is invalid
-   * @throws NoSuchJobException
-   *           If the specified job does not exist
    * @throws DatabaseException
-   *           If an error occurs while storing the progress in the database
+   *           If an error occurs while storing the progress
+   * @see JobProgressRegistry
    */
-  public static void setProgress(Connection conn, long jobID, double progress)
-    throws BadProgressException, NoSuchJobException, DatabaseException {
-
-    MissingParam.checkMissing(conn, "conn");
-    MissingParam.checkDatabaseId(jobID, "jobID", false);
-    MissingParam.checkZeroPositive(progress, "progress");
-
-    if (progress < 0 || progress > 100) {
-      throw new BadProgressException();
-    }
+  protected static void storeProgress(DataSource dataSource,
+    Map<Long, Double> progress)
+    throws MissingParamException, DatabaseException {
 
-    if (!jobExists(conn, jobID)) {
-      throw new NoSuchJobException(jobID);
-    }
+    MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkMissing(progress, "progress", true);
 
+    Connection conn = null;
     PreparedStatement stmt = null;
 
     try {
-      stmt = conn.prepareStatement(SET_PROGRESS_STATEMENT);
-      stmt.setDouble(1, progress);
-      stmt.setLong(2, jobID);
-      stmt.execute();
+      conn = dataSource.getConnection();
+      stmt = conn.prepareStatement(STORE_PROGRESS_STATEMENT);
+
+      for (Map.Entry<Long, Double> entry : progress.entrySet()) {
+        stmt.setDouble(1, entry.getValue());
+        stmt.setLong(2, entry.getKey());
+        stmt.addBatch();
+      }
+
+      stmt.executeBatch();
     } catch (SQLException e) {
-      throw new DatabaseException("An error occurred while setting the status",
+      throw new DatabaseException("An error occurred while storing job progress",
         e);
     } finally {
       DatabaseUtils.closeStatements(stmt);
+      DatabaseUtils.closeConnection(conn);
     }
   }
 
@@ -1035,24 +1080,78 @@ public class JobManager {
   }
 
   /**
-   * Retrieve summaries of the complete list of jobs in the system.
+   * Retrieve summaries of a page of jobs, newest first.
+   *
+   * <p>
+   * The list can be filtered by status, owner and job class. Each filter is
+   * ignored if it is {@code null}. Pages are located using the ID of the last
+   * job on the previous page, so the query can use the table's indexes however
+   * many jobs there are.
+   * </p>
+   *
+   * <p>
+   * Stack traces are not included; use {@link #getStackTrace(DataSource, long)}
+   * to retrieve them.
+   * </p>
    *
    * @param dataSource
    *          A data source
+   * @param status
+   *          The job status
+   * @param ownerId
+   *          The database ID of the jobs' owner
+   * @param jobClass
+   *          The job class
+   * @param beforeId
+   *          Only jobs with IDs lower than this will be returned; {@code null}
+   *          to start from the newest job
+   * @param limit
+   *          The maximum number of jobs to return
    * @return The list of jobs
    * @throws DatabaseException
    *           If a database error occurs
    * @throws MissingParamException
    *           If any required parameters are missing
    */
-  @Deprecated
-  public static List<JobSummary> getJobList(DataSource dataSource)
+  public static List<JobSummary> getJobList(DataSource dataSource,
+    String status, Long ownerId, String jobClass, Long beforeId, int limit)
     throws DatabaseException, MissingParamException {
 
     MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkPositive(limit, "limit");
 
     List<JobSummary> result = new ArrayList<JobSummary>();
 
+    List<String> conditions = new ArrayList<String>();
+    List<Object> params = new ArrayList<Object>();
+
+    if (null != status) {
+      conditions.add("status = ?");
+      params.add(status);
+    }
+
+    if (null != ownerId) {
+      conditions.add("owner = ?");
+      params.add(ownerId);
+    }
+
+    if (null != jobClass) {
+      conditions.add("class = ?");
+      params.add(jobClass);
+    }
+
+    if (null != beforeId) {
+      conditions.add("id < ?");
+      params.add(beforeId);
+    }
+
+    StringBuilder sql = new StringBuilder(JOB_LIST_QUERY);
+    if (conditions.size() > 0) {
+      sql.append(" WHERE ");
+      sql.append(String.join(" AND ", conditions));
+    }
+    sql.append(" ORDER BY id DESC LIMIT ?");
+
     Connection conn = null;
     PreparedStatement stmt = null;
     ResultSet records = null;
@@ -1060,16 +1159,33 @@ public class JobManager {
     try {
 
       conn = dataSource.getConnection();
-      stmt = conn.prepareStatement(JOB_LIST_QUERY);
+      stmt = conn.prepareStatement(sql.toString());
+
+      int paramIndex = 1;
+      for (Object param : params) {
+        stmt.setObject(paramIndex, param);
+        paramIndex++;
+      }
+      stmt.setInt(paramIndex, limit);
+
+      Map<Long, User> owners = new HashMap<Long, User>();
 
       records = stmt.executeQuery();
       while (records.next()) {
         long id = records.getLong(1);
+
+        User owner = null;
         long userID = records.getLong(2);
-        User owner = UserDB.getUser(dataSource, userID);
+        if (!records.wasNull()) {
+          if (!owners.containsKey(userID)) {
+            owners.put(userID, UserDB.getUser(conn, userID));
+          }
+          owner = owners.get(userID);
+        }
+
         String className = records.getString(3);
         Date created = new Date(records.getTimestamp(4).getTime());
-        String status = records.getString(5);
+        String jobStatus = records.getString(5);
         Date started = null;
 
         if (null != records.getTimestamp(6)) {
@@ -1083,10 +1199,15 @@ public class JobManager {
         }
 
         double progress = records.getDouble(8);
-        String stackTrace = records.getString(9);
+        Double currentProgress = JobProgressRegistry.getProgress(id);
+        if (null != currentProgress) {
+          progress = currentProgress;
+        }
 
-        result.add(new JobSummary(id, owner, className, created, status,
-          started, ended, progress, stackTrace));
+        boolean hasStackTrace = records.getBoolean(9);
+
+        result.add(new JobSummary(id, owner, className, created, jobStatus,
+          started, ended, progress, hasStackTrace));
       }
 
     } catch (SQLException e) {
@@ -1100,6 +1221,136 @@ public class JobManager {
     return result;
   }
 
+  /**
+   * Get the stack trace recorded for a job.
+   *
+   * @param dataSource
+   *          A data source
+   * @param jobId
+   *          The job's database ID
+   * @return The stack trace, or {@code null} if there is no stack trace
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static String getStackTrace(DataSource dataSource, long jobId)
+    throws DatabaseException, MissingParamException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+    MissingParam.checkDatabaseId(jobId, "jobId", false);
+
+    String result = null;
+
+    Connection conn = null;
+    PreparedStatement stmt = null;
+    ResultSet record = null;
+
+    try {
+      conn = dataSource.getConnection();
+      stmt = conn.prepareStatement(GET_STACK_TRACE_QUERY);
+      stmt.setLong(1, jobId);
+
+      record = stmt.executeQuery();
+      if (record.next()) {
+        result = record.getString(1);
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while retrieving job stack trace", e);
+    } finally {
+      DatabaseUtils.closeResultSets(record);
+      DatabaseUtils.closeStatements(stmt);
+      DatabaseUtils.closeConnection(conn);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the job classes that appear in the job table.
+   *
+   * @param dataSource
+   *          A data source
+   * @return The job classes
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static List<String> getJobClasses(DataSource dataSource)
+    throws DatabaseException, MissingParamException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+
+    List<String> result = new ArrayList<String>();
+
+    Connection conn = null;
+    PreparedStatement stmt = null;
+    ResultSet records = null;
+
+    try {
+      conn = dataSource.getConnection();
+      stmt = conn.prepareStatement(GET_JOB_CLASSES_QUERY);
+
+      records = stmt.executeQuery();
+      while (records.next()) {
+        result.add(records.getString(1));
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while retrieving job classes", e);
+    } finally {
+      DatabaseUtils.closeResultSets(records);
+      DatabaseUtils.closeStatements(stmt);
+      DatabaseUtils.closeConnection(conn);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the users that own jobs in the job table.
+   *
+   * @param dataSource
+   *          A data source
+   * @return The job owners
+   * @throws DatabaseException
+   *           If a database error occurs
+   * @throws MissingParamException
+   *           If any required parameters are missing
+   */
+  public static List<User> getJobOwners(DataSource dataSource)
+    throws DatabaseException, MissingParamException {
+
+    MissingParam.checkMissing(dataSource, "dataSource");
+
+    List<User> result = new ArrayList<User>();
+
+    Connection conn = null;
+    PreparedStatement stmt = null;
+    ResultSet records = null;
+
+    try {
+      conn = dataSource.getConnection();
+      stmt = conn.prepareStatement(GET_JOB_OWNERS_QUERY);
+
+      records = stmt.executeQuery();
+      while (records.next()) {
+        User owner = UserDB.getUser(conn, records.getLong(1));
+        if (null != owner) {
+          result.add(owner);
+        }
+      }
+    } catch (SQLException e) {
+      throw new DatabaseException("Error while retrieving job owners", e);
+    } finally {
+      DatabaseUtils.closeResultSets(records);
+      DatabaseUtils.closeStatements(stmt);
+      DatabaseUtils.closeConnection(conn);
+    }
+
+    return result;
+  }
+
   /**
    * Start the next queued job, if there is one
    *
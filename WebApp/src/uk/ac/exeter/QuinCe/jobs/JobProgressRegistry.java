@@ -0,0 +1,132 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+
+/**
+ * In-memory record of the progress of running jobs.
+ *
+ * <p>
+ * Jobs report their progress here through {@link Job#setProgress(double)}
+ * instead of writing it straight to the database, so they can report progress
+ * as often as they like. The {@link JobProgressWriter} background task copies
+ * any changed values to the database periodically, and
+ * {@link JobManager#getJobList} uses the values held here for running jobs.
+ * </p>
+ *
+ * <p>
+ * Each job only updates its own entry, and the values are read without
+ * locking. A job's entry is removed when it stops running.
+ * </p>
+ */
+public class JobProgressRegistry {
+
+  /**
+   * The progress of each running job, keyed by job ID.
+   */
+  private static final Map<Long, Entry> PROGRESS = new ConcurrentHashMap<Long, Entry>();
+
+  /**
+   * Record the progress of a job. The progress must be a percentage (between
+   * 0 and 100 inclusive).
+   *
+   * @param jobId
+   *          The job's database ID.
+   * @param progress
+   *          The progress.
+   * @throws BadProgressException
+   *           If the progress value is invalid.
+   */
+  protected static void setProgress(long jobId, double progress)
+    throws BadProgressException {
+
+    if (Double.isNaN(progress) || progress < 0 || progress > 100) {
+      throw new BadProgressException();
+    }
+
+    PROGRESS.computeIfAbsent(jobId, k -> new Entry()).progress = progress;
+  }
+
+  /**
+   * Get the current progress of a running job.
+   *
+   * @param jobId
+   *          The job's database ID.
+   * @return The progress, or {@code null} if the job is not running in this
+   *         application instance.
+   */
+  public static Double getProgress(long jobId) {
+    Entry entry = PROGRESS.get(jobId);
+    return null == entry ? null : entry.progress;
+  }
+
+  /**
+   * Remove a job from the registry when it stops running.
+   *
+   * @param jobId
+   *          The job's database ID.
+   */
+  protected static void remove(long jobId) {
+    PROGRESS.remove(jobId);
+  }
+
+  /**
+   * Store the progress of all jobs whose progress has changed since it was
+   * last stored.
+   *
+   * @param dataSource
+   *          A data source.
+   * @throws DatabaseException
+   *           If a database error occurs.
+   * @throws MissingParamException
+   *           If any required parameters are missing.
+   */
+  protected static void flush(DataSource dataSource)
+    throws DatabaseException, MissingParamException {
+
+    Map<Entry, Double> changed = new HashMap<Entry, Double>();
+    Map<Long, Double> values = new HashMap<Long, Double>();
+
+    PROGRESS.forEach((id, entry) -> {
+      double progress = entry.progress;
+      if (progress != entry.stored) {
+        changed.put(entry, progress);
+        values.put(id, progress);
+      }
+    });
+
+    if (values.size() > 0) {
+      JobManager.storeProgress(dataSource, values);
+      changed.forEach((entry, progress) -> entry.stored = progress);
+    }
+  }
+
+  /**
+   * Remove all entries. Intended for tests.
+   */
+  protected static void clear() {
+    PROGRESS.clear();
+  }
+
+  /**
+   * The progress of a single job.
+   */
+  private static class Entry {
+
+    /**
+     * The latest reported progress.
+     */
+    private volatile double progress = 0;
+
+    /**
+     * The progress last written to the database.
+     */
+    private volatile double stored = -1;
+  }
+}
@@ -0,0 +1,35 @@
+package uk.ac.exeter.QuinCe.jobs;
+
+import javax.servlet.annotation.WebListener;
+
+import uk.ac.exeter.QuinCe.utils.BackgroundTask;
+import uk.ac.exeter.QuinCe.utils.BackgroundTaskException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Background task to write the progress of running jobs to the database.
+ *
+ * <p>
+ * The task runs every 10 seconds.
+ * </p>
+ *
+ * @see JobProgressRegistry
+ */
+@WebListener
+public class JobProgressWriter extends BackgroundTask {
+
+  @Override
+  protected void doTask() throws BackgroundTaskException {
+    try {
+      JobProgressRegistry
+        .flush(ResourceManager.getInstance().getDBDataSource());
+    } catch (Exception e) {
+      throw new BackgroundTaskException(e);
+    }
+  }
+
+  @Override
+  protected long getRunInterval() {
+    return 10;
+  }
+}
@@ -59,6 +59,11 @@ public class JobSummary {
    */
   private String stackTrace;
 
+  /**
+   * Indicates whether a stack trace is stored for the job
+   */
+  private boolean stackTraceAvailable;
+
   /**
    * Basic constructor - simply takes in all values for the summary
    *
@@ -94,6 +99,46 @@ public class JobSummary {
     this.ended = ended;
     this.progress = progress;
     this.stackTrace = stackTrace;
+    this.stackTraceAvailable = null != stackTrace;
+  }
+
+  /**
+   * Constructor for a summary that does not include the job's stack trace. The
+   * stack trace can be retrieved using
+   * {@link JobManager#getStackTrace(javax.sql.DataSource, long)}.
+   *
+   * @param id
+   *          The job's database ID
+   * @param owner
+   *          The job's owner
+   * @param className
+   *          The job's class name
+   * @param created
+   *          The date/time that the job was created
+   * @param status
+   *          The current status of the job
+   * @param started
+   *          The date/time that the job was started
+   * @param ended
+   *          The date/time that the job finished
+   * @param progress
+   *          The current progress of the job
+   * @param stackTraceAvailable
+   *          Indicates whether a stack trace is stored for the job
+   */
+  public JobSummary(long id, User owner, String className, Date created,
+    String status, Date started, Date ended, double progress,
+    boolean stackTraceAvailable) {
+    this.id = id;
+    this.owner = owner;
+    this.className = className;
+    this.created = created;
+    this.status = status;
+    this.started = started;
+    this.ended = ended;
+    this.progress = progress;
+    this.stackTrace = null;
+    this.stackTraceAvailable = stackTraceAvailable;
   }
 
   /**
@@ -181,12 +226,33 @@ public class JobSummary {
     return stackTrace;
   }
 
+  /**
+   * Determine whether a stack trace is stored for the job. The stack trace
+   * itself may not be included in this summary.
+   *
+   * @return {@code true} if the job has a stack trace; {@code false} otherwise
+   */
+  public boolean isStackTraceAvailable() {
+    return stackTraceAvailable;
+  }
+
   /**
    * Get the stack trace for the job, formatted in HTML
    *
    * @return The stack trace for the job in HTML
    */
   public String getStackTraceAsHtml() {
+    return formatStackTrace(stackTrace);
+  }
+
+  /**
+   * Format a job's stack trace as HTML
+   *
+   * @param stackTrace
+   *          The stack trace
+   * @return The stack trace in HTML
+   */
+  public static String formatStackTrace(String stackTrace) {
     String result = StringEscapeUtils.escapeHtml4(stackTrace);
 
     if (null != stackTrace) {
@@ -20,7 +20,6 @@ import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
 import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesList;
 import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesListFactory;
 import uk.ac.exeter.QuinCe.data.Dataset.SensorValuesListValue;
-import uk.ac.exeter.QuinCe.data.Dataset.TimeDataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.ExternalStandards.ExternalStandardsQCRoutine;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.AbstractAutoQCRoutine;
@@ -34,7 +33,6 @@ import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.PositionQCRoutine;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.SensorValues.SpeedQCRoutine;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
-import uk.ac.exeter.QuinCe.data.Instrument.Calibration.ExternalStandardDB;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignments;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
@@ -279,20 +277,18 @@ public class AutoQCJob extends DataSetJob {
         // External Standards routines
         if (instrument.hasInternalCalibrations()) {
 
-          TimeDataSet castDataset = (TimeDataSet) dataSet;
-
           AbstractQCRoutinesConfiguration externalStandardsRoutinesConfig = ResourceManager
             .getInstance()
             .getExternalStandardsRoutinesConfiguration(flagScheme.getBasis());
 
+          CalibrationSet calibrationSet = getContext(conn)
+            .getExternalStandards(conn);
+
           for (long columnId : sensorValues.getColumnIds()) {
 
             SensorType sensorType = sensorAssignments
               .getSensorTypeForDBColumn(columnId);
 
-            CalibrationSet calibrationSet = ExternalStandardDB.getInstance()
-              .getCalibrationSet(conn, castDataset);
-
             if (sensorType.hasInternalCalibration()) {
               for (AbstractAutoQCRoutine routine : externalStandardsRoutinesConfig
                 .getRoutines(sensorType)) {
@@ -339,6 +335,7 @@ public class AutoQCJob extends DataSetJob {
       NextJobInfo nextJob = new NextJobInfo(
         LocateMeasurementsJob.class.getCanonicalName(), jobProperties);
       nextJob.putTransferData(SENSOR_VALUES, rawSensorValues);
+      transferContext(nextJob);
       return nextJob;
     } catch (Exception e) {
       ExceptionUtils.printStackTrace(e);
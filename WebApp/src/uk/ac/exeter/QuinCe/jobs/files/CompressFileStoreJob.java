@@ -0,0 +1,44 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.util.Properties;
+
+import javax.servlet.annotation.WebListener;
+
+import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
+import uk.ac.exeter.QuinCe.utils.BackgroundTask;
+import uk.ac.exeter.QuinCe.utils.BackgroundTaskException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Job to compress files in the file store that were stored before compression
+ * was enabled.
+ *
+ * <p>
+ * The job does nothing unless the {@code filestore.compress} configuration
+ * property is set. Once all existing files have been compressed, each run
+ * simply checks the first bytes of each file and moves on.
+ * </p>
+ *
+ * @see DataFileDB#compressFiles(Properties)
+ */
+@WebListener
+public class CompressFileStoreJob extends BackgroundTask {
+
+  @Override
+  protected void doTask() throws BackgroundTaskException {
+    try {
+      Properties appConfig = ResourceManager.getInstance().getConfig();
+
+      if (DataFileDB.compressFiles(appConfig)) {
+        DataFileDB.compressFileStore(appConfig);
+      }
+    } catch (Exception e) {
+      throw new BackgroundTaskException(e);
+    }
+  }
+
+  @Override
+  protected long getRunInterval() {
+    return 3600;
+  }
+}
@@ -126,8 +126,12 @@ public class CreateNrtDataset extends Job {
           jobProperties.setProperty(DataSetJob.ID_PARAM,
             String.valueOf(newDataset.getId()));
 
-          JobManager.addJob(conn, instrument.getOwner(),
-            ExtractDataSetJob.class.getCanonicalName(), jobProperties);
+          String jobClass = DataSetPipelineJob.useForNrt(config)
+            ? DataSetPipelineJob.class.getCanonicalName()
+            : ExtractDataSetJob.class.getCanonicalName();
+
+          JobManager.addJob(conn, instrument.getOwner(), jobClass,
+            jobProperties);
         }
       }
 
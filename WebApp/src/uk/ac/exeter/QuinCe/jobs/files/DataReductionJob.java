@@ -25,7 +25,6 @@ import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducer;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReducerFactory;
 import uk.ac.exeter.QuinCe.data.Dataset.DataReduction.DataReductionRecord;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
-import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalculationCoefficientDB;
 import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorAssignment;
 import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
@@ -116,8 +115,8 @@ public class DataReductionJob extends DataSetJob {
       DatasetMeasurements allMeasurements = DataSetDataDB
         .getMeasurementsByRunType(conn, dataSet);
 
-      CalibrationSet calculationCoefficients = CalculationCoefficientDB
-        .getInstance().getCalibrationSet(conn, dataSet);
+      CalibrationSet calculationCoefficients = getContext(conn)
+        .getCalculationCoefficients(conn);
 
       ArrayList<DataReductionRecord> dataReductionRecords = new ArrayList<DataReductionRecord>();
 
@@ -257,6 +256,7 @@ public class DataReductionJob extends DataSetJob {
         nextJob = new NextJobInfo(DataReductionQCJob.class.getCanonicalName(),
           jobParams);
         nextJob.putTransferData(SENSOR_VALUES, rawSensorValues);
+        transferContext(nextJob);
       }
 
       conn.commit();
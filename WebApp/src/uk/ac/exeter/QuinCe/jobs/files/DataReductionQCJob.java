@@ -2,7 +2,9 @@ package uk.ac.exeter.QuinCe.jobs.files;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -125,6 +127,9 @@ public class DataReductionQCJob extends DataSetJob {
 
       FlaggedItems flaggedItems = new FlaggedItems();
 
+      // The QC state of each sensor value before its flags were cleared
+      Map<SensorValue, String> originalQC = new HashMap<SensorValue, String>();
+
       for (Variable var : instrument.getVariables()) {
 
         TreeMap<Measurement, ReadOnlyDataReductionRecord> variableRecords = makeVariableRecords(
@@ -149,7 +154,9 @@ public class DataReductionQCJob extends DataSetJob {
               for (Long column : columns) {
                 for (SensorValue value : allSensorValues.getColumnValues(column)
                   .getRawValues()) {
-                  if (value.removeAutoQCFlag(routine)) {
+                  if (value.hasAutoQCFlag(routine)) {
+                    originalQC.putIfAbsent(value, getQCState(value));
+                    value.removeAutoQCFlag(routine);
                     flaggedItems.add(value);
                   }
                 }
@@ -162,7 +169,23 @@ public class DataReductionQCJob extends DataSetJob {
         }
       }
 
-      DataSetDataDB.updateSensorValues(conn, flaggedItems.getSensorValues());
+      // Flags that were cleared and then set again do not need to be stored,
+      // and the values are no longer dirty
+      List<SensorValue> changedSensorValues = new ArrayList<SensorValue>();
+      List<SensorValue> unchangedSensorValues = new ArrayList<SensorValue>();
+
+      for (SensorValue value : flaggedItems.getSensorValues()) {
+        if (originalQC.containsKey(value)
+          && originalQC.get(value).equals(getQCState(value))) {
+          unchangedSensorValues.add(value);
+        } else {
+          changedSensorValues.add(value);
+        }
+      }
+
+      SensorValue.clearDirtyFlag(unchangedSensorValues);
+
+      DataSetDataDB.updateSensorValues(conn, changedSensorValues);
       DataSetDataDB.storeMeasurementValues(conn,
         flaggedItems.getMeasurements());
       DataSetDataDB.storeDataReductionQC(conn,
@@ -220,6 +243,19 @@ public class DataReductionQCJob extends DataSetJob {
     }
   }
 
+  /**
+   * Get a representation of the QC state of a {@link SensorValue}, so that it
+   * can be checked for changes.
+   *
+   * @param value
+   *          The sensor value.
+   * @return The QC state.
+   */
+  private static String getQCState(SensorValue value) {
+    return value.getAutoQcJson() + '\n' + value.getUserQCFlag().getValue()
+      + '\n' + value.getUserQCMessage();
+  }
+
   @Override
   public String getJobName() {
     return jobName;
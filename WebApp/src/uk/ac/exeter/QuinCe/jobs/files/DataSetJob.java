@@ -5,12 +5,11 @@ import java.util.Properties;
 
 import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
-import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
-import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
 import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
 import uk.ac.exeter.QuinCe.jobs.Job;
 import uk.ac.exeter.QuinCe.jobs.JobFailedException;
+import uk.ac.exeter.QuinCe.jobs.NextJobInfo;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.MissingParamException;
 import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
@@ -31,6 +30,11 @@ public abstract class DataSetJob extends Job {
 
   protected static final String MEASUREMENTS = "MEASUREMENTS";
 
+  /**
+   * Transfer data key for the {@link DataSetJobContext} shared between jobs.
+   */
+  protected static final String CONTEXT = "CONTEXT";
+
   /**
    * The parameter name for the {@link DataSet}'s database ID. All
    * {@link DataSetJob}s must contain a parameter with this ID in the properties
@@ -39,14 +43,9 @@ public abstract class DataSetJob extends Job {
   public static final String ID_PARAM = "id";
 
   /**
-   * The {@link DataSet} being processed.
+   * The details of the {@link DataSet} being processed.
    */
-  private DataSet dataSet = null;
-
-  /**
-   * The {@link #dataSet}'s parent {@link Instrument}.
-   */
-  private Instrument instrument = null;
+  private DataSetJobContext context = null;
 
   /**
    * Initialise the job object so it is ready to run.
@@ -91,24 +90,65 @@ public abstract class DataSetJob extends Job {
   }
 
   /**
-   * Retrieve the {@link DataSet} that this job is processing from the database.
+   * Get the {@link DataSetJobContext} for the {@link DataSet} being processed.
+   *
+   * <p>
+   * If the previous job in the processing chain passed on its context for the
+   * same {@link DataSet}, that context is used. Otherwise a new context is
+   * loaded from the database.
+   * </p>
    *
    * @param conn
    *          A database connection.
-   * @return The {@link DataSet}.
+   * @return The context.
    * @throws JobFailedException
-   *           If the {@link DataSet} cannot be retrieved.
+   *           If the context cannot be loaded.
    */
-  protected DataSet getDataset(Connection conn) throws JobFailedException {
-    if (null == dataSet) {
-      try {
-        dataSet = DataSetDB.getDataSet(conn, getDatsetId());
-      } catch (Exception e) {
-        throw new JobFailedException(id, "Error getting job dataset", e);
+  protected DataSetJobContext getContext(Connection conn)
+    throws JobFailedException {
+
+    if (null == context) {
+      Object transferred = getTransferData(CONTEXT);
+      if (transferred instanceof DataSetJobContext
+        && ((DataSetJobContext) transferred).getDataSet()
+          .getId() == getDatsetId()) {
+        context = (DataSetJobContext) transferred;
+      } else {
+        try {
+          context = new DataSetJobContext(conn, getDatsetId());
+        } catch (Exception e) {
+          throw new JobFailedException(id, "Error getting job dataset", e);
+        }
       }
     }
 
-    return dataSet;
+    return context;
+  }
+
+  /**
+   * Pass this job's {@link DataSetJobContext} to the next job in the
+   * processing chain.
+   *
+   * @param nextJob
+   *          The next job.
+   */
+  protected void transferContext(NextJobInfo nextJob) {
+    if (null != context) {
+      nextJob.putTransferData(CONTEXT, context);
+    }
+  }
+
+  /**
+   * Retrieve the {@link DataSet} that this job is processing.
+   *
+   * @param conn
+   *          A database connection.
+   * @return The {@link DataSet}.
+   * @throws JobFailedException
+   *           If the {@link DataSet} cannot be retrieved.
+   */
+  protected DataSet getDataset(Connection conn) throws JobFailedException {
+    return getContext(conn).getDataSet();
   }
 
   /**
@@ -123,17 +163,7 @@ public abstract class DataSetJob extends Job {
    */
   protected Instrument getInstrument(Connection conn)
     throws JobFailedException {
-
-    if (null == instrument) {
-      try {
-        instrument = InstrumentDB.getInstrument(conn,
-          getDataset(conn).getInstrumentId());
-      } catch (Exception e) {
-        throw new JobFailedException(id, "Error getting instrument", e);
-      }
-    }
-
-    return instrument;
+    return getContext(conn).getInstrument();
   }
 
   @Override
@@ -0,0 +1,183 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.InstrumentDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalculationCoefficientDB;
+import uk.ac.exeter.QuinCe.data.Instrument.Calibration.CalibrationSet;
+
+/**
+ * The details of a {@link DataSet} that are shared by the chain of
+ * {@link DataSetJob}s that process it.
+ *
+ * <p>
+ * Each job in the processing chain needs the {@link DataSet}, its
+ * {@link Instrument} and various calibration details. The context loads each
+ * of these once, and is passed to the next job in the chain with the
+ * {@link uk.ac.exeter.QuinCe.jobs.NextJobInfo} transfer data so they do not
+ * need to be loaded again. The time taken for each load is recorded.
+ * </p>
+ *
+ * <p>
+ * Jobs that are not started from another job in the chain create a new
+ * context.
+ * </p>
+ *
+ * @see DataSetJob#getContext(Connection)
+ */
+public class DataSetJobContext {
+
+  /**
+   * Load time key for the {@link DataSet}.
+   */
+  protected static final String DATASET_LOAD = "Dataset";
+
+  /**
+   * Load time key for the {@link Instrument}.
+   */
+  protected static final String INSTRUMENT_LOAD = "Instrument";
+
+  /**
+   * Load time key for the external standards.
+   */
+  protected static final String EXTERNAL_STANDARDS_LOAD = "External Standards";
+
+  /**
+   * Load time key for the calculation coefficients.
+   */
+  protected static final String CALCULATION_COEFFICIENTS_LOAD = "Calculation Coefficients";
+
+  /**
+   * The {@link DataSet} being processed.
+   */
+  private final DataSet dataSet;
+
+  /**
+   * The {@link #dataSet}'s parent {@link Instrument}.
+   */
+  private final Instrument instrument;
+
+  /**
+   * The calculation coefficients for the {@link #dataSet}.
+   */
+  private CalibrationSet calculationCoefficients = null;
+
+  /**
+   * The time taken to load each item, in milliseconds.
+   */
+  private final LinkedHashMap<String, Long> loadTimes = new LinkedHashMap<String, Long>();
+
+  /**
+   * Load the {@link DataSet} and {@link Instrument} for a new context.
+   *
+   * @param conn
+   *          A database connection.
+   * @param datasetId
+   *          The {@link DataSet}'s database ID.
+   * @throws Exception
+   *           If the details cannot be loaded.
+   */
+  protected DataSetJobContext(Connection conn, long datasetId)
+    throws Exception {
+
+    long start = System.currentTimeMillis();
+    dataSet = DataSetDB.getDataSet(conn, datasetId);
+    start = recordLoadTime(DATASET_LOAD, start);
+    instrument = InstrumentDB.getInstrument(conn, dataSet.getInstrumentId());
+    recordLoadTime(INSTRUMENT_LOAD, start);
+  }
+
+  /**
+   * Get the {@link DataSet} being processed.
+   *
+   * @return The {@link DataSet}.
+   */
+  public DataSet getDataSet() {
+    return dataSet;
+  }
+
+  /**
+   * Get the parent {@link Instrument} of the {@link DataSet}.
+   *
+   * @return The {@link Instrument}.
+   */
+  public Instrument getInstrument() {
+    return instrument;
+  }
+
+  /**
+   * Get the external standards for the {@link DataSet}.
+   *
+   * @param conn
+   *          A database connection.
+   * @return The external standards.
+   * @throws Exception
+   *           If the standards cannot be retrieved.
+   * @see DataSet#getExternalStandards(Connection)
+   */
+  public CalibrationSet getExternalStandards(Connection conn)
+    throws Exception {
+
+    long start = System.currentTimeMillis();
+    boolean loaded = !loadTimes.containsKey(EXTERNAL_STANDARDS_LOAD);
+    CalibrationSet result = dataSet.getExternalStandards(conn);
+    if (loaded) {
+      recordLoadTime(EXTERNAL_STANDARDS_LOAD, start);
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the calculation coefficients for the {@link DataSet}.
+   *
+   * @param conn
+   *          A database connection.
+   * @return The calculation coefficients.
+   * @throws Exception
+   *           If the coefficients cannot be retrieved.
+   */
+  public CalibrationSet getCalculationCoefficients(Connection conn)
+    throws Exception {
+
+    if (null == calculationCoefficients) {
+      long start = System.currentTimeMillis();
+      calculationCoefficients = CalculationCoefficientDB.getInstance()
+        .getCalibrationSet(conn, dataSet);
+      recordLoadTime(CALCULATION_COEFFICIENTS_LOAD, start);
+    }
+
+    return calculationCoefficients;
+  }
+
+  /**
+   * Get the time taken to load each item in the context, in the order they
+   * were loaded.
+   *
+   * @return The load times in milliseconds.
+   */
+  public Map<String, Long> getLoadTimes() {
+    return Collections.unmodifiableMap(loadTimes);
+  }
+
+  /**
+   * Record the time taken to load an item.
+   *
+   * @param item
+   *          The item.
+   * @param start
+   *          The time that the load started.
+   * @return The current time, for use as the start of the next load.
+   */
+  private long recordLoadTime(String item, long start) {
+    long now = System.currentTimeMillis();
+    loadTimes.put(item, now - start);
+    return now;
+  }
+}
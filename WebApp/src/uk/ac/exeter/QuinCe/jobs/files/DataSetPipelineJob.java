@@ -0,0 +1,129 @@
+package uk.ac.exeter.QuinCe.jobs.files;
+
+import java.util.Properties;
+
+import uk.ac.exeter.QuinCe.User.User;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobClassTypeException;
+import uk.ac.exeter.QuinCe.jobs.InvalidJobParametersException;
+import uk.ac.exeter.QuinCe.jobs.Job;
+import uk.ac.exeter.QuinCe.jobs.JobFailedException;
+import uk.ac.exeter.QuinCe.jobs.JobThread;
+import uk.ac.exeter.QuinCe.jobs.NextJobInfo;
+import uk.ac.exeter.QuinCe.utils.DatabaseException;
+import uk.ac.exeter.QuinCe.utils.MissingParamException;
+import uk.ac.exeter.QuinCe.utils.RecordNotFoundException;
+import uk.ac.exeter.QuinCe.web.system.ResourceManager;
+
+/**
+ * Job to run the complete processing chain for a data set as a single job.
+ *
+ * <p>
+ * Normally each stage of processing ({@link ExtractDataSetJob},
+ * {@link AutoQCJob}, {@link LocateMeasurementsJob}, {@link DataReductionJob}
+ * and {@link DataReductionQCJob}) is created as a separate job when the
+ * previous stage finishes. This job runs each stage in turn under its own job
+ * ID using {@link Job#runStage(NextJobInfo, JobThread)}, passing the data
+ * from each stage to the next in memory. This avoids creating and loading a
+ * job record for each stage, which is worthwhile for small data sets such as
+ * NRT data sets that are processed frequently.
+ * </p>
+ *
+ * <p>
+ * Each stage still stores its results and updates the data set status as it
+ * finishes, so progress is reported in the same way as for separate jobs.
+ * </p>
+ *
+ * @see CreateNrtDataset
+ */
+public class DataSetPipelineJob extends DataSetJob {
+
+  /**
+   * Application configuration property that enables this job for NRT data
+   * sets.
+   */
+  public static final String NRT_PIPELINE_PROPERTY = "nrt_pipeline";
+
+  /**
+   * Name of the job, used for reporting
+   */
+  private final String jobName = "Dataset Processing";
+
+  /**
+   * Initialise the job object so it is ready to run
+   *
+   * @param resourceManager
+   *          The system resource manager
+   * @param config
+   *          The application configuration
+   * @param jobId
+   *          The id of the job in the database
+   * @param owner
+   *          The job's owner
+   * @param properties
+   *          The job properties, containing the data set ID
+   * @throws InvalidJobParametersException
+   *           If the parameters are not valid for the job
+   * @throws MissingParamException
+   *           If any of the parameters are invalid
+   * @throws RecordNotFoundException
+   *           If the job record cannot be found in the database
+   * @throws DatabaseException
+   *           If a database error occurs
+   */
+  public DataSetPipelineJob(ResourceManager resourceManager,
+    Properties config, long jobId, User owner, Properties properties)
+    throws MissingParamException, InvalidJobParametersException,
+    DatabaseException, RecordNotFoundException {
+    super(resourceManager, config, jobId, owner, properties);
+  }
+
+  @Override
+  protected NextJobInfo execute(JobThread thread) throws JobFailedException {
+
+    NextJobInfo stage;
+
+    try {
+      stage = getFirstStage();
+    } catch (InvalidJobClassTypeException e) {
+      throw new JobFailedException(id, e);
+    }
+
+    while (null != stage && !thread.isInterrupted()
+      && getFinishState().equals(FINISHED_STATUS)) {
+      stage = runStage(stage, thread);
+    }
+
+    return null;
+  }
+
+  /**
+   * Get the details of the first stage of the pipeline. Each stage provides the
+   * details of the stage that follows it.
+   *
+   * @return The first stage.
+   * @throws InvalidJobClassTypeException
+   *           If the stage's job class is invalid.
+   */
+  protected NextJobInfo getFirstStage() throws InvalidJobClassTypeException {
+    return new NextJobInfo(ExtractDataSetJob.class.getCanonicalName(),
+      properties);
+  }
+
+  @Override
+  public String getJobName() {
+    return jobName;
+  }
+
+  /**
+   * Determine whether NRT data sets should be processed with this job instead
+   * of the separate processing jobs.
+   *
+   * @param config
+   *          The application configuration.
+   * @return {@code true} if this job should be used for NRT data sets.
+   */
+  public static boolean useForNrt(Properties config) {
+    return Boolean
+      .parseBoolean(config.getProperty(NRT_PIPELINE_PROPERTY, "false"));
+  }
+}
@@ -123,6 +123,7 @@ public class ExtractDataSetJob extends DataSetJob {
       NextJobInfo nextJob = new NextJobInfo(AutoQCJob.class.getCanonicalName(),
         jobProperties);
       nextJob.putTransferData(SENSOR_VALUES, sensorValues.toSet());
+      transferContext(nextJob);
       return nextJob;
     } catch (Exception e) {
       ExceptionUtils.printStackTrace(e);
@@ -139,6 +139,7 @@ public class LocateMeasurementsJob extends DataSetJob {
       NextJobInfo nextJob = new NextJobInfo(
         DataReductionJob.class.getCanonicalName(), jobProperties);
       nextJob.putTransferData(SENSOR_VALUES, rawSensorValues);
+      transferContext(nextJob);
       return nextJob;
     } catch (Exception e) {
       ExceptionUtils.printStackTrace(e);
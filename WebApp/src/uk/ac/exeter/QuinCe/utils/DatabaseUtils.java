@@ -27,6 +27,11 @@ public class DatabaseUtils {
    */
   public static final String IN_PARAMS_TOKEN = "%%IN_PARAMS%%";
 
+  /**
+   * The product name reported by MySQL database connections.
+   */
+  private static final String MYSQL_PRODUCT_NAME = "MySQL";
+
   /**
    * Close a set of {@link java.sql.ResultSet} objects, ignoring any errors
    *
@@ -234,4 +239,40 @@ public class DatabaseUtils {
 
     return result;
   }
+
+  /**
+   * Prepare a statement whose results will be streamed from the database one
+   * row at a time, instead of the whole result set being loaded into memory
+   * when the query is executed.
+   *
+   * <p>
+   * This should be used for queries that can return very large numbers of
+   * rows. The MySQL driver does not allow any other statements to be run on
+   * the connection until the streamed {@link ResultSet} has been fully read or
+   * closed, so the caller must not use the connection while processing the
+   * results. Other databases (such as the one used for tests) are given a
+   * normal statement.
+   * </p>
+   *
+   * @param conn
+   *          A database connection.
+   * @param sql
+   *          The SQL statement.
+   * @return The prepared statement.
+   * @throws SQLException
+   *           If the statement cannot be prepared.
+   */
+  public static PreparedStatement prepareStreamingStatement(Connection conn,
+    String sql) throws SQLException {
+
+    PreparedStatement stmt = conn.prepareStatement(sql,
+      ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+
+    if (MYSQL_PRODUCT_NAME
+      .equals(conn.getMetaData().getDatabaseProductName())) {
+      stmt.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    return stmt;
+  }
 }
@@ -0,0 +1,83 @@
+package uk.ac.exeter.QuinCe.utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a single canonical instance of equal immutable objects, so that large
+ * numbers of repeated values (such as QC messages) can share one object.
+ *
+ * <p>
+ * The number of stored instances is limited. Once the limit is reached, new
+ * values are returned as they are and not stored, so rarely repeated values
+ * cannot fill up memory.
+ * </p>
+ *
+ * <p>
+ * Instances are thread safe.
+ * </p>
+ *
+ * @param <T>
+ *          The type of object being interned.
+ */
+public class Interner<T> {
+
+  /**
+   * The maximum number of stored instances.
+   */
+  private final int maxSize;
+
+  /**
+   * The stored instances.
+   */
+  private final Map<T, T> instances;
+
+  /**
+   * Create an interner that will store up to the specified number of
+   * instances.
+   *
+   * @param maxSize
+   *          The maximum number of instances.
+   */
+  public Interner(int maxSize) {
+    this.maxSize = maxSize;
+    this.instances = new ConcurrentHashMap<T, T>();
+  }
+
+  /**
+   * Get the canonical instance of a value. If there is no stored instance
+   * equal to the value, the value itself is stored (if there is space) and
+   * returned.
+   *
+   * @param value
+   *          The value.
+   * @return The canonical instance, or {@code null} if the value is
+   *         {@code null}.
+   */
+  public T get(T value) {
+    T result = value;
+
+    if (null != value) {
+      T existing = instances.get(value);
+      if (null != existing) {
+        result = existing;
+      } else if (instances.size() < maxSize) {
+        existing = instances.putIfAbsent(value, value);
+        if (null != existing) {
+          result = existing;
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Get the number of stored instances.
+   *
+   * @return The number of instances.
+   */
+  public int size() {
+    return instances.size();
+  }
+}
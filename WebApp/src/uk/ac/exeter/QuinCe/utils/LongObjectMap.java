@@ -0,0 +1,525 @@
+package uk.ac.exeter.QuinCe.utils;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link java.util.Map} with {@code long} keys that stores the keys as
+ * primitives.
+ *
+ * <p>
+ * Large lookups keyed by database ID (such as sensor values by ID) are
+ * expensive as a {@link java.util.HashMap}, which needs a boxed {@link Long}
+ * and an entry object for every value. This map keeps the keys in a
+ * {@code long[]} and the values in a parallel array using open addressing, so
+ * each entry costs little more than the key and value references.
+ * </p>
+ *
+ * <p>
+ * The {@code get}, {@code put}, {@code containsKey} and {@code remove} methods
+ * that take a primitive {@code long} do not box the key. The standard
+ * {@link java.util.Map} methods also work, so the class can be used anywhere a
+ * {@code Map<Long, V>} is expected. Iteration order is not defined. The
+ * iterators of the collection views do not support {@code remove}.
+ * </p>
+ *
+ * <p>
+ * Instances are not thread safe.
+ * </p>
+ *
+ * @param <V>
+ *          The value type.
+ */
+public class LongObjectMap<V> extends AbstractMap<Long, V> {
+
+  /**
+   * The key value that marks an empty slot. Entries with this key are stored
+   * separately.
+   */
+  private static final long FREE_KEY = 0L;
+
+  /**
+   * The proportion of slots that can be used before the map is resized.
+   */
+  private static final double LOAD_FACTOR = 0.6D;
+
+  /**
+   * The smallest number of slots.
+   */
+  private static final int MIN_CAPACITY = 8;
+
+  /**
+   * The keys.
+   */
+  private long[] keys;
+
+  /**
+   * The values, in the same slots as their keys.
+   */
+  private Object[] values;
+
+  /**
+   * The number of entries in the {@link #keys} and {@link #values} arrays.
+   */
+  private int slotsUsed = 0;
+
+  /**
+   * The number of entries that can be stored before the map is resized.
+   */
+  private int resizeAt;
+
+  /**
+   * Indicates whether the map contains the key {@link #FREE_KEY}.
+   */
+  private boolean hasFreeKey = false;
+
+  /**
+   * The value for the key {@link #FREE_KEY}.
+   */
+  private V freeKeyValue = null;
+
+  /**
+   * Count of structural modifications, used to detect changes during
+   * iteration.
+   */
+  private int modCount = 0;
+
+  /**
+   * Create an empty map.
+   */
+  public LongObjectMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * Create an empty map that can hold the specified number of entries without
+   * resizing.
+   *
+   * @param expectedSize
+   *          The expected number of entries.
+   */
+  public LongObjectMap(int expectedSize) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < (1 << 30) && capacity * LOAD_FACTOR < expectedSize) {
+      capacity <<= 1;
+    }
+
+    allocate(capacity);
+  }
+
+  /**
+   * Get the value for a key.
+   *
+   * @param key
+   *          The key.
+   * @return The value, or {@code null} if the key is not in the map.
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    V result = null;
+
+    if (key == FREE_KEY) {
+      result = freeKeyValue;
+    } else {
+      int index = indexOf(key);
+      if (index >= 0) {
+        result = (V) values[index];
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Determine whether the map contains a key.
+   *
+   * @param key
+   *          The key.
+   * @return {@code true} if the key is in the map; {@code false} otherwise.
+   */
+  public boolean containsKey(long key) {
+    return key == FREE_KEY ? hasFreeKey : indexOf(key) >= 0;
+  }
+
+  /**
+   * Add a value to the map, replacing any existing value for the key.
+   *
+   * @param key
+   *          The key.
+   * @param value
+   *          The value.
+   * @return The previous value for the key, or {@code null} if there was none.
+   */
+  @SuppressWarnings("unchecked")
+  public V put(long key, V value) {
+    V result = null;
+
+    if (key == FREE_KEY) {
+      result = freeKeyValue;
+      if (!hasFreeKey) {
+        hasFreeKey = true;
+        modCount++;
+      }
+      freeKeyValue = value;
+    } else {
+      int index = slot(key);
+      while (keys[index] != FREE_KEY && keys[index] != key) {
+        index = next(index);
+      }
+
+      if (keys[index] == key) {
+        result = (V) values[index];
+        values[index] = value;
+      } else {
+        keys[index] = key;
+        values[index] = value;
+        slotsUsed++;
+        modCount++;
+
+        if (slotsUsed > resizeAt) {
+          rehash(keys.length << 1);
+        }
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Remove a key from the map.
+   *
+   * @param key
+   *          The key.
+   * @return The value for the key, or {@code null} if the key was not in the
+   *         map.
+   */
+  @SuppressWarnings("unchecked")
+  public V remove(long key) {
+    V result = null;
+
+    if (key == FREE_KEY) {
+      if (hasFreeKey) {
+        result = freeKeyValue;
+        hasFreeKey = false;
+        freeKeyValue = null;
+        modCount++;
+      }
+    } else {
+      int index = indexOf(key);
+      if (index >= 0) {
+        result = (V) values[index];
+        removeSlot(index);
+      }
+    }
+
+    return result;
+  }
+
+  @Override
+  public V get(Object key) {
+    return key instanceof Long ? get(((Long) key).longValue()) : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return key instanceof Long && containsKey(((Long) key).longValue());
+  }
+
+  @Override
+  public V put(Long key, V value) {
+    return put(key.longValue(), value);
+  }
+
+  @Override
+  public V remove(Object key) {
+    return key instanceof Long ? remove(((Long) key).longValue()) : null;
+  }
+
+  @Override
+  public int size() {
+    return hasFreeKey ? slotsUsed + 1 : slotsUsed;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  @Override
+  public void clear() {
+    allocate(MIN_CAPACITY);
+    slotsUsed = 0;
+    hasFreeKey = false;
+    freeKeyValue = null;
+    modCount++;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void forEach(BiConsumer<? super Long, ? super V> action) {
+    if (hasFreeKey) {
+      action.accept(FREE_KEY, freeKeyValue);
+    }
+
+    for (int i = 0; i < keys.length; i++) {
+      if (keys[i] != FREE_KEY) {
+        action.accept(keys[i], (V) values[i]);
+      }
+    }
+  }
+
+  @Override
+  public Set<Entry<Long, V>> entrySet() {
+    return new AbstractSet<Entry<Long, V>>() {
+      @Override
+      public Iterator<Entry<Long, V>> iterator() {
+        return new SlotIterator<Entry<Long, V>>() {
+          @Override
+          protected Entry<Long, V> get(int slot) {
+            return new SimpleImmutableEntry<Long, V>(slotKey(slot),
+              slotValue(slot));
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return LongObjectMap.this.size();
+      }
+    };
+  }
+
+  @Override
+  public Collection<V> values() {
+    return new AbstractCollection<V>() {
+      @Override
+      public Iterator<V> iterator() {
+        return new SlotIterator<V>() {
+          @Override
+          protected V get(int slot) {
+            return slotValue(slot);
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return LongObjectMap.this.size();
+      }
+    };
+  }
+
+  /**
+   * Get the key for a slot position used by {@link SlotIterator}. Position
+   * {@code -1} is the {@link #FREE_KEY} entry.
+   *
+   * @param slot
+   *          The slot position.
+   * @return The key.
+   */
+  private long slotKey(int slot) {
+    return slot < 0 ? FREE_KEY : keys[slot];
+  }
+
+  /**
+   * Get the value for a slot position used by {@link SlotIterator}. Position
+   * {@code -1} is the {@link #FREE_KEY} entry.
+   *
+   * @param slot
+   *          The slot position.
+   * @return The value.
+   */
+  @SuppressWarnings("unchecked")
+  private V slotValue(int slot) {
+    return slot < 0 ? freeKeyValue : (V) values[slot];
+  }
+
+  /**
+   * Find the slot containing a key.
+   *
+   * @param key
+   *          The key. Must not be {@link #FREE_KEY}.
+   * @return The slot, or {@code -1} if the key is not in the map.
+   */
+  private int indexOf(long key) {
+    int result = -1;
+
+    int index = slot(key);
+    while (result < 0 && keys[index] != FREE_KEY) {
+      if (keys[index] == key) {
+        result = index;
+      } else {
+        index = next(index);
+      }
+    }
+
+    return result;
+  }
+
+  /**
+   * Empty a slot, moving any following entries back so that they can still be
+   * found.
+   *
+   * @param index
+   *          The slot.
+   */
+  private void removeSlot(int index) {
+    int gap = index;
+    int current = next(index);
+
+    while (keys[current] != FREE_KEY) {
+      int ideal = slot(keys[current]);
+
+      // Move the entry into the gap if the gap lies between the entry's ideal
+      // slot and its current slot
+      int mask = keys.length - 1;
+      if (((current - ideal) & mask) >= ((current - gap) & mask)) {
+        keys[gap] = keys[current];
+        values[gap] = values[current];
+        gap = current;
+      }
+
+      current = next(current);
+    }
+
+    keys[gap] = FREE_KEY;
+    values[gap] = null;
+    slotsUsed--;
+    modCount++;
+  }
+
+  /**
+   * Get the ideal slot for a key.
+   *
+   * @param key
+   *          The key.
+   * @return The slot.
+   */
+  private int slot(long key) {
+    long hash = key * 0x9E3779B97F4A7C15L;
+    return ((int) (hash >>> 32) ^ (int) hash) & (keys.length - 1);
+  }
+
+  /**
+   * Get the slot after the specified slot, wrapping at the end of the arrays.
+   *
+   * @param index
+   *          The slot.
+   * @return The next slot.
+   */
+  private int next(int index) {
+    return (index + 1) & (keys.length - 1);
+  }
+
+  /**
+   * Create empty key and value arrays.
+   *
+   * @param capacity
+   *          The number of slots. Must be a power of 2.
+   */
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    resizeAt = Math.min(capacity - 1, (int) (capacity * LOAD_FACTOR));
+  }
+
+  /**
+   * Move all entries into new arrays of the specified size.
+   *
+   * @param capacity
+   *          The new number of slots. Must be a power of 2.
+   */
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+
+    allocate(capacity);
+
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != FREE_KEY) {
+        int index = slot(oldKeys[i]);
+        while (keys[index] != FREE_KEY) {
+          index = next(index);
+        }
+        keys[index] = oldKeys[i];
+        values[index] = oldValues[i];
+      }
+    }
+  }
+
+  /**
+   * Iterator over the occupied slots of the map, starting with the
+   * {@link #FREE_KEY} entry if there is one.
+   *
+   * @param <T>
+   *          The type returned for each slot.
+   */
+  private abstract class SlotIterator<T> implements Iterator<T> {
+
+    /**
+     * The next slot to return. {@code -1} is the {@link #FREE_KEY} entry.
+     */
+    private int nextSlot;
+
+    /**
+     * The {@link LongObjectMap#modCount} when the iterator was created.
+     */
+    private final int expectedModCount = modCount;
+
+    private SlotIterator() {
+      nextSlot = hasFreeKey ? -1 : findSlot(0);
+    }
+
+    @Override
+    public boolean hasNext() {
+      return nextSlot < keys.length;
+    }
+
+    @Override
+    public T next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+
+      T result = get(nextSlot);
+      nextSlot = findSlot(nextSlot + 1);
+      return result;
+    }
+
+    /**
+     * Find the first occupied slot at or after the specified position.
+     *
+     * @param from
+     *          The position to start searching.
+     * @return The slot, or the length of the slot arrays if there are no more
+     *         occupied slots.
+     */
+    private int findSlot(int from) {
+      int slot = from;
+      while (slot < keys.length && keys[slot] == FREE_KEY) {
+        slot++;
+      }
+      return slot;
+    }
+
+    /**
+     * Get the object to return for a slot.
+     *
+     * @param slot
+     *          The slot position.
+     * @return The object.
+     */
+    protected abstract T get(int slot);
+  }
+}
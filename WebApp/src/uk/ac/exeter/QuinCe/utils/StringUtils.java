@@ -769,7 +769,7 @@ public final class StringUtils extends org.apache.commons.lang3.StringUtils {
    */
   public static void removeBlankTailLines(List<String> list) {
     boolean blankLine = true;
-    while (blankLine) {
+    while (blankLine && list.size() > 0) {
       String lastLine = list.get(list.size() - 1);
       if (null == lastLine || lastLine.trim().length() == 0) {
         list.remove(list.size() - 1);
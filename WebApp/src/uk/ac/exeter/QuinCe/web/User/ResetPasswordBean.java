@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import javax.faces.bean.ManagedBean;
 import javax.faces.bean.ViewScoped;
 
+import uk.ac.exeter.QuinCe.User.CredentialCache;
 import uk.ac.exeter.QuinCe.User.UserDB;
 import uk.ac.exeter.QuinCe.utils.DatabaseException;
 import uk.ac.exeter.QuinCe.utils.DatabaseUtils;
@@ -152,6 +153,10 @@ public class ResetPasswordBean extends BaseManagedBean {
           password1.toCharArray());
         UserDB.clearPasswordResetCode(conn, email);
         conn.commit();
+
+        // The old password must not be usable from the cache once the new one
+        // is committed
+        CredentialCache.invalidate(email);
       } catch (SQLException e) {
         ExceptionUtils.printStackTrace(e);
         DatabaseUtils.rollBack(conn);
@@ -24,6 +24,7 @@ import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.data.Dataset.ArgoDataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSet;
 import uk.ac.exeter.QuinCe.data.Dataset.DataSetDB;
+import uk.ac.exeter.QuinCe.data.Dataset.DataSetSummary;
 import uk.ac.exeter.QuinCe.data.Dataset.TimeDataSet;
 import uk.ac.exeter.QuinCe.data.Files.DataFile;
 import uk.ac.exeter.QuinCe.data.Files.DataFileDB;
@@ -73,9 +74,9 @@ public class DataSetsBean extends BaseManagedBean {
   public static final int DELETE_EXPORTED_ALLOWED = 1;
 
   /**
-   * The data sets for the current instrument
+   * Summaries of the data sets for the current instrument
    */
-  private LinkedHashMap<Long, DataSet> dataSets;
+  private LinkedHashMap<Long, DataSetSummary> dataSets;
 
   private LinkedHashMap<Long, DataSet> approvalDatasets;
 
@@ -227,21 +228,22 @@ public class DataSetsBean extends BaseManagedBean {
   }
 
   /**
-   * Get the {@link DataSet}s for the current instrument.
+   * Get summaries of the {@link DataSet}s for the current instrument.
    *
    * <p>
    * The list is presented in reverse order, i.e. with the newest
    * {@link DataSet} first.
    * </p>
    *
-   * @return The {@link DataSet}s
+   * @return The {@link DataSet} summaries
    */
-  public List<DataSet> getDataSets() {
+  public List<DataSetSummary> getDataSets() {
 
-    List<DataSet> result = null;
+    List<DataSetSummary> result = null;
 
     if (null != dataSets) {
-      result = new ArrayList<DataSet>(dataSets.values().stream().toList());
+      result = new ArrayList<DataSetSummary>(
+        dataSets.values().stream().toList());
       Collections.reverse(result);
     }
 
@@ -267,7 +269,7 @@ public class DataSetsBean extends BaseManagedBean {
   private void loadDataSets() throws MissingParamException, DatabaseException,
     RecordNotFoundException, InstrumentException, ResourceException {
     if (null != getCurrentInstrument()) {
-      dataSets = DataSetDB.getDataSets(getDataSource(),
+      dataSets = DataSetDB.getDataSetSummaries(getDataSource(),
         getCurrentInstrument().getId(), true);
       hasFiles = DataFileDB.getFileCount(getDataSource(),
         getCurrentInstrument().getId()) > 0;
@@ -383,7 +385,7 @@ public class DataSetsBean extends BaseManagedBean {
         entriesJson.add(entry);
       }
 
-      for (DataSet dataSet : dataSets.values()) {
+      for (DataSetSummary dataSet : dataSets.values()) {
         JsonObject entry = new JsonObject();
 
         entry.addProperty("type", "background");
@@ -474,7 +476,7 @@ public class DataSetsBean extends BaseManagedBean {
     json.append('[');
 
     int count = -1;
-    for (DataSet dataSet : dataSets.values()) {
+    for (DataSetSummary dataSet : dataSets.values()) {
       count++;
       json.append('"');
       json.append(dataSet.getName());
@@ -692,7 +694,7 @@ public class DataSetsBean extends BaseManagedBean {
     String result = null;
 
     if (null != dataSets) {
-      for (DataSet dataSet : dataSets.values()) {
+      for (DataSetSummary dataSet : dataSets.values()) {
         if (dataSet.getId() == processingMessagesId) {
           result = dataSet.getProcessingMessages().getDisplayString();
           break;
@@ -741,7 +743,7 @@ public class DataSetsBean extends BaseManagedBean {
   public int canExport(long datasetId) {
     int result = DELETE_NOT_ALLOWED;
 
-    DataSet dataset = dataSets.get(datasetId);
+    DataSetSummary dataset = dataSets.get(datasetId);
 
     if (!dataset.isNrt()) {
       if (!dataset.hasBeenExported()) {
@@ -765,8 +767,8 @@ public class DataSetsBean extends BaseManagedBean {
   public void delete() {
     try {
       if (canExport(datasetId) != DELETE_NOT_ALLOWED) {
-        dataSets.get(datasetId).setStatus(DataSet.STATUS_DELETE);
-        DataSetDB.updateDataSet(getDataSource(), dataSets.get(datasetId));
+        DataSetDB.setDatasetStatus(getDataSource(), datasetId,
+          DataSet.STATUS_DELETE);
       }
     } catch (Exception e) {
       ExceptionUtils.printStackTrace(e);
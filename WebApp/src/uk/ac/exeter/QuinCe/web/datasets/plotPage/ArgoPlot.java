@@ -176,6 +176,8 @@ public class ArgoPlot extends Plot {
         }
 
         if (null != plotValue) {
+          // Flags are taken from the X values - see above
+          plotValue.setFlagSources(x, null);
           plotValues.add(plotValue);
         }
       }
@@ -5,6 +5,7 @@ import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -159,6 +160,32 @@ public class ManualQCData extends PlotPageData {
    */
   private PlotPageTableValue fixedDepthValue = null;
 
+  /**
+   * The table records for each row, in the same order as {@link #rowIDs}.
+   *
+   * <p>
+   * Records are built the first time they are requested by
+   * {@link #generateTableDataRecords(int, int)} and kept for the rest of the
+   * session, so returning to a page does not require all the lookups to be
+   * repeated. Columns backed by {@link SensorValue}s read their flags directly,
+   * but derived columns (such as interpolated positions) are fixed when the
+   * record is built; entries are therefore cleared by
+   * {@link #updatePlots(Collection)} when their values' flags change.
+   * </p>
+   */
+  private PlotPageTableRecord[] tableRecords = null;
+
+  /**
+   * Lookup table for the position of each row ID in {@link #rowIDs}.
+   */
+  private HashMap<Long, Integer> rowIndices = null;
+
+  /**
+   * The interpolated positions for each row, in the same order as
+   * {@link #rowIDs}. Created when first needed.
+   */
+  private PositionTrack positionTrack = null;
+
   /**
    * Construct the data object.
    *
@@ -221,6 +248,13 @@ public class ManualQCData extends PlotPageData {
       coordinates = new LinkedHashMap<Long, Coordinate>();
       sensorValues.getCoordinates().forEach(v -> coordinates.put(v.getId(), v));
       rowIDs = new ArrayList<Long>(coordinates.keySet());
+
+      tableRecords = new PlotPageTableRecord[rowIDs.size()];
+      positionTrack = null;
+      rowIndices = new HashMap<Long, Integer>(rowIDs.size());
+      for (int i = 0; i < rowIDs.size(); i++) {
+        rowIndices.put(rowIDs.get(i), i);
+      }
     }
   }
 
@@ -439,99 +473,152 @@ public class ManualQCData extends PlotPageData {
       }
 
       for (int i = start; i < lastRecord; i++) {
-        PlotPageTableRecord record = new PlotPageTableRecord(coordinates.get(i),
-          sensorValues.getFlagScheme());
+        if (null == tableRecords[i]) {
+          tableRecords[i] = buildTableRecord(coordinates.get(i));
+        }
 
-        // Get the closest measurement
-        Measurement concurrentMeasurement = getConcurrentMeasurement(
-          coordinates.get(i));
+        records.add(tableRecords[i]);
+      }
+    } catch (Exception e) {
+      error("Error loading table data", e);
+    }
 
-        record.addCoordinate(coordinates.get(i));
+    return records;
+  }
 
-        Map<Long, SensorValue> recordSensorValues = sensorValues
-          .get(coordinates.get(i));
+  /**
+   * Build the table record for the specified {@link Coordinate}.
+   *
+   * @param coordinate
+   *          The coordinate.
+   * @return The table record.
+   * @throws Exception
+   *           If the record cannot be built.
+   */
+  private PlotPageTableRecord buildTableRecord(Coordinate coordinate)
+    throws Exception {
 
-        if (!dataset.fixedPosition()) {
+    PlotPageTableRecord record = new PlotPageTableRecord(coordinate,
+      sensorValues.getFlagScheme());
 
-          DataLatLng position = getMapPosition(coordinates.get(i));
+    // Get the closest measurement
+    Measurement concurrentMeasurement = getConcurrentMeasurement(coordinate);
 
-          if (null != position) {
-            StringBuilder positionString = new StringBuilder();
-            positionString
-              .append(StringUtils.formatNumber(position.getLongitude()));
-            positionString.append(" | ");
-            positionString
-              .append(StringUtils.formatNumber(position.getLatitude()));
+    record.addCoordinate(coordinate);
 
-            record.addColumn(positionString.toString(),
-              position.getFlag(getAllSensorValues()),
-              position.getQcMessage(sensorValues), position.getFlagNeeded(),
-              position.getType(), position.getSourceIds());
-          } else {
-            // Empty position column
-            record.addColumn("", sensorValues.getFlagScheme().getGoodFlag(),
-              null, false, PlotPageTableValue.NAN_TYPE, null);
-          }
-        }
+    Map<Long, SensorValue> recordSensorValues = sensorValues.get(coordinate);
 
-        if (!dataset.fixedDepth()) {
-          record.addColumn(getInterpolatedDepthValue(coordinates.get(i)));
-        }
+    if (!dataset.fixedPosition()) {
 
-        for (long columnId : sensorColumnIds) {
+      DataLatLng position = getMapPosition(coordinate);
 
-          // If the sensor type has internal calibrations, AND we're in a run
-          // type for the internal calibrations, don't include it.
-          SensorType sensorType = instrument.getSensorAssignments()
-            .getSensorTypeForDBColumn(columnId);
+      if (null != position) {
+        StringBuilder positionString = new StringBuilder();
+        positionString
+          .append(StringUtils.formatNumber(position.getLongitude()));
+        positionString.append(" | ");
+        positionString
+          .append(StringUtils.formatNumber(position.getLatitude()));
 
-          boolean useValue = true;
+        record.addColumn(positionString.toString(),
+          position.getFlag(getAllSensorValues()),
+          position.getQcMessage(sensorValues), position.getFlagNeeded(),
+          position.getType(), position.getSourceIds());
+      } else {
+        // Empty position column
+        record.addColumn("", sensorValues.getFlagScheme().getGoodFlag(),
+          null, false, PlotPageTableValue.NAN_TYPE, null);
+      }
+    }
 
-          if (null == concurrentMeasurement) {
-            if (isCoreSensorType(sensorType)) {
-              useValue = false;
-            }
-          } else {
-            if (!isMeasurementForAnyVariable(concurrentMeasurement)
-              && (isCoreSensorType(sensorType)
-                || sensorType.hasInternalCalibration())) {
-              useValue = false;
-            }
-          }
+    if (!dataset.fixedDepth()) {
+      record.addColumn(getInterpolatedDepthValue(coordinate));
+    }
 
-          if (useValue) {
-            record.addColumn(recordSensorValues.get(columnId));
-          } else {
-            record.addBlankColumn(PlotPageTableValue.MEASURED_TYPE);
-          }
-        }
+    for (long columnId : sensorColumnIds) {
+
+      // If the sensor type has internal calibrations, AND we're in a run
+      // type for the internal calibrations, don't include it.
+      SensorType sensorType = instrument.getSensorAssignments()
+        .getSensorTypeForDBColumn(columnId);
 
-        addDiagnosticColumns(record, recordSensorValues);
+      boolean useValue = true;
 
-        Long measurementId = null;
-        Measurement measurement = measurements.get(coordinates.get(i));
-        if (null != measurement) {
-          measurementId = measurement.getId();
+      if (null == concurrentMeasurement) {
+        if (isCoreSensorType(sensorType)) {
+          useValue = false;
         }
+      } else {
+        if (!isMeasurementForAnyVariable(concurrentMeasurement)
+          && (isCoreSensorType(sensorType)
+            || sensorType.hasInternalCalibration())) {
+          useValue = false;
+        }
+      }
 
-        addMeasurementColumns(record, measurement);
+      if (useValue) {
+        record.addColumn(recordSensorValues.get(columnId));
+      } else {
+        record.addBlankColumn(PlotPageTableValue.MEASURED_TYPE);
+      }
+    }
 
-        Map<Variable, ReadOnlyDataReductionRecord> dataReductionData = null;
+    addDiagnosticColumns(record, recordSensorValues);
 
-        if (null != measurementId) {
-          // Retrieve the data reduction data
-          dataReductionData = dataReduction.get(measurementId);
-        }
+    Long measurementId = null;
+    Measurement measurement = measurements.get(coordinate);
+    if (null != measurement) {
+      measurementId = measurement.getId();
+    }
+
+    addMeasurementColumns(record, measurement);
+
+    Map<Variable, ReadOnlyDataReductionRecord> dataReductionData = null;
+
+    if (null != measurementId) {
+      // Retrieve the data reduction data
+      dataReductionData = dataReduction.get(measurementId);
+    }
 
-        addDataReductionColumns(record, dataReductionData);
+    addDataReductionColumns(record, dataReductionData);
 
-        records.add(record);
+    return record;
+  }
+
+  /**
+   * Clear the cached table records affected by a change to the specified
+   * {@link SensorValue}s' flags.
+   *
+   * <p>
+   * Position flags feed into the interpolated position of many rows, so any
+   * change to a position value clears all the cached records and the
+   * {@link PositionTrack}.
+   * </p>
+   *
+   * @param changedValues
+   *          The changed values.
+   */
+  private void clearTableRecords(Collection<SensorValue> changedValues) {
+    if (null != tableRecords) {
+      if (changedValues.stream()
+        .anyMatch(v -> SensorType.isPosition(v.getColumnId()))) {
+        Arrays.fill(tableRecords, null);
+        positionTrack = null;
+      } else {
+        for (SensorValue value : changedValues) {
+          Integer index = rowIndices.get(value.getCoordinate().getId());
+          if (null != index) {
+            tableRecords[index] = null;
+          }
+        }
       }
-    } catch (Exception e) {
-      error("Error loading table data", e);
     }
+  }
 
-    return records;
+  @Override
+  protected void updatePlots(Collection<SensorValue> changedValues) {
+    clearTableRecords(changedValues);
+    super.updatePlots(changedValues);
   }
 
   protected void addDataReductionColumns(PlotPageTableRecord record,
@@ -688,7 +775,7 @@ public class ManualQCData extends PlotPageData {
       DataSetDataDB.updateSensorValues(conn, changedValues);
       conn.commit();
       clearSelection();
-      initPlots();
+      updatePlots(changedValues);
     } catch (Exception e) {
       DatabaseUtils.rollBack(conn);
       error("Error while updating QC flags", e);
@@ -785,17 +872,18 @@ public class ManualQCData extends PlotPageData {
 
         value.setUserQC(userFlag, userComment);
         changedValues.add(value);
-        changedValues
-          .addAll(sensorValues.applyQCCascade(value, runTypePeriods));
 
         if (null != otherPositionValue) {
           otherPositionValue.setUserQC(userFlag, userComment);
           changedValues.add(otherPositionValue);
-          changedValues.addAll(
-            sensorValues.applyQCCascade(otherPositionValue, runTypePeriods));
         }
       }
 
+      // Apply the cascade for the whole selection in one go
+      changedValues.addAll(sensorValues
+        .applyQCCascade(new ArrayList<SensorValue>(changedValues),
+          runTypePeriods));
+
       // Store the updated sensor values
       conn = dataSource.getConnection();
       conn.setAutoCommit(false);
@@ -803,7 +891,7 @@ public class ManualQCData extends PlotPageData {
       conn.commit();
 
       clearSelection();
-      initPlots();
+      updatePlots(changedValues);
 
     } catch (Exception e) {
       DatabaseUtils.rollBack(conn);
@@ -1148,12 +1236,9 @@ public class ManualQCData extends PlotPageData {
   }
 
   private Measurement getConcurrentMeasurement(Coordinate coordinate) {
-    Measurement concurrentMeasurement = null;
-    Coordinate measurementCoordinate = measurements.floorKey(coordinate);
-    if (null != measurementCoordinate) {
-      concurrentMeasurement = measurements.get(measurementCoordinate);
-    }
-    return concurrentMeasurement;
+    Map.Entry<Coordinate, Measurement> entry = measurements
+      .floorEntry(coordinate);
+    return null == entry ? null : entry.getValue();
   }
 
   public TreeSet<MeasurementValueSensorType> getMeasurementSensorTypes() {
@@ -1186,7 +1271,85 @@ public class ManualQCData extends PlotPageData {
     return result;
   }
 
+  /**
+   * Get the {@link PositionTrack} for the dataset, creating it if needed.
+   *
+   * @return The position track.
+   */
+  protected PositionTrack getPositionTrack() {
+    if (null == positionTrack) {
+      positionTrack = new PositionTrack(this, rowIDs.size());
+    }
+
+    return positionTrack;
+  }
+
+  /**
+   * Get the index of the row for a {@link Coordinate}.
+   *
+   * @param coordinate
+   *          The coordinate.
+   * @return The row index, or {@code null} if the coordinate is not a row in
+   *         the dataset.
+   */
+  private Integer getRowIndex(Coordinate coordinate) {
+    return null == rowIndices ? null : rowIndices.get(coordinate.getId());
+  }
+
+  /**
+   * Get the longitude or latitude value for the specified {@link Coordinate}.
+   *
+   * <p>
+   * Values for the dataset's rows are taken from the {@link PositionTrack}.
+   * </p>
+   *
+   * @param sensorType
+   *          The position sensor type.
+   * @param coordinate
+   *          The target {@link Coordinate}.
+   * @return The position value.
+   * @throws Exception
+   *           If the value cannot be calculated.
+   * @see #calculateInterpolatedPositionValue(SensorType, Coordinate)
+   */
   protected PlotPageTableValue getInterpolatedPositionValue(
+    SensorType sensorType, Coordinate coordinate) throws Exception {
+
+    PlotPageTableValue result;
+
+    Integer row = getRowIndex(coordinate);
+    if (null != row && sensorType.equals(SensorType.LONGITUDE_SENSOR_TYPE)) {
+      result = getPositionTrack().getLongitude(row, coordinate);
+    } else if (null != row
+      && sensorType.equals(SensorType.LATITUDE_SENSOR_TYPE)) {
+      result = getPositionTrack().getLatitude(row, coordinate);
+    } else {
+      result = calculateInterpolatedPositionValue(sensorType, coordinate);
+    }
+
+    return result;
+  }
+
+  /**
+   * Calculate the longitude or latitude value for the specified
+   * {@link Coordinate}.
+   *
+   * <p>
+   * The value is taken from the measurement or sensor values at the
+   * coordinate if possible, and interpolated from the position values
+   * otherwise.
+   * </p>
+   *
+   * @param sensorType
+   *          The position sensor type.
+   * @param coordinate
+   *          The target {@link Coordinate}.
+   * @return The position value.
+   * @throws PlotPageDataException
+   * @throws PositionException
+   * @throws SensorValuesListException
+   */
+  protected PlotPageTableValue calculateInterpolatedPositionValue(
     SensorType sensorType, Coordinate coordinate)
     throws PlotPageDataException, PositionException, SensorValuesListException {
 
@@ -1231,6 +1394,29 @@ public class ManualQCData extends PlotPageData {
    * Get the Depth value interpolated to the specified {@link Coordinate}.
    *
    * <p>
+   * Values for the dataset's rows are taken from the {@link PositionTrack}.
+   * </p>
+   *
+   * @param coordinate
+   *          The target {@link Coordinate}.
+   * @return The depth value.
+   * @throws Exception
+   *           If the value cannot be calculated.
+   * @see #calculateInterpolatedDepthValue(Coordinate)
+   */
+  protected PlotPageTableValue getInterpolatedDepthValue(Coordinate coordinate)
+    throws Exception {
+
+    Integer row = getRowIndex(coordinate);
+    return null == row ? calculateInterpolatedDepthValue(coordinate)
+      : getPositionTrack().getDepth(row, coordinate);
+  }
+
+  /**
+   * Calculate the Depth value interpolated to the specified
+   * {@link Coordinate}.
+   *
+   * <p>
    * If the {@link Instrument} has a fixed depth, return that depth regardless
    * of the {@link Coordinate}.
    * </p>
@@ -1241,7 +1427,8 @@ public class ManualQCData extends PlotPageData {
    * @throws PositionException
    * @throws SensorValuesListException
    */
-  protected PlotPageTableValue getInterpolatedDepthValue(Coordinate coordinate)
+  protected PlotPageTableValue calculateInterpolatedDepthValue(
+    Coordinate coordinate)
     throws SensorValuesListException, PositionException {
 
     PlotPageTableValue result = null;
@@ -1297,16 +1484,22 @@ public class ManualQCData extends PlotPageData {
 
   @Override
   protected DataLatLng getMapPosition(Coordinate coordinate) throws Exception {
-    PlotPageTableValue longitude = getInterpolatedPositionValue(
-      SensorType.LONGITUDE_SENSOR_TYPE, coordinate);
-    PlotPageTableValue latitude = getInterpolatedPositionValue(
-      SensorType.LATITUDE_SENSOR_TYPE, coordinate);
 
     DataLatLng result = null;
 
-    if (null != longitude && !longitude.isNull() && null != latitude
-      && !latitude.isNull()) {
-      result = new DataLatLng(latitude, longitude);
+    Integer row = getRowIndex(coordinate);
+    if (null != row) {
+      result = getPositionTrack().getPosition(row, coordinate);
+    } else {
+      PlotPageTableValue longitude = calculateInterpolatedPositionValue(
+        SensorType.LONGITUDE_SENSOR_TYPE, coordinate);
+      PlotPageTableValue latitude = calculateInterpolatedPositionValue(
+        SensorType.LATITUDE_SENSOR_TYPE, coordinate);
+
+      if (null != longitude && !longitude.isNull() && null != latitude
+        && !latitude.isNull()) {
+        result = new DataLatLng(latitude, longitude);
+      }
     }
 
     return result;
@@ -0,0 +1,221 @@
+package uk.ac.exeter.QuinCe.web.datasets.plotPage.ManualQC;
+
+import uk.ac.exeter.QuinCe.data.Dataset.Coordinate;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.DataLatLng;
+import uk.ac.exeter.QuinCe.web.datasets.plotPage.PlotPageTableValue;
+
+/**
+ * The interpolated longitude, latitude and depth for each row of a
+ * {@link ManualQCData} object.
+ *
+ * <p>
+ * Finding the position for a row means checking the row's measurement and
+ * sensor values, and interpolating between the position values if neither has
+ * one. The same positions are needed by the QC table, every map column and the
+ * exported data. The track calculates each row's values the first time they
+ * are requested and keeps them in arrays indexed by row, so later requests are
+ * a simple array lookup.
+ * </p>
+ *
+ * <p>
+ * Interpolated positions depend on the QC flags of the position values, so
+ * the track must be discarded if any of those flags change.
+ * </p>
+ */
+public class PositionTrack {
+
+  /**
+   * Bit set in {@link #calculated} once the longitude has been calculated.
+   */
+  private static final byte LONGITUDE = 1;
+
+  /**
+   * Bit set in {@link #calculated} once the latitude has been calculated.
+   */
+  private static final byte LATITUDE = 2;
+
+  /**
+   * Bit set in {@link #calculated} once the depth has been calculated.
+   */
+  private static final byte DEPTH = 4;
+
+  /**
+   * Bit set in {@link #calculated} once the map position has been
+   * calculated.
+   */
+  private static final byte POSITION = 8;
+
+  /**
+   * The data object that calculates the values.
+   */
+  private final ManualQCData data;
+
+  /**
+   * Records which values have been calculated for each row. Values may be
+   * {@code null}, so this is needed to tell an empty value from one that has
+   * not been calculated.
+   */
+  private final byte[] calculated;
+
+  /**
+   * The longitude for each row.
+   */
+  private final PlotPageTableValue[] longitudes;
+
+  /**
+   * The latitude for each row.
+   */
+  private final PlotPageTableValue[] latitudes;
+
+  /**
+   * The depth for each row.
+   */
+  private final PlotPageTableValue[] depths;
+
+  /**
+   * The map position for each row.
+   */
+  private final DataLatLng[] positions;
+
+  /**
+   * Create an empty track.
+   *
+   * @param data
+   *          The data object that calculates the values.
+   * @param size
+   *          The number of rows.
+   */
+  protected PositionTrack(ManualQCData data, int size) {
+    this.data = data;
+    calculated = new byte[size];
+    longitudes = new PlotPageTableValue[size];
+    latitudes = new PlotPageTableValue[size];
+    depths = new PlotPageTableValue[size];
+    positions = new DataLatLng[size];
+  }
+
+  /**
+   * Get the longitude for a row.
+   *
+   * @param row
+   *          The row index.
+   * @param coordinate
+   *          The row's {@link Coordinate}.
+   * @return The longitude.
+   * @throws Exception
+   *           If the longitude cannot be calculated.
+   */
+  protected PlotPageTableValue getLongitude(int row, Coordinate coordinate)
+    throws Exception {
+
+    if (!isCalculated(row, LONGITUDE)) {
+      longitudes[row] = data.calculateInterpolatedPositionValue(
+        SensorType.LONGITUDE_SENSOR_TYPE, coordinate);
+      setCalculated(row, LONGITUDE);
+    }
+
+    return longitudes[row];
+  }
+
+  /**
+   * Get the latitude for a row.
+   *
+   * @param row
+   *          The row index.
+   * @param coordinate
+   *          The row's {@link Coordinate}.
+   * @return The latitude.
+   * @throws Exception
+   *           If the latitude cannot be calculated.
+   */
+  protected PlotPageTableValue getLatitude(int row, Coordinate coordinate)
+    throws Exception {
+
+    if (!isCalculated(row, LATITUDE)) {
+      latitudes[row] = data.calculateInterpolatedPositionValue(
+        SensorType.LATITUDE_SENSOR_TYPE, coordinate);
+      setCalculated(row, LATITUDE);
+    }
+
+    return latitudes[row];
+  }
+
+  /**
+   * Get the depth for a row.
+   *
+   * @param row
+   *          The row index.
+   * @param coordinate
+   *          The row's {@link Coordinate}.
+   * @return The depth.
+   * @throws Exception
+   *           If the depth cannot be calculated.
+   */
+  protected PlotPageTableValue getDepth(int row, Coordinate coordinate)
+    throws Exception {
+
+    if (!isCalculated(row, DEPTH)) {
+      depths[row] = data.calculateInterpolatedDepthValue(coordinate);
+      setCalculated(row, DEPTH);
+    }
+
+    return depths[row];
+  }
+
+  /**
+   * Get the map position for a row. Returns {@code null} if either the
+   * longitude or latitude is missing.
+   *
+   * @param row
+   *          The row index.
+   * @param coordinate
+   *          The row's {@link Coordinate}.
+   * @return The position.
+   * @throws Exception
+   *           If the position cannot be calculated.
+   */
+  protected DataLatLng getPosition(int row, Coordinate coordinate)
+    throws Exception {
+
+    if (!isCalculated(row, POSITION)) {
+      PlotPageTableValue longitude = getLongitude(row, coordinate);
+      PlotPageTableValue latitude = getLatitude(row, coordinate);
+
+      if (null != longitude && !longitude.isNull() && null != latitude
+        && !latitude.isNull()) {
+        positions[row] = new DataLatLng(latitude, longitude);
+      }
+
+      setCalculated(row, POSITION);
+    }
+
+    return positions[row];
+  }
+
+  /**
+   * Determine whether a value has been calculated for a row.
+   *
+   * @param row
+   *          The row index.
+   * @param value
+   *          The value's bit.
+   * @return {@code true} if the value has been calculated; {@code false}
+   *         otherwise.
+   */
+  private boolean isCalculated(int row, byte value) {
+    return (calculated[row] & value) != 0;
+  }
+
+  /**
+   * Record that a value has been calculated for a row.
+   *
+   * @param row
+   *          The row index.
+   * @param value
+   *          The value's bit.
+   */
+  private void setCalculated(int row, byte value) {
+    calculated[row] |= value;
+  }
+}
@@ -238,6 +238,18 @@ public class MapRecords extends ArrayList<MapRecord> {
     valueRangeCalculated = false;
   }
 
+  /**
+   * Indicate that the QC flags of some of the records have changed.
+   *
+   * <p>
+   * The records read their flags from their source values, so only the cached
+   * value ranges need to be discarded.
+   * </p>
+   */
+  public void flagsChanged() {
+    resetRange();
+  }
+
   private void calculateValueRange(DatasetSensorValues allSensorValues) {
     min = Double.NaN;
     max = Double.NaN;
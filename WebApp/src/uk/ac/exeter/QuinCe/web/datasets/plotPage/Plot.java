@@ -1,6 +1,7 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
@@ -11,10 +12,12 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 
 import uk.ac.exeter.QuinCe.data.Dataset.Coordinate;
+import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
 import uk.ac.exeter.QuinCe.data.Dataset.TimeCoordinate;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.utils.MathUtils;
 
 public class Plot {
@@ -66,6 +69,28 @@ public class Plot {
    */
   private boolean hideFlags = false;
 
+  /**
+   * Lookup table of plot values by their ID, used to update individual values
+   * when QC flags are changed.
+   *
+   * @see #updateFlags(Set)
+   */
+  private HashMap<Long, PlotValue> plotValueIndex = null;
+
+  /**
+   * Indicates that only the QC flags of the plot values have changed since the
+   * main plot data was last generated, so it does not need to be sent to the
+   * front end again.
+   *
+   * <p>
+   * The flag only applies to the next call to {@link #getMainData()}, and is
+   * cleared by anything that changes which values are visible.
+   * </p>
+   *
+   * @see #getMainData()
+   */
+  private boolean mainDataUnchanged = false;
+
   static {
     Y2_GSON = new GsonBuilder()
       .registerTypeAdapter(PlotValue.class, new Y2AxisPlotValueSerializer())
@@ -103,6 +128,7 @@ public class Plot {
   public void setXaxis(long xAxis) throws Exception {
     if (xAxis != 0) {
       this.xAxis = data.getColumnHeading(xAxis);
+      mainDataUnchanged = false;
     }
   }
 
@@ -127,6 +153,7 @@ public class Plot {
   public void setYaxis(long yAxis) throws Exception {
     if (yAxis != 0) {
       this.yAxis = data.getColumnHeading(yAxis);
+      mainDataUnchanged = false;
     }
   }
 
@@ -145,18 +172,30 @@ public class Plot {
     } else {
       this.y2Axis = null;
     }
+
+    mainDataUnchanged = false;
   }
 
   /**
    * Get the JSON data for the main plot
    *
+   * <p>
+   * If only the QC flags have changed since the plot was initialised (see
+   * {@link #updateFlags(Set)}), the main data will not have changed and an
+   * empty String is returned. The front end will then keep the data it already
+   * has. This only happens once; later calls return the full data.
+   * </p>
+   *
    * @return The main plot data.
    * @throws Exception
    */
   public String getMainData() {
     String result = "[]";
 
-    if (null != getPlotValues()) {
+    if (mainDataUnchanged) {
+      result = "";
+      mainDataUnchanged = false;
+    } else if (null != getPlotValues()) {
       Gson gson = new GsonBuilder().registerTypeAdapter(PlotValue.class,
         new MainPlotValueSerializer(null != y2Axis)).create();
 
@@ -226,6 +265,7 @@ public class Plot {
     TreeMap<Coordinate, PlotPageTableValue> y2Values = getY2Values();
 
     plotValues = new TreeSet<PlotValue>();
+    mainDataUnchanged = false;
 
     for (Coordinate coordinate : xValues.keySet()) {
       if (yValues.containsKey(coordinate) || y2Values.containsKey(coordinate)) {
@@ -277,6 +317,7 @@ public class Plot {
         }
 
         if (null != plotValue) {
+          plotValue.setFlagSources(y, y2);
           plotValues.add(plotValue);
         }
       }
@@ -333,11 +374,49 @@ public class Plot {
   public void init() {
     try {
       makePlotValues();
+      plotValueIndex = new HashMap<Long, PlotValue>();
+      getPlotValues().forEach(v -> plotValueIndex.put(v.getId(), v));
+      mainDataUnchanged = false;
     } catch (Exception e) {
       data.error(e);
     }
   }
 
+  /**
+   * Update the QC flags of the plot values for the specified rows after the
+   * QC flags of their {@link SensorValue}s have been changed.
+   *
+   * <p>
+   * The affected {@link PlotValue}s are updated in place instead of rebuilding
+   * the whole plot. Position values are built from interpolated positions when
+   * the plot is created, so if any axis shows a position the plot is rebuilt in
+   * full via {@link #init()}.
+   * </p>
+   *
+   * @param rowIds
+   *          The IDs of the rows whose flags have changed.
+   */
+  protected void updateFlags(Set<Long> rowIds) {
+    if (null == plotValueIndex || isPositionAxis(xAxis)
+      || isPositionAxis(yAxis) || isPositionAxis(y2Axis)) {
+      init();
+    } else {
+      for (long rowId : rowIds) {
+        PlotValue plotValue = plotValueIndex.get(rowId);
+        if (null != plotValue) {
+          plotValue.refreshFlags(data.getAllSensorValues(), useNeededFlags);
+        }
+      }
+
+      // If flagged values are hidden, the main data will have changed.
+      mainDataUnchanged = !hideFlags;
+    }
+  }
+
+  private boolean isPositionAxis(PlotPageColumnHeading axis) {
+    return null != axis && SensorType.isPosition(axis.getId());
+  }
+
   public String getDataLabels() {
     List<String> labels = new ArrayList<>(4);
     labels.add(xAxis.getShortName());
@@ -396,6 +475,7 @@ public class Plot {
 
   protected void setHideFlags(boolean hideFlags) {
     this.hideFlags = hideFlags;
+    mainDataUnchanged = false;
   }
 
   protected boolean getHideFlags() {
@@ -1,23 +1,30 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.lang.reflect.Type;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 import javax.sql.DataSource;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonWriter;
 import com.javadocmd.simplelatlng.LatLng;
 
 import uk.ac.exeter.QuinCe.data.Dataset.ColumnHeading;
@@ -31,6 +38,7 @@ import uk.ac.exeter.QuinCe.data.Dataset.SensorValue;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
 import uk.ac.exeter.QuinCe.data.Instrument.FileDefinition;
 import uk.ac.exeter.QuinCe.data.Instrument.Instrument;
+import uk.ac.exeter.QuinCe.data.Instrument.SensorDefinition.SensorType;
 import uk.ac.exeter.QuinCe.utils.DateTimeUtils;
 import uk.ac.exeter.QuinCe.utils.ExceptionUtils;
 import uk.ac.exeter.QuinCe.utils.StringUtils;
@@ -80,6 +88,11 @@ public abstract class PlotPageData {
    */
   protected Gson tableDataGson;
 
+  /**
+   * Serializer for streaming table records to JSON
+   */
+  private PlotPageTableRecordSerializer tableRecordSerializer = null;
+
   /**
    * Gson instance for serializing column headings
    */
@@ -207,6 +220,8 @@ public abstract class PlotPageData {
       }
 
       initTableDataGson();
+      tableRecordSerializer = new PlotPageTableRecordSerializer(
+        getAllSensorValues());
 
       columnHeadingsGson = new GsonBuilder()
         .registerTypeAdapter(new TreeMap<LocalDateTime, Double>().getClass(),
@@ -659,7 +674,24 @@ public abstract class PlotPageData {
     if (loaded) {
       List<PlotPageTableRecord> records = generateTableDataRecords(start,
         length);
-      result = tableDataGson.toJson(records);
+
+      // Stream the records straight to the output instead of building a JSON
+      // tree for the whole page first.
+      StringWriter json = new StringWriter();
+      try (JsonWriter writer = new JsonWriter(json)) {
+        writer.setHtmlSafe(true);
+        writer.setSerializeNulls(false);
+
+        writer.beginArray();
+        for (PlotPageTableRecord record : records) {
+          tableRecordSerializer.write(writer, record);
+        }
+        writer.endArray();
+
+        result = json.toString();
+      } catch (IOException e) {
+        error("Error generating table data", e);
+      }
     }
 
     return result;
@@ -906,6 +938,30 @@ public abstract class PlotPageData {
     getPlot2().init();
   }
 
+  /**
+   * Update the plots and maps after the QC flags of the specified
+   * {@link SensorValue}s have been changed.
+   *
+   * <p>
+   * Unlike {@link #initPlots()}, this only updates the plot values for the rows
+   * containing the changed values. Cached map data is kept except for position
+   * columns, which are built from interpolated values.
+   * </p>
+   *
+   * @param changedValues
+   *          The {@link SensorValue}s whose flags have changed.
+   */
+  protected void updatePlots(Collection<SensorValue> changedValues) {
+    Set<Long> rowIds = changedValues.stream()
+      .map(v -> v.getCoordinate().getId()).collect(Collectors.toSet());
+
+    getPlot1().updateFlags(rowIds);
+    getPlot2().updateFlags(rowIds);
+
+    mapCache.keySet().removeIf(c -> SensorType.isPosition(c.getId()));
+    mapCache.values().forEach(MapRecords::flagsChanged);
+  }
+
   /**
    * Get all the values for a given column.
    *
@@ -1047,9 +1103,16 @@ public abstract class PlotPageData {
     MapRecords records = new MapRecords(size(), getAllSensorValues());
 
     if (column.getId() == FileDefinition.TIME_COLUMN_ID) {
-      for (Coordinate coordinate : getCoordinates()) {
-        LatLng position = getAllSensorValues().getClosestPosition(coordinate);
-        records.add(new TimeMapRecord(position, coordinate));
+      // Sorting is cheap because the coordinates are usually in order already
+      List<Coordinate> coordinates = new ArrayList<Coordinate>(
+        getCoordinates());
+      Collections.sort(coordinates);
+
+      List<LatLng> positions = getAllSensorValues()
+        .getClosestPositions(coordinates);
+
+      for (int i = 0; i < coordinates.size(); i++) {
+        records.add(new TimeMapRecord(positions.get(i), coordinates.get(i)));
       }
     } else {
       TreeMap<Coordinate, PlotPageTableValue> values = getColumnValues(column);
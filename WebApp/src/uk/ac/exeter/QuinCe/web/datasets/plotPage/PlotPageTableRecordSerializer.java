@@ -1,5 +1,6 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.Map;
 
@@ -9,6 +10,7 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
 
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
 
@@ -17,10 +19,12 @@ public class PlotPageTableRecordSerializer
 
   private Gson gson;
 
+  private PlotPageTableValueSerializer valueSerializer;
+
   public PlotPageTableRecordSerializer(DatasetSensorValues allSensorValues) {
+    valueSerializer = new PlotPageTableValueSerializer(allSensorValues);
     gson = new GsonBuilder()
-      .registerTypeHierarchyAdapter(PlotPageTableValue.class,
-        new PlotPageTableValueSerializer(allSensorValues))
+      .registerTypeHierarchyAdapter(PlotPageTableValue.class, valueSerializer)
       .create();
   }
 
@@ -40,4 +44,34 @@ public class PlotPageTableRecordSerializer
     // TODO Auto-generated method stub
     return jsonMap;
   }
+
+  /**
+   * Write a {@link PlotPageTableRecord} directly to a {@link JsonWriter}.
+   *
+   * <p>
+   * The output matches that of
+   * {@link #serialize(PlotPageTableRecord, Type, JsonSerializationContext)}.
+   * </p>
+   *
+   * @param out
+   *          The writer.
+   * @param src
+   *          The record to write.
+   * @throws IOException
+   *           If the record cannot be written.
+   */
+  public void write(JsonWriter out, PlotPageTableRecord src)
+    throws IOException {
+
+    out.beginObject();
+    out.name(PlotPageTableRecord.ID_KEY).value(src.getId());
+
+    for (Map.Entry<Integer, PlotPageTableValue> columnEntry : src.getColumns()
+      .entrySet()) {
+      out.name(String.valueOf(columnEntry.getKey()));
+      valueSerializer.write(out, columnEntry.getValue());
+    }
+
+    out.endObject();
+  }
 }
@@ -1,5 +1,6 @@
 package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 
 import com.google.gson.JsonElement;
@@ -7,6 +8,7 @@ import com.google.gson.JsonNull;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonSerializationContext;
 import com.google.gson.JsonSerializer;
+import com.google.gson.stream.JsonWriter;
 
 import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
 
@@ -49,4 +51,49 @@ public class PlotPageTableValueSerializer
     return json;
   }
 
+  /**
+   * Write a {@link PlotPageTableValue} directly to a {@link JsonWriter}.
+   *
+   * <p>
+   * This produces the same structure as
+   * {@link #serialize(PlotPageTableValue, Type, JsonSerializationContext)}
+   * without building an intermediate JSON tree, so large table pages can be
+   * streamed straight to their output.
+   * </p>
+   *
+   * @param out
+   *          The writer.
+   * @param src
+   *          The value to write.
+   * @throws IOException
+   *           If the value cannot be written.
+   */
+  public void write(JsonWriter out, PlotPageTableValue src)
+    throws IOException {
+
+    out.beginObject();
+
+    if (null == src || src.isNull()) {
+      out.name("value").nullValue();
+      out.name("qcFlag").nullValue();
+      out.name("qcMessage").nullValue();
+      out.name("flagNeeded").nullValue();
+      out.name("type").nullValue();
+    } else {
+      out.name("value").value(src.getValue());
+      out.name("qcFlag").value(src.getQcFlag(allSensorValues).getValue());
+
+      if (null == src.getQcMessage(allSensorValues, false)) {
+        out.name("qcMessage").nullValue();
+      } else {
+        out.name("qcMessage").value(
+          src.getQcMessage(allSensorValues, true).replaceAll("\\r?\\n", ";"));
+      }
+
+      out.name("flagNeeded").value(src.getFlagNeeded());
+      out.name("type").value(String.valueOf(src.getType()));
+    }
+
+    out.endObject();
+  }
 }
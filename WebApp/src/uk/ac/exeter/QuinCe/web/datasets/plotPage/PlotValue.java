@@ -3,6 +3,7 @@ package uk.ac.exeter.QuinCe.web.datasets.plotPage;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
+import uk.ac.exeter.QuinCe.data.Dataset.DatasetSensorValues;
 import uk.ac.exeter.QuinCe.data.Dataset.TimeCoordinate;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.Flag;
 import uk.ac.exeter.QuinCe.data.Dataset.QC.FlagScheme;
@@ -60,6 +61,16 @@ class PlotValue implements Comparable<PlotValue> {
    */
   private final FlagScheme flagScheme;
 
+  /**
+   * The table value from which the y value's QC flag was taken.
+   */
+  private PlotPageTableValue flagSource = null;
+
+  /**
+   * The table value from which the y2 value's QC flag was taken.
+   */
+  private PlotPageTableValue flag2Source = null;
+
   /**
    * Constructor for all fields.
    *
@@ -253,4 +264,49 @@ class PlotValue implements Comparable<PlotValue> {
   public FlagScheme getFlagScheme() {
     return flagScheme;
   }
+
+  /**
+   * Record the table values from which the QC flags for this value were
+   * taken, so they can be refreshed by {@link #refreshFlags} if the
+   * underlying QC flags change.
+   *
+   * @param flagSource
+   *          The source of the y value's flag.
+   * @param flag2Source
+   *          The source of the y2 value's flag.
+   */
+  protected void setFlagSources(PlotPageTableValue flagSource,
+    PlotPageTableValue flag2Source) {
+    this.flagSource = flagSource;
+    this.flag2Source = flag2Source;
+  }
+
+  /**
+   * Re-read the QC flags for this value from its flag sources.
+   *
+   * <p>
+   * The rules match those used when the value is first built: the y flag is
+   * replaced with {@link FlagScheme#NEEDED_FLAG} if a flag is needed and
+   * {@code useNeededFlags} is set, while the y2 flag never shows NEEDED.
+   * </p>
+   *
+   * @param allSensorValues
+   *          The dataset's sensor values.
+   * @param useNeededFlags
+   *          Indicates whether NEEDED flags should be shown.
+   */
+  protected void refreshFlags(DatasetSensorValues allSensorValues,
+    boolean useNeededFlags) {
+
+    if (null != flagSource) {
+      flag = flagSource.getQcFlag(allSensorValues);
+      if (useNeededFlags && flagSource.getFlagNeeded()) {
+        flag = FlagScheme.NEEDED_FLAG;
+      }
+    }
+
+    if (null != flag2Source) {
+      flag2 = flag2Source.getQcFlag(allSensorValues);
+    }
+  }
 }
@@ -1,5 +1,9 @@
 package uk.ac.exeter.QuinCe.web.files;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -84,15 +88,47 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
   /**
    * Extract the file contents as individual lines.
    *
+   * <p>
+   * The lines are read directly from the file bytes, without first building
+   * the complete file contents as a single {@link String}. Blank lines are
+   * skipped, except at the very start of the file. If the file contains only
+   * whitespace, the result is {@code null}.
+   * </p>
+   *
    * @return The file lines.
    */
   public String[] getLines() {
     if (null == fileLines) {
-      String fileContent = getFileContents();
-      if (null == fileContent || fileContent.trim().length() == 0) {
-        fileLines = null;
-      } else {
-        fileLines = fileContent.split("[\\r\\n]+");
+      byte[] fileBytes = getFileBytes();
+
+      if (null != fileBytes) {
+        List<String> lines = new ArrayList<String>();
+        boolean hasContent = false;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+          new ByteArrayInputStream(fileBytes), StandardCharsets.UTF_8))) {
+
+          String line = reader.readLine();
+          while (null != line) {
+            if (line.length() > 0 || lines.isEmpty()) {
+              lines.add(line);
+            }
+
+            if (!hasContent && line.trim().length() > 0) {
+              hasContent = true;
+            }
+
+            line = reader.readLine();
+          }
+        } catch (IOException e) {
+          // Reading from a byte array should never fail
+          ExceptionUtils.printStackTrace(e);
+          hasContent = false;
+        }
+
+        if (hasContent) {
+          fileLines = lines.toArray(new String[lines.size()]);
+        }
       }
     }
 
@@ -353,7 +389,8 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
       DataSource dataSource = ResourceManager.getInstance().getDBDataSource();
 
       InstrumentFileSet fileDefinitions = instrument.getFileDefinitions();
-      List<String> lines = Arrays.asList(getLines());
+      String[] lineArray = getLines();
+      List<String> lines = null == lineArray ? null : Arrays.asList(lineArray);
       if (null == lines) {
         if (allowEmpty) {
           fileEmpty = true;
@@ -410,9 +447,8 @@ public abstract class UploadedDataFile implements Comparable<UploadedDataFile> {
               + " could not be processed (see messages below). Please fix these problems and upload the file again.",
               FacesMessage.SEVERITY_ERROR);
           } else {
-            TreeSet<DataFile> overlappingFiles = getDataFile()
-              .getOverlappingFiles(DataFileDB.getFiles(dataSource, instrument,
-                getDataFile().getFileDefinition()));
+            TreeSet<DataFile> overlappingFiles = DataFileDB
+              .getOverlappingFiles(dataSource, instrument, getDataFile());
 
             boolean fileOK = true;
             String fileMessage = null;
@@ -1,9 +1,13 @@
 package uk.ac.exeter.QuinCe.web.jobs;
 
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import uk.ac.exeter.QuinCe.User.User;
 import uk.ac.exeter.QuinCe.jobs.Job;
 import uk.ac.exeter.QuinCe.jobs.JobManager;
 import uk.ac.exeter.QuinCe.jobs.JobSummary;
@@ -44,10 +48,62 @@ public class JobsBean extends BaseManagedBean {
   private Map<String, Integer> jobCounts = null;
 
   /**
-   * The complete list of jobs
+   * The number of jobs shown on each page of the job list
+   */
+  private static final int PAGE_SIZE = 50;
+
+  /**
+   * The current page of the job list
    */
   private List<JobSummary> jobList = null;
 
+  /**
+   * The job ID that the current page of the job list starts before. A
+   * {@code null} value indicates the first page.
+   */
+  private Long pageStart = null;
+
+  /**
+   * The starts of the pages before the current page
+   */
+  private Deque<Long> previousPageStarts = new ArrayDeque<Long>();
+
+  /**
+   * Indicates whether there are older jobs than those on the current page
+   */
+  private boolean olderJobs = false;
+
+  /**
+   * The job status to filter the job list by. An empty value shows all jobs.
+   */
+  private String statusFilter = "";
+
+  /**
+   * The database ID of the owner to filter the job list by. Zero shows all
+   * jobs.
+   */
+  private long ownerFilter = 0;
+
+  /**
+   * The job class to filter the job list by. An empty value shows all jobs.
+   */
+  private String classFilter = "";
+
+  /**
+   * The job classes that can be used to filter the job list
+   */
+  private List<String> jobClasses = null;
+
+  /**
+   * The job owners that can be used to filter the job list
+   */
+  private List<User> jobOwners = null;
+
+  /**
+   * The stack trace of the {@link #chosenJob}
+   */
+  private String stackTrace = null;
+
   /**
    * The number of chunks in the test job
    */
@@ -101,10 +157,75 @@ public class JobsBean extends BaseManagedBean {
     }
 
     try {
-      jobList = JobManager.getJobList(ServletUtils.getDBDataSource());
+      jobList = JobManager.getJobList(ServletUtils.getDBDataSource(),
+        statusFilter.length() == 0 ? null : statusFilter,
+        ownerFilter == 0 ? null : ownerFilter,
+        classFilter.length() == 0 ? null : classFilter, pageStart,
+        PAGE_SIZE + 1);
+
+      olderJobs = jobList.size() > PAGE_SIZE;
+      if (olderJobs) {
+        jobList = jobList.subList(0, PAGE_SIZE);
+      }
     } catch (Exception e) {
       ExceptionUtils.printStackTrace(e);
       jobList = null;
+      olderJobs = false;
+    }
+  }
+
+  /**
+   * Apply the selected filters to the job list, and show the first page
+   */
+  public void applyFilters() {
+    firstPage();
+  }
+
+  /**
+   * Show the first (newest) page of the job list
+   */
+  public void firstPage() {
+    pageStart = null;
+    previousPageStarts.clear();
+    update();
+  }
+
+  /**
+   * Show the next (older) page of the job list
+   */
+  public void olderPage() {
+    if (olderJobs && null != jobList && jobList.size() > 0) {
+      previousPageStarts.push(null == pageStart ? 0L : pageStart);
+      pageStart = jobList.get(jobList.size() - 1).getId();
+    }
+
+    update();
+  }
+
+  /**
+   * Show the previous (newer) page of the job list
+   */
+  public void newerPage() {
+    if (previousPageStarts.isEmpty()) {
+      pageStart = null;
+    } else {
+      long previousStart = previousPageStarts.pop();
+      pageStart = previousStart == 0L ? null : previousStart;
+    }
+
+    update();
+  }
+
+  /**
+   * Load the stack trace of the {@link #chosenJob}
+   */
+  public void loadStackTrace() {
+    try {
+      stackTrace = JobManager.getStackTrace(ServletUtils.getDBDataSource(),
+        chosenJob);
+    } catch (Exception e) {
+      ExceptionUtils.printStackTrace(e);
+      stackTrace = null;
     }
   }
 
@@ -303,7 +424,7 @@ public class JobsBean extends BaseManagedBean {
   }
 
   /**
-   * Get the list of all jobs in the system
+   * Get the current page of the job list
    *
    * @return The list of jobs
    */
@@ -311,6 +432,135 @@ public class JobsBean extends BaseManagedBean {
     return jobList;
   }
 
+  /**
+   * Determine whether the current page is the first page of the job list
+   *
+   * @return {@code true} if the first page is being shown
+   */
+  public boolean isFirstPage() {
+    return null == pageStart;
+  }
+
+  /**
+   * Determine whether there are jobs older than those on the current page
+   *
+   * @return {@code true} if there are older jobs
+   */
+  public boolean isOlderJobs() {
+    return olderJobs;
+  }
+
+  /**
+   * Get the job statuses that can be used to filter the job list
+   *
+   * @return The job statuses
+   */
+  public List<String> getStatuses() {
+    return Arrays.asList(Job.WAITING_STATUS, Job.RUNNING_STATUS,
+      Job.FINISHED_STATUS, Job.ERROR_STATUS, Job.KILLED_STATUS);
+  }
+
+  /**
+   * Get the job classes that can be used to filter the job list
+   *
+   * @return The job classes
+   */
+  public List<String> getJobClasses() {
+    if (null == jobClasses) {
+      try {
+        jobClasses = JobManager.getJobClasses(ServletUtils.getDBDataSource());
+      } catch (Exception e) {
+        ExceptionUtils.printStackTrace(e);
+      }
+    }
+
+    return jobClasses;
+  }
+
+  /**
+   * Get the job owners that can be used to filter the job list
+   *
+   * @return The job owners
+   */
+  public List<User> getJobOwners() {
+    if (null == jobOwners) {
+      try {
+        jobOwners = JobManager.getJobOwners(ServletUtils.getDBDataSource());
+      } catch (Exception e) {
+        ExceptionUtils.printStackTrace(e);
+      }
+    }
+
+    return jobOwners;
+  }
+
+  /**
+   * Get the status filter for the job list
+   *
+   * @return The status filter
+   */
+  public String getStatusFilter() {
+    return statusFilter;
+  }
+
+  /**
+   * Set the status filter for the job list
+   *
+   * @param statusFilter
+   *          The status filter
+   */
+  public void setStatusFilter(String statusFilter) {
+    this.statusFilter = null == statusFilter ? "" : statusFilter;
+  }
+
+  /**
+   * Get the owner filter for the job list
+   *
+   * @return The owner's database ID
+   */
+  public long getOwnerFilter() {
+    return ownerFilter;
+  }
+
+  /**
+   * Set the owner filter for the job list
+   *
+   * @param ownerFilter
+   *          The owner's database ID
+   */
+  public void setOwnerFilter(long ownerFilter) {
+    this.ownerFilter = ownerFilter;
+  }
+
+  /**
+   * Get the job class filter for the job list
+   *
+   * @return The job class filter
+   */
+  public String getClassFilter() {
+    return classFilter;
+  }
+
+  /**
+   * Set the job class filter for the job list
+   *
+   * @param classFilter
+   *          The job class filter
+   */
+  public void setClassFilter(String classFilter) {
+    this.classFilter = null == classFilter ? "" : classFilter;
+  }
+
+  /**
+   * Get the stack trace of the chosen job, formatted in HTML
+   *
+   * @return The stack trace
+   * @see #loadStackTrace()
+   */
+  public String getStackTraceAsHtml() {
+    return JobSummary.formatStackTrace(stackTrace);
+  }
+
   /**
    * Get the number of jobs with a specified status
    *
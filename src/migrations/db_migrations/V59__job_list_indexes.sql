@@ -0,0 +1,7 @@
+-- Indexes for the paged job list
+
+-- Job class names are short, so the class column can be indexed
+ALTER TABLE job MODIFY class VARCHAR(255) NOT NULL;
+
+CREATE INDEX JOB_STATUS_idx ON job (status, id);
+CREATE INDEX JOB_CLASS_idx ON job (class, id);